@@ -20,6 +20,10 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
 
 import java.sql.SQLException;
 
+/**
+ * The one mapping from exceptions to {@link ApiErrorResponse}; {@link #toResponse} also shapes the per-item errors
+ * of batch endpoints, so an item fails exactly like the same request sent on its own.
+ */
 @RestControllerAdvice
 public class ApiExceptionHandler {
 
@@ -27,22 +31,22 @@ public class ApiExceptionHandler {
 
     @ExceptionHandler(ApiException.class)
     public ResponseEntity<ApiErrorResponse> handleApi(ApiException ex) {
-        return respond(ex.getStatus(), ex.getStatus().name(), ex.getMessage());
+        return toResponse(ex, currentRequestId());
     }
 
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<ApiErrorResponse> handleBadRequest(IllegalArgumentException ex) {
-        return respond(HttpStatus.BAD_REQUEST, "BAD_REQUEST", ex.getMessage());
+        return toResponse(ex, currentRequestId());
     }
 
     @ExceptionHandler({MethodArgumentNotValidException.class, ConstraintViolationException.class})
     public ResponseEntity<ApiErrorResponse> handleValidation(Exception ex) {
-        return respond(HttpStatus.BAD_REQUEST, "VALIDATION_ERROR", "Invalid request");
+        return toResponse(ex, currentRequestId());
     }
 
     @ExceptionHandler(DataIntegrityViolationException.class)
     public ResponseEntity<ApiErrorResponse> handleDataIntegrity(DataIntegrityViolationException ex) {
-        return conflict("DATA_INTEGRITY_VIOLATION", "Data integrity violation", ex);
+        return toResponse(ex, currentRequestId());
     }
 
     /**
@@ -50,10 +54,7 @@ public class ApiExceptionHandler {
      */
     @ExceptionHandler(TransactionSystemException.class)
     public ResponseEntity<ApiErrorResponse> handleTransactionSystem(TransactionSystemException ex) {
-        if (isIntegrityViolation(ex)) {
-            return conflict("DATA_INTEGRITY_VIOLATION", "Data integrity violation", ex);
-        }
-        return internal(ex);
+        return toResponse(ex, currentRequestId());
     }
 
     /**
@@ -62,16 +63,30 @@ public class ApiExceptionHandler {
      */
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ApiErrorResponse> handleAny(Exception ex) {
+        return toResponse(ex, currentRequestId());
+    }
+
+    public static ResponseEntity<ApiErrorResponse> toResponse(Throwable ex, String requestId) {
+        if (ex instanceof ApiException api) {
+            return respond(api.getStatus(), api.getStatus().name(), api.getMessage(), requestId);
+        }
+        if (ex instanceof IllegalArgumentException) {
+            return respond(HttpStatus.BAD_REQUEST, "BAD_REQUEST", ex.getMessage(), requestId);
+        }
+        if (ex instanceof MethodArgumentNotValidException || ex instanceof ConstraintViolationException) {
+            return respond(HttpStatus.BAD_REQUEST, "VALIDATION_ERROR", "Invalid request", requestId);
+        }
         if (isIntegrityViolation(ex)) {
-            return conflict("DATA_INTEGRITY_VIOLATION", "Data integrity violation", ex);
+            log.warn("API conflict requestId={} code={} message={}", requestId, "DATA_INTEGRITY_VIOLATION", "Data integrity violation", ex);
+            return respond(HttpStatus.CONFLICT, "DATA_INTEGRITY_VIOLATION", "Data integrity violation", requestId);
         }
-        return internal(ex);
+        log.error("Unhandled exception requestId={}", requestId, ex);
+        return respond(HttpStatus.INTERNAL_SERVER_ERROR, "UNEXPECTED_ERROR", "Unexpected error", requestId);
     }
 
     // ---------- helpers ----------
 
-    private ResponseEntity<ApiErrorResponse> respond(HttpStatus status, String code, String message) {
-        String requestId = currentRequestId();
+    private static ResponseEntity<ApiErrorResponse> respond(HttpStatus status, String code, String message, String requestId) {
         ApiErrorResponse body = new ApiErrorResponse(
                 status.name(),
                 code,
@@ -81,19 +96,7 @@ public class ApiExceptionHandler {
         return ResponseEntity.status(status).body(body);
     }
 
-    private ResponseEntity<ApiErrorResponse> conflict(String code, String message, Exception ex) {
-        String requestId = currentRequestId();
-        log.warn("API conflict requestId={} code={} message={}", requestId, code, message, ex);
-        return respond(HttpStatus.CONFLICT, code, message);
-    }
-
-    private ResponseEntity<ApiErrorResponse> internal(Exception ex) {
-        String requestId = currentRequestId();
-        log.error("Unhandled exception requestId={}", requestId, ex);
-        return respond(HttpStatus.INTERNAL_SERVER_ERROR, "UNEXPECTED_ERROR", "Unexpected error");
-    }
-
-    private String currentRequestId() {
+    private static String currentRequestId() {
         String rid = MDC.get(RequestIdFilter.MDC_KEY);
         return (rid == null || rid.isBlank()) ? "" : rid;
     }
@@ -104,7 +107,7 @@ public class ApiExceptionHandler {
      * - Hibernate ConstraintViolationException
      * - SQLException con SQLITE_CONSTRAINT
      */
-    private boolean isIntegrityViolation(Throwable ex) {
+    private static boolean isIntegrityViolation(Throwable ex) {
         Throwable t = ex;
         while (t != null) {
             if (t instanceof DataIntegrityViolationException) return true;
@@ -6,28 +6,45 @@
 package com.pasarela.api.admin;
 
 import com.pasarela.application.routing.ProviderHealthService;
+import com.pasarela.application.routing.RoutingDecisionCodec;
+import com.pasarela.application.routing.RoutingReplayService;
+import com.pasarela.application.routing.RoutingWeights;
 import com.pasarela.application.routing.ProviderSnapshot;
 import com.pasarela.domain.model.PaymentProvider;
+import com.pasarela.domain.model.RoutingReasonCode;
 import com.pasarela.infrastructure.persistence.entity.RoutingDecisionEntity;
 import com.pasarela.infrastructure.persistence.repository.RoutingDecisionRepository;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/admin/routing")
 public class AdminRoutingController {
     private final ProviderHealthService providerHealthService;
     private final RoutingDecisionRepository routingDecisionRepository;
+    private final RoutingDecisionCodec routingDecisionCodec;
+    private final RoutingReplayService routingReplayService;
 
-    public AdminRoutingController(ProviderHealthService providerHealthService, RoutingDecisionRepository routingDecisionRepository) {
+    public AdminRoutingController(
+            ProviderHealthService providerHealthService,
+            RoutingDecisionRepository routingDecisionRepository,
+            RoutingDecisionCodec routingDecisionCodec,
+            RoutingReplayService routingReplayService
+    ) {
         this.providerHealthService = providerHealthService;
         this.routingDecisionRepository = routingDecisionRepository;
+        this.routingDecisionCodec = routingDecisionCodec;
+        this.routingReplayService = routingReplayService;
     }
 
     @GetMapping("/health")
@@ -36,11 +53,52 @@ public class AdminRoutingController {
     }
 
     @GetMapping("/decisions")
-    public List<RoutingDecisionEntity> decisions(
+    public List<RoutingDecisionDto> decisions(
             @RequestParam(value = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
             @RequestParam(value = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
             @RequestParam(value = "provider", required = false) PaymentProvider provider
     ) {
-        return routingDecisionRepository.search(from, to, provider);
+        return routingDecisionRepository.search(from, to, provider).stream().map(this::toDto).toList();
+    }
+
+    @PostMapping("/simulate")
+    public RoutingReplayService.SimulationReport simulate(@RequestBody SimulateRequest req) {
+        return routingReplayService.simulate(new RoutingReplayService.SimulationRequest(
+                req.from(),
+                req.to(),
+                req.merchantId(),
+                req.weights(),
+                req.costModel()
+        ));
     }
+
+    private RoutingDecisionDto toDto(RoutingDecisionEntity decision) {
+        return new RoutingDecisionDto(
+                decision.getId(),
+                decision.getPaymentIntentId(),
+                decision.getMerchantId(),
+                decision.getChosenProvider(),
+                routingDecisionCodec.renderJson(decision),
+                decision.getReasonCode(),
+                decision.getCreatedAt()
+        );
+    }
+
+    public record SimulateRequest(
+            Instant from,
+            Instant to,
+            UUID merchantId,
+            RoutingWeights weights,
+            Map<PaymentProvider, Double> costModel
+    ) {}
+
+    public record RoutingDecisionDto(
+            UUID id,
+            UUID paymentIntentId,
+            UUID merchantId,
+            PaymentProvider chosenProvider,
+            String candidateScoresJson,
+            RoutingReasonCode reasonCode,
+            Instant createdAt
+    ) {}
 }
@@ -6,6 +6,7 @@
 package com.pasarela.api.merchants;
 
 import com.pasarela.application.MerchantService;
+import com.pasarela.application.routing.RoutingStrategy;
 import com.pasarela.application.routing.RoutingWeights;
 import com.pasarela.domain.model.PaymentProvider;
 import com.pasarela.infrastructure.persistence.entity.MerchantEntity;
@@ -49,7 +50,8 @@ public class MerchantAdminController {
         MerchantEntity updated = merchantService.updateRoutingConfig(merchantId, new MerchantService.RoutingConfigPatch(
                 req.forceProvider(),
                 req.weights(),
-                req.costModel()
+                req.costModel(),
+                req.strategy()
         ));
         return toDto(updated);
     }
@@ -70,7 +72,8 @@ public class MerchantAdminController {
     public record RoutingConfigPatchRequest(
             String forceProvider,
             RoutingWeights weights,
-            Map<PaymentProvider, Double> costModel
+            Map<PaymentProvider, Double> costModel,
+            RoutingStrategy strategy
     ) {}
 
     public record MerchantDto(
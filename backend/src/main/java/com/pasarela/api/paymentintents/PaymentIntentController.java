@@ -6,7 +6,9 @@
 package com.pasarela.api.paymentintents;
 
 import com.pasarela.application.PaymentIntentService;
+import com.pasarela.api.ApiErrorResponse;
 import com.pasarela.api.ApiException;
+import com.pasarela.api.ApiExceptionHandler;
 import com.pasarela.application.routing.ProviderPreference;
 import com.pasarela.domain.model.PaymentProvider;
 import com.pasarela.domain.model.PaymentStatus;
@@ -16,6 +18,7 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -27,13 +30,16 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/payment-intents")
 public class PaymentIntentController {
+
     private final PaymentIntentService paymentIntentService;
 
     public PaymentIntentController(PaymentIntentService paymentIntentService) {
@@ -41,15 +47,15 @@ public class PaymentIntentController {
     }
 
     @PostMapping
-    public PaymentIntentCreateResponse create(
+    public CompletableFuture<PaymentIntentCreateResponse> create(
             @AuthenticationPrincipal MerchantPrincipal merchant,
             @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             @RequestHeader(value = "X-Request-Id", required = false) String requestId,
             @RequestBody CreatePaymentIntentRequest req
     ) {
         MerchantPrincipal resolved = requireMerchant(merchant);
-        var created = paymentIntentService.create(
-                resolved.merchantId(),
+        return paymentIntentService.createAsync(
+                resolved,
                 new PaymentIntentService.CreatePaymentIntentCommand(
                         req.amountMinor(),
                         req.currency(),
@@ -58,26 +64,53 @@ public class PaymentIntentController {
                 ),
                 idempotencyKey,
                 requestId == null ? "n/a" : requestId
-        );
-        return PaymentIntentCreateResponse.from(created);
+        ).thenApply(PaymentIntentCreateResponse::from);
+    }
+
+    @PostMapping("/batch")
+    public CompletableFuture<BatchCreateResponse> createBatch(
+            @AuthenticationPrincipal MerchantPrincipal merchant,
+            @RequestHeader(value = "X-Request-Id", required = false) String requestId,
+            @RequestBody BatchCreateRequest req
+    ) {
+        MerchantPrincipal resolved = requireMerchant(merchant);
+        List<PaymentIntentService.BatchItem> items = req == null || req.items() == null ? List.of() : req.items().stream()
+                .map(item -> new PaymentIntentService.BatchItem(
+                        new PaymentIntentService.CreatePaymentIntentCommand(
+                                item.amountMinor(),
+                                item.currency(),
+                                item.description(),
+                                item.providerPreference() == null ? ProviderPreference.AUTO : item.providerPreference()
+                        ),
+                        item.idempotencyKey()
+                ))
+                .toList();
+        String rid = requestId == null ? "n/a" : requestId;
+        return paymentIntentService.createBatchAsync(resolved, items, rid)
+                .thenApply(results -> {
+                    List<BatchItemResponse> responses = new ArrayList<>(results.size());
+                    for (int i = 0; i < results.size(); i++) {
+                        responses.add(BatchItemResponse.from(i, results.get(i), rid));
+                    }
+                    return new BatchCreateResponse(responses);
+                });
     }
 
     @PostMapping("/{id}/reroute")
-    public PaymentIntentCreateResponse reroute(
+    public CompletableFuture<PaymentIntentCreateResponse> reroute(
             @AuthenticationPrincipal MerchantPrincipal merchant,
             @PathVariable("id") UUID paymentIntentId,
             @RequestHeader(value = "X-Request-Id", required = false) String requestId,
             @RequestBody RerouteRequest req
     ) {
         MerchantPrincipal resolved = requireMerchant(merchant);
-        var created = paymentIntentService.reroute(
+        return paymentIntentService.rerouteAsync(
                 resolved.merchantId(),
                 paymentIntentId,
                 req.reason(),
                 req.provider(),
                 requestId == null ? "n/a" : requestId
-        );
-        return PaymentIntentCreateResponse.from(created);
+        ).thenApply(PaymentIntentCreateResponse::from);
     }
 
     @GetMapping("/{id}")
@@ -162,6 +195,37 @@ public class PaymentIntentController {
             ProviderPreference providerPreference
     ) {}
 
+    public record BatchCreateRequest(List<BatchCreateItem> items) {}
+
+    public record BatchCreateItem(
+            String idempotencyKey,
+            @Min(1) long amountMinor,
+            @NotBlank @Size(min = 3, max = 3) String currency,
+            @Size(max = 255) String description,
+            ProviderPreference providerPreference
+    ) {}
+
+    public record BatchCreateResponse(List<BatchItemResponse> results) {}
+
+    /**
+     * One entry per request item, in request order: {@code paymentIntent} on success, otherwise {@code error}
+     * shaped like the body of a failed single create.
+     */
+    public record BatchItemResponse(
+            int index,
+            int status,
+            PaymentIntentCreateResponse paymentIntent,
+            ApiErrorResponse error
+    ) {
+        static BatchItemResponse from(int index, PaymentIntentService.BatchItemResult result, String requestId) {
+            if (result.error() == null) {
+                return new BatchItemResponse(index, HttpStatus.OK.value(), PaymentIntentCreateResponse.from(result.created()), null);
+            }
+            ResponseEntity<ApiErrorResponse> error = ApiExceptionHandler.toResponse(result.error(), requestId);
+            return new BatchItemResponse(index, error.getStatusCode().value(), null, error.getBody());
+        }
+    }
+
     public record RerouteRequest(
             @NotBlank @Size(max = 200) String reason,
             PaymentProvider provider
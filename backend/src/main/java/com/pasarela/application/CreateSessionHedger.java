@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2025 Pasarela Orchestrator
+ * SPDX-License-Identifier: AGPL-3.0-only
+ */
+
+package com.pasarela.application;
+
+import com.pasarela.application.routing.ProviderHealthReader;
+import com.pasarela.config.AppProperties;
+import com.pasarela.domain.model.PaymentProvider;
+import com.pasarela.infrastructure.provider.CreateSessionResult;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides when a slow createSession gets hedged: once the primary has been outstanding for its observed p95, a
+ * second session is started and the first success wins. Only timers and completion callbacks live here; no
+ * thread waits on a provider call.
+ */
+@Component
+public class CreateSessionHedger {
+    private final ProviderHealthReader providerHealthReader;
+    private final boolean enabled;
+    private final long minDelayMs;
+    private final long defaultDelayMs;
+
+    public CreateSessionHedger(ProviderHealthReader providerHealthReader, AppProperties properties) {
+        this.providerHealthReader = providerHealthReader;
+        AppProperties.Routing.Hedging hedging = properties.routing() == null ? null : properties.routing().hedging();
+        this.enabled = hedging != null && hedging.enabled();
+        this.minDelayMs = hedging == null || hedging.minDelayMs() == null ? 150 : hedging.minDelayMs();
+        this.defaultDelayMs = hedging == null || hedging.defaultDelayMs() == null ? 2000 : hedging.defaultDelayMs();
+    }
+
+    public boolean enabled() {
+        return enabled;
+    }
+
+    /**
+     * How long the primary may run before a hedge is sent: its p95, or the default until one is observed.
+     */
+    public long delayMs(PaymentProvider provider) {
+        long p95 = providerHealthReader.getSnapshot(provider).p95LatencyMs();
+        return Math.max(minDelayMs, p95 > 0 ? p95 : defaultDelayMs);
+    }
+
+    /**
+     * Completes with the primary's result if it finishes within {@code delayMs}, with its failure if it fails
+     * within it, and empty otherwise. The primary itself keeps running either way.
+     */
+    public CompletableFuture<Optional<CreateSessionResult>> within(CompletableFuture<CreateSessionResult> primary, long delayMs) {
+        return primary.thenApply(Optional::of).completeOnTimeout(Optional.empty(), delayMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Completes once one side succeeds or both have failed. The loser is left running; its result is dropped.
+     */
+    public CompletableFuture<Race> race(CompletableFuture<CreateSessionResult> primary, CompletableFuture<CreateSessionResult> secondary) {
+        CompletableFuture<Winner> first = new CompletableFuture<>();
+        primary.thenRun(() -> first.complete(Winner.PRIMARY));
+        secondary.thenRun(() -> first.complete(Winner.SECONDARY));
+        CompletableFuture.allOf(primary, secondary).whenComplete((ignored, error) -> first.complete(Winner.NONE));
+        return first.thenApply(winner -> new Race(winner, primary, secondary));
+    }
+
+    public static RuntimeException failure(CompletableFuture<CreateSessionResult> call) {
+        if (!call.isCompletedExceptionally()) return null;
+        try {
+            call.join();
+            return null;
+        } catch (CompletionException e) {
+            return unwrap(e.getCause());
+        } catch (RuntimeException e) {
+            return e;
+        }
+    }
+
+    /**
+     * The failure a future stage was completed with, without the {@link CompletionException} layers around it.
+     */
+    public static RuntimeException unwrap(Throwable cause) {
+        if (cause instanceof CompletionException nested && nested.getCause() != null) return unwrap(nested.getCause());
+        if (cause instanceof RuntimeException runtime) return runtime;
+        return new IllegalStateException(cause);
+    }
+
+    public enum Winner {
+        PRIMARY,
+        SECONDARY,
+        NONE
+    }
+
+    public record Race(
+            Winner winner,
+            CompletableFuture<CreateSessionResult> primary,
+            CompletableFuture<CreateSessionResult> secondary
+    ) {}
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2025 Pasarela Orchestrator
+ * SPDX-License-Identifier: AGPL-3.0-only
+ */
+
+package com.pasarela.application;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Decrypted, validated provider configs, so lookups skip AES-GCM and JSON parsing. Values are held as char
+ * arrays and zeroed when an entry is evicted or invalidated; callers get fresh strings on every hit. A lookup
+ * that was loading while the key was invalidated does not keep its result.
+ */
+final class DecryptedConfigCache<K> {
+    private final AtomicLong version = new AtomicLong();
+    private final Map<K, Entry> entries;
+
+    DecryptedConfigCache(int capacity) {
+        this.entries = Collections.synchronizedMap(new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry> eldest) {
+                if (size() <= capacity) return false;
+                eldest.getValue().wipe();
+                return true;
+            }
+        });
+    }
+
+    /**
+     * Cached config for {@code key}, or the loader's result; an empty loader result is cached as well.
+     */
+    Optional<Snapshot> get(K key, Supplier<Optional<Snapshot>> loader) {
+        Entry cached = entries.get(key);
+        if (cached != null) {
+            Optional<Snapshot> snapshot = cached.open();
+            if (snapshot != null) return snapshot;
+        }
+
+        long seen = version.get();
+        Optional<Snapshot> loaded = loader.get();
+        Entry fresh = new Entry(loaded.orElse(null));
+        Entry replaced = entries.put(key, fresh);
+        if (replaced != null && replaced != fresh) replaced.wipe();
+        if (version.get() != seen && entries.remove(key, fresh)) fresh.wipe();
+        return loaded;
+    }
+
+    /**
+     * Moves on every invalidation.
+     */
+    long version() {
+        return version.get();
+    }
+
+    /**
+     * Drops {@code key} now and again once the surrounding transaction ends, so no reader keeps what it loaded
+     * before the write committed or rolled back.
+     */
+    void invalidate(K key) {
+        evict(key);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(key);
+                }
+            });
+        }
+    }
+
+    private void evict(K key) {
+        version.incrementAndGet();
+        Entry removed = entries.remove(key);
+        if (removed != null) removed.wipe();
+    }
+
+    record Snapshot(boolean configured, boolean enabled, String source, List<String> missingFields, Map<String, String> config) {}
+
+    private static final class Entry {
+        private final Snapshot shape;
+        private final Map<String, char[]> secrets;
+        private boolean wiped;
+
+        Entry(Snapshot snapshot) {
+            if (snapshot == null) {
+                this.shape = null;
+                this.secrets = Map.of();
+                return;
+            }
+            this.shape = new Snapshot(snapshot.configured(), snapshot.enabled(), snapshot.source(), List.copyOf(snapshot.missingFields()), Map.of());
+            Map<String, char[]> values = new HashMap<>();
+            snapshot.config().forEach((name, value) -> {
+                if (value != null) values.put(name, value.toCharArray());
+            });
+            this.secrets = values;
+        }
+
+        /**
+         * Null once wiped; the caller then reloads.
+         */
+        synchronized Optional<Snapshot> open() {
+            if (wiped) return null;
+            if (shape == null) return Optional.empty();
+            Map<String, String> config = new HashMap<>();
+            secrets.forEach((name, value) -> config.put(name, new String(value)));
+            return Optional.of(new Snapshot(shape.configured(), shape.enabled(), shape.source(), shape.missingFields(), config));
+        }
+
+        synchronized void wipe() {
+            wiped = true;
+            secrets.values().forEach(value -> Arrays.fill(value, '\0'));
+        }
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2025 Pasarela Orchestrator
+ * SPDX-License-Identifier: AGPL-3.0-only
+ */
+
+package com.pasarela.application;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter over one merchant's (endpoint, key) pairs. {@code false} from {@link #mightContain} is definite;
+ * {@code true} may be a false positive. Each layer is sized for about 1% false positives at its capacity; once
+ * the newest layer has taken that many keys a layer twice its size is added, so the rate stays bounded as the
+ * merchant's keys grow. Safe for concurrent use without locking on the read path.
+ */
+final class IdempotencyKeyFilter {
+    private static final int BITS_PER_KEY = 10;
+    private static final int HASHES = 7;
+    private static final long MAX_LAYER_BITS = 1L << 30;
+
+    // Newest last; only ever replaced by a longer copy.
+    private volatile Layer[] layers;
+
+    IdempotencyKeyFilter(long expectedKeys) {
+        this.layers = new Layer[] {new Layer(expectedKeys)};
+    }
+
+    void add(String endpoint, String key) {
+        long h1 = hash(endpoint, key);
+        long h2 = mix(h1 ^ 0x9E3779B97F4A7C15L) | 1;
+        Layer[] current = layers;
+        Layer newest = current[current.length - 1];
+        newest.add(h1, h2);
+        if (newest.inserted.incrementAndGet() > newest.capacity) grow(newest, newest.capacity * 2);
+    }
+
+    boolean mightContain(String endpoint, String key) {
+        long h1 = hash(endpoint, key);
+        long h2 = mix(h1 ^ 0x9E3779B97F4A7C15L) | 1;
+        for (Layer layer : layers) {
+            if (layer.mightContain(h1, h2)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Makes room for {@code keys} more inserts at the designed false-positive rate, adding a layer if the newest
+     * one cannot take them.
+     */
+    synchronized void reserve(long keys) {
+        Layer newest = layers[layers.length - 1];
+        if (newest.capacity - newest.inserted.get() < keys) append(new Layer(keys));
+    }
+
+    long capacity() {
+        long capacity = 0;
+        for (Layer layer : layers) capacity += layer.capacity;
+        return capacity;
+    }
+
+    int layerCount() {
+        return layers.length;
+    }
+
+    private synchronized void grow(Layer full, long capacity) {
+        // Another add may have grown the filter already.
+        if (layers[layers.length - 1] == full) append(new Layer(capacity));
+    }
+
+    private void append(Layer layer) {
+        Layer[] next = Arrays.copyOf(layers, layers.length + 1);
+        next[next.length - 1] = layer;
+        layers = next;
+    }
+
+    private static final class Layer {
+        private final AtomicLongArray words;
+        private final long mask;
+        private final long capacity;
+        private final AtomicLong inserted = new AtomicLong();
+
+        private Layer(long expectedKeys) {
+            long bits = Long.highestOneBit(Math.max(64, expectedKeys * BITS_PER_KEY - 1)) << 1;
+            bits = Math.min(bits, MAX_LAYER_BITS);
+            this.words = new AtomicLongArray((int) (bits >>> 6));
+            this.mask = bits - 1;
+            this.capacity = bits / BITS_PER_KEY;
+        }
+
+        private void add(long h1, long h2) {
+            for (int i = 0; i < HASHES; i++) {
+                long bit = (h1 + i * h2) & mask;
+                int word = (int) (bit >>> 6);
+                long flag = 1L << bit;
+                if ((words.get(word) & flag) == 0) {
+                    words.getAndAccumulate(word, flag, (current, f) -> current | f);
+                }
+            }
+        }
+
+        private boolean mightContain(long h1, long h2) {
+            for (int i = 0; i < HASHES; i++) {
+                long bit = (h1 + i * h2) & mask;
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) return false;
+            }
+            return true;
+        }
+    }
+
+    // FNV-1a over the UTF-16 code units, then a murmur finalizer to spread the bits.
+    private static long hash(String endpoint, String key) {
+        long h = 0xCBF29CE484222325L;
+        for (int i = 0; i < endpoint.length(); i++) h = (h ^ endpoint.charAt(i)) * 0x100000001B3L;
+        h = (h ^ '\n') * 0x100000001B3L;
+        for (int i = 0; i < key.length(); i++) h = (h ^ key.charAt(i)) * 0x100000001B3L;
+        return mix(h);
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -5,25 +5,174 @@
 
 package com.pasarela.application;
 
+import com.pasarela.api.ApiException;
+import com.pasarela.infrastructure.crypto.Sha256;
 import com.pasarela.infrastructure.persistence.entity.IdempotencyRecordEntity;
 import com.pasarela.infrastructure.persistence.repository.IdempotencyRecordRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
+/**
+ * Lookups go through an in-memory index before SQLite: an LRU of recent key to intent mappings, and a Bloom
+ * filter per merchant built from {@code idempotency_records} at startup. A filter miss is definite and skips
+ * the database; only probable hits query it. Until the filters are built every lookup queries it.
+ * <p>
+ * Requests still running under a key are tracked too, so a concurrent duplicate joins the first one instead of
+ * repeating its work; see {@link #coalesce}.
+ * <p>
+ * The index only sees records written by this process, which holds for the single-instance SQLite deployment.
+ */
 @Service
 public class IdempotencyService {
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyService.class);
+    private static final int RECENT_CAPACITY = 10_000;
+    private static final long MIN_EXPECTED_KEYS = 1_024;
+    /**
+     * Marks hashes built by {@link #requestHash}. Older stored hashes came from non-canonical JSON whose field
+     * order changed between JVM runs, so they are never compared.
+     */
+    static final String REQUEST_HASH_PREFIX = "v2:";
+
     private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final Map<UUID, IdempotencyKeyFilter> filters = new ConcurrentHashMap<>();
+    private final Map<RecordKey, InFlight<?>> inFlight = new ConcurrentHashMap<>();
+    private final Map<RecordKey, Existing> recent = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<RecordKey, Existing> eldest) {
+            return size() > RECENT_CAPACITY;
+        }
+    });
+    private volatile boolean filtersReady;
 
     public IdempotencyService(IdempotencyRecordRepository idempotencyRecordRepository) {
         this.idempotencyRecordRepository = idempotencyRecordRepository;
     }
 
-    public Optional<UUID> findExisting(UUID merchantId, String endpoint, String idempotencyKey) {
-        return idempotencyRecordRepository
+    /**
+     * Loads every stored key into the per-merchant filters. Keys recorded meanwhile land in the same filters,
+     * so nothing is lost to the race; lookups only trust a miss once this has finished. A filter created by such
+     * a record before the rebuild is kept and given room for the stored keys rather than replaced.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuildIndex() {
+        for (IdempotencyRecordRepository.MerchantRecordCount count : idempotencyRecordRepository.countByMerchant()) {
+            filterFor(count.getMerchantId()).reserve(headroom(count.getRecords()));
+        }
+        long loaded = 0;
+        try (Stream<IdempotencyRecordRepository.KeyRef> keys = idempotencyRecordRepository.streamAllKeys()) {
+            for (IdempotencyRecordRepository.KeyRef key : (Iterable<IdempotencyRecordRepository.KeyRef>) keys::iterator) {
+                filterFor(key.getMerchantId()).add(key.getEndpoint(), key.getIdempotencyKey());
+                loaded++;
+            }
+        }
+        filtersReady = true;
+        log.info("Idempotency index built merchants={} keys={}", filters.size(), loaded);
+    }
+
+    public Optional<Existing> findExisting(UUID merchantId, String endpoint, String idempotencyKey) {
+        RecordKey key = new RecordKey(merchantId, endpoint, idempotencyKey);
+        Existing cached = recent.get(key);
+        if (cached != null) return Optional.of(cached);
+
+        if (filtersReady) {
+            IdempotencyKeyFilter filter = filters.get(merchantId);
+            if (filter == null || !filter.mightContain(endpoint, idempotencyKey)) return Optional.empty();
+        }
+
+        Optional<Existing> found = idempotencyRecordRepository
                 .findByMerchantIdAndEndpointAndIdempotencyKey(merchantId, endpoint, idempotencyKey)
-                .map(IdempotencyRecordEntity::getPaymentIntentId);
+                .map(rec -> new Existing(rec.getPaymentIntentId(), rec.getRequestHash()));
+        found.ifPresent(existing -> recent.put(key, existing));
+        return found;
+    }
+
+    /**
+     * Runs {@code work} unless a request with the same key is already running, in which case the caller gets that
+     * request's result instead. A running request with a different {@code requestHash} is rejected straight away.
+     * Keys are released once the work completes, so {@code work} should record the key before that.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> coalesce(
+            UUID merchantId,
+            String endpoint,
+            String idempotencyKey,
+            String requestHash,
+            Supplier<CompletableFuture<T>> work
+    ) {
+        RecordKey key = new RecordKey(merchantId, endpoint, idempotencyKey);
+        InFlight<T> mine = new InFlight<>(requestHash, new CompletableFuture<>());
+        InFlight<?> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            if (!Objects.equals(running.requestHash(), requestHash)) {
+                return CompletableFuture.failedFuture(conflict());
+            }
+            return (CompletableFuture<T>) running.result().copy();
+        }
+
+        CompletableFuture<T> result;
+        try {
+            result = work.get();
+        } catch (RuntimeException e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+        result.whenComplete((value, error) -> {
+            inFlight.remove(key, mine);
+            if (error == null) {
+                mine.result().complete(value);
+            } else {
+                mine.result().completeExceptionally(error instanceof CompletionException nested && nested.getCause() != null
+                        ? nested.getCause()
+                        : error);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Canonical hash of a request's fields in the order given. Each field is written length-prefixed, so no two
+     * field lists share an encoding and a null field stays distinct from an empty one.
+     */
+    public static String requestHash(Object... fields) {
+        StringBuilder canonical = new StringBuilder();
+        for (Object field : fields) {
+            if (field == null) {
+                canonical.append("-1:");
+                continue;
+            }
+            String value = field.toString();
+            canonical.append(value.length()).append(':').append(value);
+        }
+        return REQUEST_HASH_PREFIX + Sha256.hex(canonical.toString());
+    }
+
+    /**
+     * Rejects a replay whose request differs from the one stored under its key. Records without a hash, or with
+     * one from before {@link #requestHash}, pass.
+     */
+    public static void requireSameRequest(Existing existing, String requestHash) {
+        String stored = existing.requestHash();
+        if (stored == null || !stored.startsWith(REQUEST_HASH_PREFIX)) return;
+        if (!stored.equals(requestHash)) throw conflict();
     }
 
     public void record(UUID merchantId, String endpoint, String idempotencyKey, UUID paymentIntentId, String requestHash) {
@@ -34,6 +183,40 @@ public class IdempotencyService {
         rec.setPaymentIntentId(paymentIntentId);
         rec.setRequestHash(requestHash);
         idempotencyRecordRepository.save(rec);
+
+        // The filter takes the key straight away, since a rollback only costs a false positive. The LRU
+        // answers without the database, so it waits for the commit.
+        filterFor(merchantId).add(endpoint, idempotencyKey);
+        RecordKey key = new RecordKey(merchantId, endpoint, idempotencyKey);
+        Existing existing = new Existing(paymentIntentId, requestHash);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    recent.put(key, existing);
+                }
+            });
+        } else {
+            recent.put(key, existing);
+        }
+    }
+
+    IdempotencyKeyFilter filterFor(UUID merchantId) {
+        return filters.computeIfAbsent(merchantId, id -> new IdempotencyKeyFilter(MIN_EXPECTED_KEYS));
+    }
+
+    // Twice the stored count, so the filter only grows a layer once the merchant has doubled its keys.
+    private static long headroom(long records) {
+        return Math.max(MIN_EXPECTED_KEYS, records * 2);
+    }
+
+    private static ApiException conflict() {
+        return new ApiException(HttpStatus.CONFLICT, "Idempotency-Key was already used with a different request");
     }
-}
 
+    public record Existing(UUID paymentIntentId, String requestHash) {}
+
+    private record RecordKey(UUID merchantId, String endpoint, String idempotencyKey) {}
+
+    private record InFlight<T>(String requestHash, CompletableFuture<T> result) {}
+}
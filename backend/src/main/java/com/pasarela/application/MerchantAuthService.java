@@ -7,15 +7,33 @@ package com.pasarela.application;
 
 import com.pasarela.domain.security.MerchantPrincipal;
 import com.pasarela.infrastructure.crypto.Sha256;
-import com.pasarela.infrastructure.persistence.entity.MerchantEntity;
 import com.pasarela.infrastructure.persistence.repository.MerchantRepository;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * API-key lookups are cached by key hash: known keys for {@link #TTL}, unknown ones for {@link #NEGATIVE_TTL} so
+ * a flood of bad keys does not reach the database on every request. Unknown keys get their own smaller cache, so
+ * such a flood only pushes out other unknown keys. {@link MerchantService} invalidates a hash whenever the merchant
+ * behind it changes.
+ */
 @Service
 public class MerchantAuthService {
+    static final Duration TTL = Duration.ofMinutes(5);
+    static final Duration NEGATIVE_TTL = Duration.ofSeconds(30);
+    static final int MAX_KNOWN = 10_000;
+    static final int MAX_UNKNOWN = 1_024;
+
     private final MerchantRepository merchantRepository;
+    private final Bucket known = new Bucket(TTL, MAX_KNOWN);
+    private final Bucket unknown = new Bucket(NEGATIVE_TTL, MAX_UNKNOWN);
+    private final AtomicLong version = new AtomicLong();
 
     public MerchantAuthService(MerchantRepository merchantRepository) {
         this.merchantRepository = merchantRepository;
@@ -23,8 +41,83 @@ public class MerchantAuthService {
 
     public Optional<MerchantPrincipal> authenticate(String apiKey) {
         String hash = Sha256.hex(apiKey);
-        Optional<MerchantEntity> merchant = merchantRepository.findByApiKeyHash(hash);
-        return merchant.map(m -> new MerchantPrincipal(m.getId(), m.getName()));
+        long now = System.nanoTime();
+        Optional<MerchantPrincipal> cached = known.get(hash, now);
+        if (cached == null) cached = unknown.get(hash, now);
+        if (cached != null) return cached;
+
+        long seen = version.get();
+        Optional<MerchantPrincipal> principal = merchantRepository.findByApiKeyHash(hash)
+                .map(m -> new MerchantPrincipal(m.getId(), m.getName(), m.getConfigJson()));
+        (principal.isPresent() ? known : unknown).put(hash, principal, seen, now);
+        return principal;
     }
-}
 
+    public void invalidate(String apiKeyHash) {
+        if (apiKeyHash == null) return;
+        synchronized (this) {
+            version.incrementAndGet();
+            known.remove(apiKeyHash);
+            unknown.remove(apiKeyHash);
+        }
+    }
+
+    int size() {
+        return known.size() + unknown.size();
+    }
+
+    /**
+     * Every entry gets the same TTL, so insertion order is expiry order: expired entries are purged from the head
+     * and the oldest one makes room when full, without scanning the rest.
+     */
+    private final class Bucket {
+        private final long ttlNanos;
+        private final int capacity;
+        private final LinkedHashMap<String, Cached> entries = new LinkedHashMap<>();
+
+        private Bucket(Duration ttl, int capacity) {
+            this.ttlNanos = ttl.toNanos();
+            this.capacity = capacity;
+        }
+
+        private Optional<MerchantPrincipal> get(String hash, long now) {
+            synchronized (MerchantAuthService.this) {
+                purgeExpired(now);
+                Cached cached = entries.get(hash);
+                return cached == null ? null : cached.principal();
+            }
+        }
+
+        private void put(String hash, Optional<MerchantPrincipal> principal, long seen, long now) {
+            synchronized (MerchantAuthService.this) {
+                // An invalidation that raced the lookup wins.
+                if (version.get() != seen) return;
+                purgeExpired(now);
+                entries.remove(hash);
+                entries.put(hash, new Cached(principal, now + ttlNanos));
+                if (entries.size() > capacity) {
+                    Iterator<String> oldest = entries.keySet().iterator();
+                    oldest.next();
+                    oldest.remove();
+                }
+            }
+        }
+
+        private void remove(String hash) {
+            entries.remove(hash);
+        }
+
+        private int size() {
+            synchronized (MerchantAuthService.this) {
+                return entries.size();
+            }
+        }
+
+        private void purgeExpired(long now) {
+            Iterator<Map.Entry<String, Cached>> it = entries.entrySet().iterator();
+            while (it.hasNext() && now - it.next().getValue().expiresAt() >= 0) it.remove();
+        }
+    }
+
+    private record Cached(Optional<MerchantPrincipal> principal, long expiresAt) {}
+}
@@ -17,7 +17,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.nio.charset.StandardCharsets;
+import java.nio.ByteBuffer;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.EnumMap;
@@ -31,6 +31,7 @@ import java.util.UUID;
 @Service
 public class MerchantProviderConfigService {
     private static final TypeReference<Map<String, String>> MAP = new TypeReference<>() {};
+    private static final int CACHE_CAPACITY = 4_096;
 
     private static final Map<PaymentProvider, ProviderSchema> SCHEMAS = Map.of(
             PaymentProvider.STRIPE, new ProviderSchema(
@@ -55,6 +56,7 @@ public class MerchantProviderConfigService {
     private final MerchantProviderConfigRepository configRepository;
     private final AesGcmCrypto crypto;
     private final ObjectMapper objectMapper;
+    private final DecryptedConfigCache<CacheKey> cache = new DecryptedConfigCache<>(CACHE_CAPACITY);
 
     public MerchantProviderConfigService(
             MerchantRepository merchantRepository,
@@ -126,6 +128,7 @@ public class MerchantProviderConfigService {
         }
 
         MerchantProviderConfigEntity saved = configRepository.save(entity);
+        cache.invalidate(new CacheKey(merchantId, provider));
         return new ProviderConfigView(provider, saved.isEnabled(), maskConfig(provider, merged), true);
     }
 
@@ -145,17 +148,29 @@ public class MerchantProviderConfigService {
         MerchantProviderConfigEntity entity = entityOpt.get();
         entity.setEnabled(false);
         MerchantProviderConfigEntity saved = configRepository.save(entity);
+        cache.invalidate(new CacheKey(merchantId, provider));
         Map<String, String> config = decryptConfig(saved.getConfigJsonEnc());
         return new ProviderConfigView(provider, false, maskConfig(provider, config), true);
     }
 
+    /**
+     * Changes whenever any merchant's provider config is written.
+     */
+    public long configVersion() {
+        return cache.version();
+    }
+
+    /**
+     * Served from the decrypted config cache; {@link #upsert} and {@link #disable} invalidate it.
+     */
     public Optional<MerchantProviderConfig> find(UUID merchantId, PaymentProvider provider) {
-        return configRepository.findByMerchantIdAndProvider(merchantId, provider)
-                .map(entity -> new MerchantProviderConfig(
-                        entity.getProvider(),
-                        entity.isEnabled(),
-                        decryptConfig(entity.getConfigJsonEnc())
-                ));
+        return cache.get(new CacheKey(merchantId, provider), () -> configRepository.findByMerchantIdAndProvider(merchantId, provider)
+                        .map(entity -> {
+                            Map<String, String> config = decryptConfig(entity.getConfigJsonEnc());
+                            List<String> missing = missingRequiredFields(provider, config);
+                            return new DecryptedConfigCache.Snapshot(missing.isEmpty(), entity.isEnabled(), "MERCHANT", missing, config);
+                        }))
+                .map(snapshot -> new MerchantProviderConfig(provider, snapshot.enabled(), snapshot.config(), snapshot.missingFields()));
     }
 
     private void requireMerchant(UUID merchantId) {
@@ -172,9 +187,7 @@ public class MerchantProviderConfigService {
     }
 
     private void validateRequired(PaymentProvider provider, ProviderSchema schema, Map<String, String> config) {
-        List<String> missing = schema.required().stream()
-                .filter(key -> config == null || config.get(key) == null || config.get(key).isBlank())
-                .toList();
+        List<String> missing = missingRequiredFields(schema, config);
         if (!missing.isEmpty()) {
             throw new ApiException(
                     HttpStatus.BAD_REQUEST,
@@ -183,6 +196,17 @@ public class MerchantProviderConfigService {
         }
     }
 
+    private static List<String> missingRequiredFields(PaymentProvider provider, Map<String, String> config) {
+        ProviderSchema schema = SCHEMAS.get(provider);
+        return schema == null ? List.of() : missingRequiredFields(schema, config);
+    }
+
+    private static List<String> missingRequiredFields(ProviderSchema schema, Map<String, String> config) {
+        return schema.required().stream()
+                .filter(key -> config == null || config.get(key) == null || config.get(key).isBlank())
+                .toList();
+    }
+
     private Map<String, String> mergeConfig(Map<String, String> base, Map<String, String> updates) {
         Map<String, String> merged = new HashMap<>();
         if (base != null) {
@@ -201,8 +225,8 @@ public class MerchantProviderConfigService {
     private Map<String, String> decryptConfig(String token) {
         if (token == null || token.isBlank()) return Map.of();
         try {
-            byte[] json = crypto.decryptToBytes(token);
-            Map<String, String> map = objectMapper.readValue(new String(json, StandardCharsets.UTF_8), MAP);
+            ByteBuffer json = crypto.decrypt(token);
+            Map<String, String> map = objectMapper.readValue(json.array(), json.arrayOffset() + json.position(), json.remaining(), MAP);
             return map == null ? Map.of() : map;
         } catch (Exception e) {
             throw new IllegalStateException("provider config decrypt failed", e);
@@ -249,10 +273,13 @@ public class MerchantProviderConfigService {
             List<String> optional
     ) {}
 
+    private record CacheKey(UUID merchantId, PaymentProvider provider) {}
+
     public record MerchantProviderConfig(
             PaymentProvider provider,
             boolean enabled,
-            Map<String, String> config
+            Map<String, String> config,
+            List<String> missingFields
     ) {}
 
     public record ProviderConfigView(
@@ -8,6 +8,7 @@ package com.pasarela.application;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.pasarela.application.routing.RoutingConfig;
+import com.pasarela.application.routing.RoutingConfigCache;
 import com.pasarela.domain.model.PaymentProvider;
 import com.pasarela.infrastructure.crypto.Sha256;
 import com.pasarela.infrastructure.persistence.entity.MerchantEntity;
@@ -24,11 +25,20 @@ import java.util.UUID;
 public class MerchantService {
     private final MerchantRepository merchantRepository;
     private final ObjectMapper objectMapper;
+    private final RoutingConfigCache routingConfigCache;
+    private final MerchantAuthService merchantAuthService;
     private final SecureRandom secureRandom = new SecureRandom();
 
-    public MerchantService(MerchantRepository merchantRepository, ObjectMapper objectMapper) {
+    public MerchantService(
+            MerchantRepository merchantRepository,
+            ObjectMapper objectMapper,
+            RoutingConfigCache routingConfigCache,
+            MerchantAuthService merchantAuthService
+    ) {
         this.merchantRepository = merchantRepository;
         this.objectMapper = objectMapper;
+        this.routingConfigCache = routingConfigCache;
+        this.merchantAuthService = merchantAuthService;
     }
 
     public MerchantCreated create(String name) {
@@ -41,6 +51,8 @@ public class MerchantService {
         entity.setConfigJson(writeConfig(RoutingConfig.defaults()));
 
         MerchantEntity saved = merchantRepository.save(entity);
+        // Drops a negative entry left by anyone who tried this key before it existed.
+        merchantAuthService.invalidate(apiKeyHash);
         return new MerchantCreated(saved, apiKey);
     }
 
@@ -56,15 +68,19 @@ public class MerchantService {
         MerchantEntity merchant = merchantRepository.findById(merchantId)
                 .orElseThrow(() -> new IllegalArgumentException("merchant not found"));
 
-        RoutingConfig current = readConfig(merchant.getConfigJson());
+        RoutingConfig current = routingConfigCache.read(merchant.getConfigJson());
 
         String forceProvider = patch.forceProvider() == null ? current.forceProvider() : patch.forceProvider();
         var weights = patch.weights() == null ? current.weights() : patch.weights();
         var costModel = patch.costModel() == null ? current.costModel() : patch.costModel();
+        var strategy = patch.strategy() == null ? current.strategy() : patch.strategy();
 
-        RoutingConfig next = new RoutingConfig(forceProvider, weights, costModel);
+        RoutingConfig next = new RoutingConfig(forceProvider, weights, costModel, strategy);
         merchant.setConfigJson(writeConfig(next));
-        return merchantRepository.save(merchant);
+        MerchantEntity saved = merchantRepository.save(merchant);
+        routingConfigCache.invalidate(merchantId);
+        merchantAuthService.invalidate(saved.getApiKeyHash());
+        return saved;
     }
 
     public record MerchantCreated(MerchantEntity merchant, String apiKey) {}
@@ -72,19 +88,10 @@ public class MerchantService {
     public record RoutingConfigPatch(
             String forceProvider,
             com.pasarela.application.routing.RoutingWeights weights,
-            java.util.Map<PaymentProvider, Double> costModel
+            java.util.Map<PaymentProvider, Double> costModel,
+            com.pasarela.application.routing.RoutingStrategy strategy
     ) {}
 
-    private RoutingConfig readConfig(String json) {
-        try {
-            if (json == null || json.isBlank()) return RoutingConfig.defaults();
-            RoutingConfig cfg = objectMapper.readValue(json, RoutingConfig.class);
-            return cfg == null ? RoutingConfig.defaults() : cfg;
-        } catch (Exception e) {
-            return RoutingConfig.defaults();
-        }
-    }
-
     private String writeConfig(RoutingConfig config) {
         try {
             return objectMapper.writeValueAsString(config);
@@ -22,12 +22,17 @@ public class PaymentEventService {
     }
 
     public void record(PaymentProvider provider, UUID paymentIntentId, String eventType, String payloadForHash, String sanitizedPayloadJson) {
+        record(provider, paymentIntentId, eventType, payloadForHash, sanitizedPayloadJson, null);
+    }
+
+    public void record(PaymentProvider provider, UUID paymentIntentId, String eventType, String payloadForHash, String sanitizedPayloadJson, Long latencyMs) {
         PaymentEventEntity event = new PaymentEventEntity();
         event.setProvider(provider);
         event.setPaymentIntentId(paymentIntentId);
         event.setEventType(eventType);
         event.setPayloadHash(Sha256.hex(payloadForHash == null ? "" : payloadForHash));
         event.setSanitizedPayloadJson(sanitizedPayloadJson);
+        event.setLatencyMs(latencyMs);
         paymentEventRepository.save(event);
     }
 }
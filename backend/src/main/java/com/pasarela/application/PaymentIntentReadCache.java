@@ -0,0 +1,122 @@
+/*
+ * Copyright (C) 2025 Pasarela Orchestrator
+ * SPDX-License-Identifier: AGPL-3.0-only
+ */
+
+package com.pasarela.application;
+
+import com.pasarela.application.PaymentIntentService.PaymentIntentWithCheckoutConfig;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Payment intents with their checkout config for the checkout pages polling GET /api/payment-intents/{id}.
+ * Entries hold the config decrypted, so they are kept in memory only and for at most {@link #TTL}; the encrypted
+ * row stays the only copy at rest. Anything that changes an intent's status invalidates it, and a load that raced
+ * an invalidation is not kept.
+ */
+@Component
+public class PaymentIntentReadCache {
+    static final Duration TTL = Duration.ofSeconds(15);
+    private static final int CAPACITY = 10_000;
+
+    private final AtomicLong version = new AtomicLong();
+    // Insertion order is expiry order, since every entry gets the same TTL.
+    private final LinkedHashMap<UUID, Entry> entries = new LinkedHashMap<>();
+
+    public Optional<PaymentIntentWithCheckoutConfig> get(
+            UUID merchantId,
+            UUID paymentIntentId,
+            Supplier<Optional<PaymentIntentWithCheckoutConfig>> loader
+    ) {
+        Entry cached = lookup(paymentIntentId, System.nanoTime());
+        if (cached != null && cached.value().paymentIntent().merchantId().equals(merchantId)) {
+            return Optional.of(cached.value());
+        }
+
+        long seen = version.get();
+        Optional<PaymentIntentWithCheckoutConfig> loaded = loader.get();
+        loaded.ifPresent(value -> put(paymentIntentId, value, seen));
+        return loaded;
+    }
+
+    /**
+     * Caches what the surrounding transaction wrote once it commits; the value is built then, after the flush
+     * has stamped the row. Skipped if the intent was invalidated in between.
+     */
+    public void putAfterCommit(UUID paymentIntentId, Supplier<PaymentIntentWithCheckoutConfig> value) {
+        long seen = version.get();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            put(paymentIntentId, value.get(), seen);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                put(paymentIntentId, value.get(), seen);
+            }
+        });
+    }
+
+    /**
+     * Drops the intent now and again once the surrounding transaction ends, so no reader keeps what it loaded
+     * before the write committed or rolled back.
+     */
+    public void invalidate(UUID paymentIntentId) {
+        evict(paymentIntentId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(paymentIntentId);
+                }
+            });
+        }
+    }
+
+    private synchronized Entry lookup(UUID paymentIntentId, long now) {
+        purgeExpired(now);
+        return entries.get(paymentIntentId);
+    }
+
+    private synchronized void put(UUID paymentIntentId, PaymentIntentWithCheckoutConfig value, long seen) {
+        // An invalidation that raced the load wins.
+        if (version.get() != seen) return;
+        long now = System.nanoTime();
+        purgeExpired(now);
+        PaymentIntentWithCheckoutConfig frozen = new PaymentIntentWithCheckoutConfig(
+                value.paymentIntent(),
+                value.checkoutConfig() == null ? null : Collections.unmodifiableMap(new LinkedHashMap<>(value.checkoutConfig()))
+        );
+        entries.remove(paymentIntentId);
+        entries.put(paymentIntentId, new Entry(frozen, now + TTL.toNanos()));
+        if (entries.size() > CAPACITY) {
+            Iterator<UUID> oldest = entries.keySet().iterator();
+            oldest.next();
+            oldest.remove();
+        }
+    }
+
+    private synchronized void evict(UUID paymentIntentId) {
+        version.incrementAndGet();
+        entries.remove(paymentIntentId);
+    }
+
+    private void purgeExpired(long now) {
+        Iterator<Map.Entry<UUID, Entry>> it = entries.entrySet().iterator();
+        while (it.hasNext() && now - it.next().getValue().expiresAt() >= 0) it.remove();
+    }
+
+    private record Entry(PaymentIntentWithCheckoutConfig value, long expiresAt) {}
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright (C) 2025 Pasarela Orchestrator
+ * SPDX-License-Identifier: AGPL-3.0-only
+ */
+
+package com.pasarela.application;
+
+import com.pasarela.infrastructure.persistence.repository.PaymentIntentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+
+/**
+ * Creation commits the intent in CREATED before calling the provider and only moves it on once the call
+ * returns. Anything still CREATED from before this process started lost its request mid-way; it is failed so
+ * the merchant can reroute it.
+ */
+@Component
+public class PaymentIntentRecovery {
+    private static final Logger log = LoggerFactory.getLogger(PaymentIntentRecovery.class);
+
+    private final PaymentIntentRepository paymentIntentRepository;
+    private final Instant startedAt = Instant.now();
+
+    public PaymentIntentRecovery(PaymentIntentRepository paymentIntentRepository) {
+        this.paymentIntentRepository = paymentIntentRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void recover() {
+        int failed = paymentIntentRepository.failCreatedBefore(startedAt, Instant.now());
+        if (failed > 0) {
+            log.warn("Failed {} payment intents left in CREATED by a previous run", failed);
+        }
+    }
+}
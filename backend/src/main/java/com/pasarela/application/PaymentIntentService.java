@@ -5,15 +5,17 @@
 
 package com.pasarela.application;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.pasarela.api.ApiException;
+import com.pasarela.application.routing.ProviderCapabilityRegistry;
 import com.pasarela.application.routing.ProviderHealthService;
 import com.pasarela.application.routing.ProviderPreference;
+import com.pasarela.application.routing.RoutingDecisionCodec;
 import com.pasarela.application.routing.RoutingEngine;
 import com.pasarela.domain.model.PaymentProvider;
 import com.pasarela.domain.model.PaymentStatus;
+import com.pasarela.domain.model.RoutingReasonCode;
+import com.pasarela.domain.security.MerchantPrincipal;
 import com.pasarela.infrastructure.checkout.CheckoutConfigStore;
-import com.pasarela.infrastructure.crypto.Sha256;
 import com.pasarela.infrastructure.persistence.entity.MerchantEntity;
 import com.pasarela.infrastructure.persistence.entity.PaymentIntentEntity;
 import com.pasarela.infrastructure.persistence.entity.RoutingDecisionEntity;
@@ -22,27 +24,42 @@ import com.pasarela.infrastructure.persistence.repository.PaymentIntentRepositor
 import com.pasarela.infrastructure.persistence.repository.RoutingDecisionRepository;
 import com.pasarela.infrastructure.provider.CreateSessionCommand;
 import com.pasarela.infrastructure.provider.CreateSessionResult;
+import com.pasarela.infrastructure.provider.PaymentProviderAdapter;
 import com.pasarela.infrastructure.provider.ProviderErrorType;
 import com.pasarela.infrastructure.provider.ProviderException;
 import com.pasarela.infrastructure.provider.RefundCommand;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
 @Service
 public class PaymentIntentService {
     private static final Logger log = LoggerFactory.getLogger(PaymentIntentService.class);
     private static final String IDEMPOTENCY_ENDPOINT = "/api/payment-intents";
     private static final int MAX_ATTEMPTS_PER_ROOT = 3;
+    public static final int MAX_BATCH_SIZE = 50;
 
     private final MerchantRepository merchantRepository;
     private final MerchantProviderConfigService merchantProviderConfigService;
@@ -53,9 +70,14 @@ public class PaymentIntentService {
     private final ProviderAdapterRegistry providerAdapterRegistry;
     private final ProviderAvailabilityService providerAvailabilityService;
     private final CheckoutConfigStore checkoutConfigStore;
+    private final PaymentIntentReadCache readCache;
     private final IdempotencyService idempotencyService;
     private final ProviderHealthService providerHealthService;
-    private final ObjectMapper objectMapper;
+    private final ProviderCapabilityRegistry providerCapabilityRegistry;
+    private final CreateSessionHedger createSessionHedger;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService continuations = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("payment-intent-", 0).factory());
 
     public PaymentIntentService(
             MerchantRepository merchantRepository,
@@ -67,9 +89,12 @@ public class PaymentIntentService {
             ProviderAdapterRegistry providerAdapterRegistry,
             ProviderAvailabilityService providerAvailabilityService,
             CheckoutConfigStore checkoutConfigStore,
+            PaymentIntentReadCache readCache,
             IdempotencyService idempotencyService,
             ProviderHealthService providerHealthService,
-            ObjectMapper objectMapper
+            ProviderCapabilityRegistry providerCapabilityRegistry,
+            CreateSessionHedger createSessionHedger,
+            TransactionTemplate transactionTemplate
     ) {
         this.merchantRepository = merchantRepository;
         this.merchantProviderConfigService = merchantProviderConfigService;
@@ -80,82 +105,249 @@ public class PaymentIntentService {
         this.providerAdapterRegistry = providerAdapterRegistry;
         this.providerAvailabilityService = providerAvailabilityService;
         this.checkoutConfigStore = checkoutConfigStore;
+        this.readCache = readCache;
         this.idempotencyService = idempotencyService;
         this.providerHealthService = providerHealthService;
-        this.objectMapper = objectMapper;
+        this.providerCapabilityRegistry = providerCapabilityRegistry;
+        this.createSessionHedger = createSessionHedger;
+        this.transactionTemplate = transactionTemplate;
     }
 
-    @Transactional
     public PaymentIntentCreated create(UUID merchantId, CreatePaymentIntentCommand command, String idempotencyKey, String requestId) {
-        MerchantEntity merchant = merchantRepository.findById(merchantId)
-                .orElseThrow(() -> new ApiException(HttpStatus.NOT_FOUND, "Merchant not found"));
+        return await(createAsync(merchantId, command, idempotencyKey, requestId));
+    }
 
-        if (idempotencyKey != null && !idempotencyKey.isBlank()) {
-            Optional<UUID> existing = idempotencyService.findExisting(merchantId, IDEMPOTENCY_ENDPOINT, idempotencyKey);
-            if (existing.isPresent()) {
-                return get(merchantId, existing.get())
-                        .map(pi -> new PaymentIntentCreated(pi, requireCheckoutConfig(pi.id())))
-                        .orElseThrow(() -> new ApiException(HttpStatus.CONFLICT, "Idempotency record found but payment intent missing"));
-            }
-        }
+    public CompletableFuture<PaymentIntentCreated> createAsync(
+            UUID merchantId,
+            CreatePaymentIntentCommand command,
+            String idempotencyKey,
+            String requestId
+    ) {
+        return createAsync(new MerchantPrincipal(merchantId, null), command, idempotencyKey, requestId);
+    }
 
-        UUID paymentIntentId = UUID.randomUUID();
-        UUID rootId = paymentIntentId;
-        int attempt = 0;
-
-        PaymentIntentCreated created = createInternal(merchant, paymentIntentId, rootId, attempt, command, idempotencyKey, requestId, Set.of());
-
-        if (idempotencyKey != null && !idempotencyKey.isBlank()) {
-            idempotencyService.record(
-                    merchantId,
-                    IDEMPOTENCY_ENDPOINT,
-                    idempotencyKey,
-                    created.paymentIntent().id(),
-                    Sha256.hex(requestHash(command))
-            );
+    /**
+     * Runs phase one on the calling thread. The returned future completes once the provider has answered and the
+     * outcome is stored; no thread waits on the provider in between. Concurrent requests with the same
+     * Idempotency-Key share the first one's result.
+     */
+    public CompletableFuture<PaymentIntentCreated> createAsync(
+            MerchantPrincipal principal,
+            CreatePaymentIntentCommand command,
+            String idempotencyKey,
+            String requestId
+    ) {
+        MerchantEntity merchant = merchantOf(principal);
+        UUID merchantId = merchant.getId();
+
+        boolean idempotent = idempotencyKey != null && !idempotencyKey.isBlank();
+        if (!idempotent) {
+            return createNew(merchant, command, idempotencyKey, requestId, null);
         }
-        return created;
+
+        String requestHash = requestHash(command);
+        return idempotencyService.coalesce(merchantId, IDEMPOTENCY_ENDPOINT, idempotencyKey, requestHash, () -> {
+            Optional<IdempotencyService.Existing> existing = idempotencyService.findExisting(merchantId, IDEMPOTENCY_ENDPOINT, idempotencyKey);
+            if (existing.isPresent()) {
+                return CompletableFuture.completedFuture(replay(merchantId, existing.get(), requestHash));
+            }
+            return createNew(merchant, command, idempotencyKey, requestId, requestHash);
+        });
     }
 
-    @Transactional
     public PaymentIntentCreated reroute(
             UUID merchantId,
             UUID paymentIntentId,
             String reason,
             PaymentProvider provider,
             String requestId
+    ) {
+        return await(rerouteAsync(merchantId, paymentIntentId, reason, provider, requestId));
+    }
+
+    public CompletableFuture<PaymentIntentCreated> rerouteAsync(
+            UUID merchantId,
+            UUID paymentIntentId,
+            String reason,
+            PaymentProvider provider,
+            String requestId
     ) {
         MerchantEntity merchant = merchantRepository.findById(merchantId)
                 .orElseThrow(() -> new ApiException(HttpStatus.NOT_FOUND, "Merchant not found"));
 
-        PaymentIntentEntity existing = paymentIntentRepository.findByIdAndMerchantId(paymentIntentId, merchantId)
-                .orElseThrow(() -> new ApiException(HttpStatus.NOT_FOUND, "PaymentIntent not found"));
+        Prepared prepared = transactionTemplate.execute(tx -> {
+            PaymentIntentEntity existing = paymentIntentRepository.findByIdAndMerchantId(paymentIntentId, merchantId)
+                    .orElseThrow(() -> new ApiException(HttpStatus.NOT_FOUND, "PaymentIntent not found"));
+
+            if (!(existing.getStatus() == PaymentStatus.FAILED || existing.getStatus() == PaymentStatus.REQUIRES_PAYMENT_METHOD)) {
+                throw new ApiException(HttpStatus.CONFLICT, "Reroute allowed only for FAILED or REQUIRES_PAYMENT_METHOD");
+            }
+
+            UUID rootId = existing.getRootPaymentIntentId() == null ? existing.getId() : existing.getRootPaymentIntentId();
+            long count = paymentIntentRepository.countByRootPaymentIntentId(rootId);
+            if (count >= MAX_ATTEMPTS_PER_ROOT) {
+                throw new ApiException(HttpStatus.TOO_MANY_REQUESTS, "Max reroute attempts reached");
+            }
+
+            UUID newId = UUID.randomUUID();
+            int attemptNumber = (int) count;
+
+            ProviderPreference preference = ProviderPreference.fromProvider(provider);
+            CreatePaymentIntentCommand cmd = new CreatePaymentIntentCommand(
+                    existing.getAmountMinor(),
+                    existing.getCurrency(),
+                    existing.getDescription(),
+                    preference
+            );
+
+            Set<PaymentProvider> excluded = preference == ProviderPreference.AUTO
+                    ? Set.of(existing.getProvider())
+                    : Set.of();
+            return persist(List.of(prepare(merchant, newId, rootId, attemptNumber, cmd, null, excluded, providerAvailabilityService.view(merchant.getId())))).get(0);
+        });
+        return complete(prepared, null, requestId, null);
+    }
+
+    /**
+     * Creates up to {@link #MAX_BATCH_SIZE} intents for one merchant. Provider availability and configs are
+     * resolved once for the whole batch, every new intent and routing decision goes out in one phase-one
+     * transaction as batched inserts, and provider calls run concurrently. Results come back in request order;
+     * an item that fails does not affect the others.
+     */
+    public CompletableFuture<List<BatchItemResult>> createBatchAsync(UUID merchantId, List<BatchItem> items, String requestId) {
+        return createBatchAsync(new MerchantPrincipal(merchantId, null), items, requestId);
+    }
+
+    public CompletableFuture<List<BatchItemResult>> createBatchAsync(MerchantPrincipal principal, List<BatchItem> items, String requestId) {
+        if (items == null || items.isEmpty()) {
+            throw new ApiException(HttpStatus.BAD_REQUEST, "Batch must contain at least one item");
+        }
+        if (items.size() > MAX_BATCH_SIZE) {
+            throw new ApiException(HttpStatus.BAD_REQUEST, "Batch exceeds " + MAX_BATCH_SIZE + " items");
+        }
+        MerchantEntity merchant = merchantOf(principal);
+        UUID merchantId = merchant.getId();
+
+        List<CompletableFuture<PaymentIntentCreated>> results = new ArrayList<>(Collections.nCopies(items.size(), null));
+        // Keyed items this batch creates itself; concurrent requests with the same key wait on these.
+        List<CompletableFuture<PaymentIntentCreated>> owned = new ArrayList<>(Collections.nCopies(items.size(), null));
+        String[] hashes = new String[items.size()];
+        Set<String> seenKeys = new HashSet<>();
+        for (int i = 0; i < items.size(); i++) {
+            String key = items.get(i).idempotencyKey();
+            if (key == null || key.isBlank()) continue;
+            if (!seenKeys.add(key)) {
+                results.set(i, CompletableFuture.failedFuture(
+                        new ApiException(HttpStatus.CONFLICT, "Idempotency-Key repeated within batch")));
+                continue;
+            }
+            String hash = requestHash(items.get(i).command());
+            CompletableFuture<PaymentIntentCreated> slot = new CompletableFuture<>();
+            CompletableFuture<PaymentIntentCreated> result = idempotencyService.coalesce(merchantId, IDEMPOTENCY_ENDPOINT, key, hash, () -> slot);
+            if (result != slot) {
+                // Another request holds the key.
+                results.set(i, result);
+                continue;
+            }
+            try {
+                Optional<IdempotencyService.Existing> existing = idempotencyService.findExisting(merchantId, IDEMPOTENCY_ENDPOINT, key);
+                if (existing.isPresent()) {
+                    slot.complete(replay(merchantId, existing.get(), hash));
+                    results.set(i, slot);
+                } else {
+                    owned.set(i, slot);
+                    hashes[i] = hash;
+                }
+            } catch (RuntimeException e) {
+                slot.completeExceptionally(e);
+                results.set(i, slot);
+            }
+        }
+
+        Map<PaymentProvider, Map<String, String>> providerConfigs = new ConcurrentHashMap<>();
+        Prepared[] prepared = new Prepared[items.size()];
+        try {
+            ProviderAvailabilityService.AvailabilityView availability = providerAvailabilityService.view(merchantId);
+            transactionTemplate.executeWithoutResult(tx -> {
+                List<Prepared> batch = new ArrayList<>();
+                for (int i = 0; i < items.size(); i++) {
+                    if (results.get(i) != null) continue;
+                    BatchItem item = items.get(i);
+                    UUID paymentIntentId = UUID.randomUUID();
+                    try {
+                        prepared[i] = prepare(merchant, paymentIntentId, paymentIntentId, 0, item.command(), item.idempotencyKey(), Set.of(), availability)
+                                .sharingConfigs(providerConfigs);
+                        batch.add(prepared[i]);
+                    } catch (RuntimeException e) {
+                        results.set(i, CompletableFuture.failedFuture(e));
+                    }
+                }
+                persist(batch);
+            });
+        } catch (RuntimeException e) {
+            owned.stream().filter(Objects::nonNull).forEach(slot -> slot.completeExceptionally(e));
+            throw e;
+        }
 
-        if (!(existing.getStatus() == PaymentStatus.FAILED || existing.getStatus() == PaymentStatus.REQUIRES_PAYMENT_METHOD)) {
-            throw new ApiException(HttpStatus.CONFLICT, "Reroute allowed only for FAILED or REQUIRES_PAYMENT_METHOD");
+        for (int i = 0; i < items.size(); i++) {
+            if (prepared[i] != null) {
+                results.set(i, complete(prepared[i], items.get(i).idempotencyKey(), requestId + ":" + i, hashes[i]));
+            }
+            CompletableFuture<PaymentIntentCreated> slot = owned.get(i);
+            if (slot != null) {
+                results.get(i).whenComplete((created, error) -> {
+                    if (error == null) slot.complete(created);
+                    else slot.completeExceptionally(CreateSessionHedger.unwrap(error));
+                });
+            }
         }
 
-        UUID rootId = existing.getRootPaymentIntentId() == null ? existing.getId() : existing.getRootPaymentIntentId();
-        long count = paymentIntentRepository.countByRootPaymentIntentId(rootId);
-        if (count >= MAX_ATTEMPTS_PER_ROOT) {
-            throw new ApiException(HttpStatus.TOO_MANY_REQUESTS, "Max reroute attempts reached");
+        return CompletableFuture.allOf(results.stream()
+                        .map(result -> result.handle((created, error) -> null))
+                        .toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> results.stream()
+                        .map(result -> result.handle((created, error) -> error == null
+                                ? new BatchItemResult(created, null)
+                                : new BatchItemResult(null, CreateSessionHedger.unwrap(error))).join())
+                        .toList());
+    }
+
+    /**
+     * The authenticated merchant, rebuilt from the principal when it carries the routing config so creation
+     * skips the merchant lookup. The result is only read, never saved.
+     */
+    private MerchantEntity merchantOf(MerchantPrincipal principal) {
+        if (principal.configJson() == null) {
+            return merchantRepository.findById(principal.merchantId())
+                    .orElseThrow(() -> new ApiException(HttpStatus.NOT_FOUND, "Merchant not found"));
         }
+        MerchantEntity merchant = new MerchantEntity();
+        merchant.setId(principal.merchantId());
+        merchant.setName(principal.name());
+        merchant.setConfigJson(principal.configJson());
+        return merchant;
+    }
 
-        UUID newId = UUID.randomUUID();
-        int attemptNumber = (int) count;
+    private CompletableFuture<PaymentIntentCreated> createNew(
+            MerchantEntity merchant,
+            CreatePaymentIntentCommand command,
+            String idempotencyKey,
+            String requestId,
+            String idempotencyHash
+    ) {
+        UUID paymentIntentId = UUID.randomUUID();
+        Prepared prepared = transactionTemplate.execute(tx -> persist(List.of(
+                prepare(merchant, paymentIntentId, paymentIntentId, 0, command, idempotencyKey, Set.of(), providerAvailabilityService.view(merchant.getId()))
+        )).get(0));
 
-        ProviderPreference preference = ProviderPreference.fromProvider(provider);
-        CreatePaymentIntentCommand cmd = new CreatePaymentIntentCommand(
-                existing.getAmountMinor(),
-                existing.getCurrency(),
-                existing.getDescription(),
-                preference
-        );
+        return complete(prepared, idempotencyKey, requestId, idempotencyHash);
+    }
 
-        Set<PaymentProvider> excluded = preference == ProviderPreference.AUTO
-                ? Set.of(existing.getProvider())
-                : Set.of();
-        return createInternal(merchant, newId, rootId, attemptNumber, cmd, null, requestId, excluded);
+    private PaymentIntentCreated replay(UUID merchantId, IdempotencyService.Existing existing, String requestHash) {
+        IdempotencyService.requireSameRequest(existing, requestHash);
+        return get(merchantId, existing.paymentIntentId())
+                .map(pi -> new PaymentIntentCreated(pi, requireCheckoutConfig(pi.id())))
+                .orElseThrow(() -> new ApiException(HttpStatus.CONFLICT, "Idempotency record found but payment intent missing"));
     }
 
     public Optional<PaymentIntentView> get(UUID merchantId, UUID paymentIntentId) {
@@ -163,10 +355,11 @@ public class PaymentIntentService {
     }
 
     public Optional<PaymentIntentWithCheckoutConfig> getWithCheckoutConfig(UUID merchantId, UUID paymentIntentId) {
-        return paymentIntentRepository.findByIdAndMerchantId(paymentIntentId, merchantId).map(pi -> new PaymentIntentWithCheckoutConfig(
-                toView(pi),
-                requireCheckoutConfig(pi.getId())
-        ));
+        return readCache.get(merchantId, paymentIntentId, () -> paymentIntentRepository.findByIdAndMerchantId(paymentIntentId, merchantId)
+                .map(pi -> new PaymentIntentWithCheckoutConfig(
+                        toView(pi),
+                        requireCheckoutConfig(pi.getId())
+                )));
     }
 
     public List<PaymentIntentView> list(UUID merchantId, PaymentStatus status, Instant from, Instant to) {
@@ -194,6 +387,7 @@ public class PaymentIntentService {
         ));
         pi.setStatus(PaymentStatus.PROCESSING);
         paymentIntentRepository.save(pi);
+        readCache.invalidate(pi.getId());
 
         return new RefundResultView(pi.getId(), pi.getStatus(), pi.getProvider(), result.providerRefundRef());
     }
@@ -206,15 +400,15 @@ public class PaymentIntentService {
         String normalizedCvv = cvv == null ? "" : cvv.trim();
         boolean approved = !normalizedCvv.equals("000");
 
-        pi.setStatus(PaymentStatus.PROCESSING);
-        paymentIntentRepository.save(pi);
-
+        // Authorization is synchronous here, so PROCESSING is never observable; write the outcome directly.
         pi.setStatus(approved ? PaymentStatus.SUCCEEDED : PaymentStatus.FAILED);
         paymentIntentRepository.save(pi);
+        readCache.invalidate(pi.getId());
 
         providerHealthService.recordPaymentOutcomeFromWebhook(
                 PaymentProvider.DEMO,
                 pi.getId(),
+                pi.getCurrency(),
                 approved,
                 "demo:" + (requestId == null ? "n/a" : requestId),
                 "{\"action\":\"authorize\",\"outcome\":\"" + (approved ? "approved" : "declined") + "\",\"rule\":\"cvv!=000\"}"
@@ -230,10 +424,12 @@ public class PaymentIntentService {
 
         pi.setStatus(PaymentStatus.FAILED);
         paymentIntentRepository.save(pi);
+        readCache.invalidate(pi.getId());
 
         providerHealthService.recordPaymentOutcomeFromWebhook(
                 PaymentProvider.DEMO,
                 pi.getId(),
+                pi.getCurrency(),
                 false,
                 "demo:" + (requestId == null ? "n/a" : requestId),
                 "{\"action\":\"cancel\"}"
@@ -242,27 +438,31 @@ public class PaymentIntentService {
         return toView(pi);
     }
 
-    private PaymentIntentCreated createInternal(
+    /**
+     * Phase one, run in a short transaction: route the intent and build it with its decision for
+     * {@link #persist}. Explicit-preference checks and candidate listing both read {@code availability}.
+     */
+    private Prepared prepare(
             MerchantEntity merchant,
             UUID paymentIntentId,
             UUID rootId,
             int attempt,
             CreatePaymentIntentCommand command,
             String idempotencyKey,
-            String requestId,
-            Set<PaymentProvider> excludedProviders
+            Set<PaymentProvider> excludedProviders,
+            ProviderAvailabilityService.AvailabilityView availability
     ) {
-        String currency = command.currency().toUpperCase();
+        String currency = providerCapabilityRegistry.canonicalCurrency(command.currency());
         ProviderPreference preference = command.providerPreference() == null ? ProviderPreference.AUTO : command.providerPreference();
         RoutingEngine.RoutingResult routing;
 
         if (preference == ProviderPreference.DEMO) {
-            routing = demoRoutingResult(paymentIntentId, command.amountMinor(), currency);
+            routing = demoRoutingResult();
         } else {
             ProviderAvailabilityService.ProviderStatus explicitStatus = null;
             if (preference != ProviderPreference.AUTO) {
                 PaymentProvider explicit = preference.toProvider();
-                explicitStatus = providerAvailabilityService.getStatus(merchant.getId(), explicit);
+                explicitStatus = availability.status(explicit);
                 if (explicitStatus == null || !explicitStatus.available()) {
                     String reason = explicitStatus == null ? "NOT_AVAILABLE" : explicitStatus.reason();
                     throw new ApiException(
@@ -272,10 +472,10 @@ public class PaymentIntentService {
                 }
             }
 
-            List<PaymentProvider> candidates = providerAvailabilityService.availableProviders(merchant.getId(), excludedProviders);
+            List<PaymentProvider> candidates = availability.availableProviders(excludedProviders);
 
             if (candidates.isEmpty()) {
-                routing = demoRoutingResult(paymentIntentId, command.amountMinor(), currency);
+                routing = demoRoutingResult();
             } else {
                 routing = routingEngine.decide(
                         merchant,
@@ -289,6 +489,16 @@ public class PaymentIntentService {
             }
         }
 
+        RoutingDecisionEntity decision = new RoutingDecisionEntity();
+        decision.setId(UUID.randomUUID());
+        decision.setMerchantId(merchant.getId());
+        decision.setPaymentIntentId(paymentIntentId);
+        decision.setChosenProvider(routing.chosenProvider());
+        decision.setReasonCode(routing.reasonCode());
+        decision.setCurrency(currency);
+        decision.setAmountMinor(command.amountMinor());
+        decision.setCandidateScores(routing.candidateScores());
+
         PaymentIntentEntity pi = new PaymentIntentEntity();
         pi.setId(paymentIntentId);
         pi.setMerchantId(merchant.getId());
@@ -297,150 +507,344 @@ public class PaymentIntentService {
         pi.setDescription(command.description());
         pi.setStatus(PaymentStatus.CREATED);
         pi.setProvider(routing.chosenProvider());
-        pi.setRoutingReasonCode(routing.reasonCode());
+        pi.setRoutingDecisionId(decision.getId());
+        pi.setRoutingReasonCode(routing.reasonCode().name());
         pi.setIdempotencyKey(idempotencyKey);
         pi.setRootPaymentIntentId(rootId);
         pi.setAttemptNumber(attempt);
-        // Persist the payment intent first to satisfy SQLite FK from routing_decisions.
-        paymentIntentRepository.saveAndFlush(pi);
 
-        RoutingDecisionEntity decision = new RoutingDecisionEntity();
-        decision.setMerchantId(merchant.getId());
-        decision.setPaymentIntentId(paymentIntentId);
-        decision.setChosenProvider(routing.chosenProvider());
-        decision.setCandidateScoresJson(routing.candidateScoresJson());
-        decision.setReasonCode(routing.reasonCode());
-        RoutingDecisionEntity savedDecision = routingDecisionRepository.save(decision);
-
-        pi.setRoutingDecisionId(savedDecision.getId());
-        pi.setRoutingReasonCode(savedDecision.getReasonCode());
-        paymentIntentRepository.save(pi);
+        return new Prepared(merchant, pi, decision, routing, excludedProviders, new ConcurrentHashMap<>());
+    }
 
-        CreateSessionResult session = null;
-        long latencyMs = 0;
+    /**
+     * Queues every intent and then every decision. They go out when the transaction flushes, intents first
+     * for the SQLite FK from routing_decisions, and each group as one JDBC batch.
+     */
+    private List<Prepared> persist(List<Prepared> prepared) {
+        paymentIntentRepository.saveAll(prepared.stream().map(Prepared::pi).toList());
+        routingDecisionRepository.saveAll(prepared.stream().map(Prepared::decision).toList());
+        return prepared;
+    }
 
+    /**
+     * Phases two and three: provider calls with no transaction or connection held, then a second short
+     * transaction that applies their outcome. An intent left in CREATED because the process died in between
+     * is failed by {@link PaymentIntentRecovery} on the next start.
+     */
+    private CompletableFuture<PaymentIntentCreated> complete(
+            Prepared prepared,
+            String idempotencyKey,
+            String requestId,
+            String idempotencyHash
+    ) {
+        CompletableFuture<SessionOutcome> sessions;
         try {
-            session = createSessionFor(pi, merchant, command, idempotencyKey);
-            latencyMs = session.checkoutConfig().containsKey("_latencyMs")
-                    ? ((Number) session.checkoutConfig().get("_latencyMs")).longValue()
-                    : 0;
-            providerHealthService.recordCreateSessionOutcome(pi.getProvider(), pi.getId(), true, latencyMs, null, "req:" + requestId);
-        } catch (ProviderException ex) {
-            providerHealthService.recordCreateSessionOutcome(pi.getProvider(), pi.getId(), false, latencyMs, ex.getType().name(), "req:" + requestId);
-
-            boolean eligibleForInstantFallback = ex.getType() == ProviderErrorType.TIMEOUT
-                    || ex.getType() == ProviderErrorType.HTTP_5XX
-                    || ex.getType() == ProviderErrorType.VALIDATION;
-
-            if (eligibleForInstantFallback) {
-                java.util.Set<PaymentProvider> newExcluded = new java.util.HashSet<>();
-                if (excludedProviders != null) newExcluded.addAll(excludedProviders);
-                newExcluded.add(pi.getProvider());
-                try {
-                    List<PaymentProvider> fallbackCandidates = providerAvailabilityService.availableProviders(
-                            merchant.getId(),
-                            java.util.Set.copyOf(newExcluded)
-                    );
-                    if (fallbackCandidates.isEmpty()) {
-                        throw new ApiException(HttpStatus.BAD_GATEWAY, "No alternate providers available for fallback");
-                    }
+            sessions = createSessions(prepared, idempotencyKey, requestId);
+        } catch (RuntimeException e) {
+            sessions = CompletableFuture.failedFuture(e);
+        }
+        return continueWith(sessions, (outcome, error) -> {
+            if (error != null) {
+                transactionTemplate.executeWithoutResult(tx -> paymentIntentRepository.findById(prepared.pi().getId())
+                        .filter(pi -> pi.getStatus() == PaymentStatus.CREATED)
+                        .ifPresent(pi -> pi.setStatus(PaymentStatus.FAILED)));
+                throw CreateSessionHedger.unwrap(error);
+            }
 
-                    RoutingEngine.RoutingResult fallbackRouting = routingEngine.decide(
-                            merchant,
-                            paymentIntentId,
-                            command.amountMinor(),
-                            currency,
-                            ProviderPreference.AUTO,
-                            java.util.Set.copyOf(newExcluded),
-                            fallbackCandidates
-                    );
+            PaymentIntentCreated created = transactionTemplate.execute(tx -> applyOutcome(prepared, outcome, idempotencyKey, idempotencyHash));
+            if (outcome.failure != null) throw outcome.failure;
+            return created;
+        });
+    }
 
-                    RoutingDecisionEntity fallbackDecision = new RoutingDecisionEntity();
-                    fallbackDecision.setMerchantId(merchant.getId());
-                    fallbackDecision.setPaymentIntentId(paymentIntentId);
-                    fallbackDecision.setChosenProvider(fallbackRouting.chosenProvider());
-                    fallbackDecision.setCandidateScoresJson(fallbackRouting.candidateScoresJson());
-                    fallbackDecision.setReasonCode("INSTANT_FALLBACK");
-                    RoutingDecisionEntity savedFallbackDecision = routingDecisionRepository.save(fallbackDecision);
+    private CompletableFuture<SessionOutcome> createSessions(Prepared prepared, String idempotencyKey, String requestId) {
+        PaymentIntentEntity pi = prepared.pi();
+        SessionOutcome outcome = new SessionOutcome(pi.getProvider());
+
+        CompletableFuture<CreateSessionResult> first = hedgeable(prepared.routing().reasonCode())
+                ? createSessionHedged(prepared, idempotencyKey, requestId, outcome)
+                : sessionCall(prepared, outcome.provider, idempotencyKey);
+        return continueWith(first, (session, error) -> {
+            if (error == null) {
+                if (session != null) outcome.succeeded(session, "req:" + requestId);
+                return CompletableFuture.completedFuture(outcome);
+            }
+            return fallback(prepared, outcome, CreateSessionHedger.unwrap(error), idempotencyKey, requestId);
+        }).thenCompose(Function.identity());
+    }
 
-                    pi.setProvider(fallbackRouting.chosenProvider());
-                    pi.setRoutingDecisionId(savedFallbackDecision.getId());
-                    pi.setRoutingReasonCode("INSTANT_FALLBACK");
-                    paymentIntentRepository.save(pi);
+    /**
+     * Instant fallback after the routed provider failed: one more session on the best remaining candidate.
+     */
+    private CompletableFuture<SessionOutcome> fallback(
+            Prepared prepared,
+            SessionOutcome outcome,
+            RuntimeException error,
+            String idempotencyKey,
+            String requestId
+    ) {
+        if (!(error instanceof ProviderException ex)) return CompletableFuture.failedFuture(error);
+        outcome.attempt(outcome.provider, false, ex.getType().name(), "req:" + requestId);
+
+        boolean eligibleForInstantFallback = ex.getType() == ProviderErrorType.TIMEOUT
+                || ex.getType() == ProviderErrorType.HTTP_5XX
+                || ex.getType() == ProviderErrorType.VALIDATION;
+        if (!eligibleForInstantFallback) {
+            return CompletableFuture.completedFuture(
+                    outcome.fail(new ApiException(HttpStatus.BAD_GATEWAY, "Provider failed creating checkout session")));
+        }
 
-                    try {
-                        session = createSessionFor(pi, merchant, command, idempotencyKey);
-                        latencyMs = session.checkoutConfig().containsKey("_latencyMs")
-                                ? ((Number) session.checkoutConfig().get("_latencyMs")).longValue()
-                                : 0;
-                        providerHealthService.recordCreateSessionOutcome(pi.getProvider(), pi.getId(), true, latencyMs, null, "req:" + requestId + ":fallback");
-                    } catch (ProviderException fallbackEx) {
-                        providerHealthService.recordCreateSessionOutcome(pi.getProvider(), pi.getId(), false, latencyMs, fallbackEx.getType().name(), "req:" + requestId + ":fallback");
-                        throw fallbackEx;
-                    }
-                } catch (Exception fallbackError) {
-                    pi.setStatus(PaymentStatus.FAILED);
-                    paymentIntentRepository.save(pi);
-                    throw new ApiException(HttpStatus.BAD_GATEWAY, "Both providers failed creating checkout session");
-                }
+        PaymentIntentEntity pi = prepared.pi();
+        MerchantEntity merchant = prepared.merchant();
+        java.util.Set<PaymentProvider> newExcluded = new java.util.HashSet<>();
+        if (prepared.excludedProviders() != null) newExcluded.addAll(prepared.excludedProviders());
+        newExcluded.add(outcome.provider);
+
+        CompletableFuture<CreateSessionResult> call;
+        try {
+            List<PaymentProvider> fallbackCandidates = providerAvailabilityService.availableProviders(
+                    merchant.getId(),
+                    java.util.Set.copyOf(newExcluded)
+            );
+            if (fallbackCandidates.isEmpty()) {
+                throw new ApiException(HttpStatus.BAD_GATEWAY, "No alternate providers available for fallback");
+            }
+
+            RoutingEngine.RoutingResult fallbackRouting = routingEngine.decide(
+                    merchant,
+                    pi.getId(),
+                    pi.getAmountMinor(),
+                    pi.getCurrency(),
+                    ProviderPreference.AUTO,
+                    java.util.Set.copyOf(newExcluded),
+                    fallbackCandidates
+            );
+            outcome.switchTo(fallbackRouting, RoutingReasonCode.INSTANT_FALLBACK);
+            call = sessionCall(prepared, outcome.provider, idempotencyKey);
+        } catch (RuntimeException fallbackError) {
+            return CompletableFuture.completedFuture(
+                    outcome.fail(new ApiException(HttpStatus.BAD_GATEWAY, "Both providers failed creating checkout session")));
+        }
+
+        return call.handle((session, fallbackError) -> {
+            if (fallbackError == null) {
+                outcome.succeeded(session, "req:" + requestId + ":fallback");
+                return outcome;
+            }
+            if (CreateSessionHedger.unwrap(fallbackError) instanceof ProviderException fallbackEx) {
+                outcome.attempt(outcome.provider, false, fallbackEx.getType().name(), "req:" + requestId + ":fallback");
+            }
+            return outcome.fail(new ApiException(HttpStatus.BAD_GATEWAY, "Both providers failed creating checkout session"));
+        });
+    }
+
+    /**
+     * Phase three: write the provider events and move the intent to its post-session state in one UPDATE.
+     * Returns null when the session could not be created; the intent is then left FAILED.
+     */
+    private PaymentIntentCreated applyOutcome(Prepared prepared, SessionOutcome outcome, String idempotencyKey, String idempotencyHash) {
+        PaymentIntentEntity pi = paymentIntentRepository.findById(prepared.pi().getId())
+                .orElseThrow(() -> new IllegalStateException("Payment intent missing after provider call"));
+
+        for (SessionAttempt attempt : outcome.attempts) {
+            if (attempt.success() == null) {
+                providerHealthService.recordCreateSessionAbandoned(attempt.provider(), pi.getId(), attempt.requestTag());
             } else {
-                pi.setStatus(PaymentStatus.FAILED);
-                paymentIntentRepository.save(pi);
-                throw new ApiException(HttpStatus.BAD_GATEWAY, "Provider failed creating checkout session");
+                providerHealthService.recordCreateSessionOutcome(
+                        attempt.provider(), pi.getId(), attempt.success(), attempt.latencyMs(), attempt.errorType(), attempt.requestTag());
             }
         }
 
-        if (session == null) {
+        if (outcome.switchedRouting != null) {
+            RoutingDecisionEntity decision = new RoutingDecisionEntity();
+            decision.setId(UUID.randomUUID());
+            decision.setMerchantId(pi.getMerchantId());
+            decision.setPaymentIntentId(pi.getId());
+            decision.setChosenProvider(outcome.provider);
+            decision.setReasonCode(outcome.switchedReason);
+            decision.setCurrency(pi.getCurrency());
+            decision.setAmountMinor(pi.getAmountMinor());
+            decision.setCandidateScores(outcome.switchedRouting.candidateScores());
+            routingDecisionRepository.save(decision);
+
+            pi.setProvider(outcome.provider);
+            pi.setRoutingDecisionId(decision.getId());
+            pi.setRoutingReasonCode(outcome.switchedReason.name());
+        }
+
+        if (outcome.failure != null) {
             pi.setStatus(PaymentStatus.FAILED);
-            paymentIntentRepository.save(pi);
-            throw new ApiException(HttpStatus.BAD_GATEWAY, "Checkout session not created");
+            return null;
         }
 
-        pi.setProviderRef(session.providerRef());
+        pi.setProviderRef(outcome.session.providerRef());
         pi.setStatus(PaymentStatus.REQUIRES_PAYMENT_METHOD);
-        paymentIntentRepository.save(pi);
 
-        Map<String, Object> checkoutConfig = session.checkoutConfig();
-        checkoutConfig.remove("_latencyMs");
+        Map<String, Object> checkoutConfig = outcome.session.checkoutConfig();
         checkoutConfigStore.upsert(pi.getId(), checkoutConfig);
+        readCache.putAfterCommit(pi.getId(), () -> new PaymentIntentWithCheckoutConfig(toView(pi), checkoutConfig));
 
+        if (idempotencyHash != null) {
+            idempotencyService.record(pi.getMerchantId(), IDEMPOTENCY_ENDPOINT, idempotencyKey, pi.getId(), idempotencyHash);
+        }
         return new PaymentIntentCreated(toView(pi), checkoutConfig);
     }
 
-    private CreateSessionResult createSessionFor(
-            PaymentIntentEntity pi,
-            MerchantEntity merchant,
-            CreatePaymentIntentCommand cmd,
-            String idempotencyKey
-    ) {
+    /**
+     * Resolves adapter and provider config on the calling thread, so the returned call only talks to the provider.
+     */
+    private CompletableFuture<CreateSessionResult> sessionCall(Prepared prepared, PaymentProvider provider, String idempotencyKey) {
+        PaymentIntentEntity pi = prepared.pi();
+        MerchantEntity merchant = prepared.merchant();
+        PaymentProviderAdapter adapter = providerAdapterRegistry.get(provider);
+        Map<String, String> providerConfig = prepared.providerConfigs().get(provider);
+        if (providerConfig == null) {
+            providerConfig = resolveProviderConfig(merchant.getId(), provider);
+            if (providerConfig != null) prepared.providerConfigs().put(provider, providerConfig);
+        }
+        CreateSessionCommand command = new CreateSessionCommand(
+                merchant.getId(),
+                pi.getId(),
+                pi.getAmountMinor(),
+                pi.getCurrency(),
+                pi.getDescription(),
+                idempotencyKey,
+                null,
+                provider,
+                providerConfig
+        );
+
         long startedAt = System.nanoTime();
+        CompletableFuture<CreateSessionResult> call;
         try {
-            Map<String, String> providerConfig = resolveProviderConfig(merchant.getId(), pi.getProvider());
-            CreateSessionResult res = providerAdapterRegistry.get(pi.getProvider()).createSession(new CreateSessionCommand(
-                    merchant.getId(),
-                    pi.getId(),
-                    pi.getAmountMinor(),
-                    pi.getCurrency(),
-                    pi.getDescription(),
-                    idempotencyKey,
-                    null,
-                    pi.getProvider(),
-                    providerConfig
-            ));
+            call = adapter.createSessionAsync(command);
+        } catch (RuntimeException e) {
+            call = CompletableFuture.failedFuture(e);
+        }
+        return call.handle((res, error) -> {
             long latencyMs = (System.nanoTime() - startedAt) / 1_000_000;
+            if (error != null) {
+                RuntimeException cause = CreateSessionHedger.unwrap(error);
+                if (cause instanceof ProviderException) {
+                    signalHealth(provider, false, latencyMs);
+                } else {
+                    log.warn("createSession failed provider={} latencyMs={}", provider, latencyMs);
+                }
+                throw cause;
+            }
+            signalHealth(provider, true, latencyMs);
             Map<String, Object> config = new java.util.HashMap<>(res.checkoutConfig());
             config.put("_latencyMs", latencyMs);
             return new CreateSessionResult(res.providerRef(), config);
+        });
+    }
+
+    // Runs on the thread that completed the call; a failure here must not replace the call's own result.
+    private void signalHealth(PaymentProvider provider, boolean success, long latencyMs) {
+        try {
+            providerHealthService.recordCreateSessionSignal(provider, success, latencyMs);
         } catch (RuntimeException e) {
-            long latencyMs = (System.nanoTime() - startedAt) / 1_000_000;
-            if (e instanceof ProviderException pe) {
-                throw pe;
-            }
-            log.warn("createSession failed provider={} latencyMs={}", pi.getProvider(), latencyMs);
-            throw e;
+            log.warn("provider health signal failed provider={}", provider, e);
         }
     }
 
+    private boolean hedgeable(RoutingReasonCode reason) {
+        return createSessionHedger.enabled()
+                && (reason == RoutingReasonCode.WEIGHTED_SCORE
+                || reason == RoutingReasonCode.BANDIT
+                || reason == RoutingReasonCode.HEALTH_DEGRADED_NO_ALTERNATIVE);
+    }
+
+    /**
+     * Starts the primary session and, if it outlives its p95, a second one on the next-best candidate.
+     * Completes with the primary's result when no hedge was sent. Once a hedge is out, the losing side is added
+     * to {@code outcome} as failed or abandoned, and {@code outcome} is switched over if the hedge wins; the
+     * result is null with {@code outcome} failed when both sides fail.
+     */
+    private CompletableFuture<CreateSessionResult> createSessionHedged(
+            Prepared prepared,
+            String idempotencyKey,
+            String requestId,
+            SessionOutcome outcome
+    ) {
+        PaymentProvider primaryProvider = outcome.provider;
+        CompletableFuture<CreateSessionResult> primary = sessionCall(prepared, primaryProvider, idempotencyKey);
+        CompletableFuture<Optional<CreateSessionResult>> early = createSessionHedger.within(primary, createSessionHedger.delayMs(primaryProvider));
+
+        return continueWith(early, (result, error) -> {
+            if (error != null) return CompletableFuture.<CreateSessionResult>failedFuture(CreateSessionHedger.unwrap(error));
+            if (result.isPresent()) return CompletableFuture.completedFuture(result.get());
+
+            RoutingEngine.RoutingResult hedgeRouting = hedgeRouting(prepared, primaryProvider);
+            if (hedgeRouting == null) return primary;
+
+            PaymentProvider secondaryProvider = hedgeRouting.chosenProvider();
+            CompletableFuture<CreateSessionResult> secondary = sessionCall(prepared, secondaryProvider, idempotencyKey);
+            return createSessionHedger.race(primary, secondary).thenApply(race -> switch (race.winner()) {
+                case PRIMARY -> {
+                    outcome.loser(secondaryProvider, race.secondary(), "req:" + requestId + ":hedge");
+                    yield race.primary().join();
+                }
+                case SECONDARY -> {
+                    outcome.loser(primaryProvider, race.primary(), "req:" + requestId);
+                    outcome.switchTo(hedgeRouting, RoutingReasonCode.HEDGED);
+                    yield race.secondary().join();
+                }
+                default -> {
+                    outcome.loser(primaryProvider, race.primary(), "req:" + requestId);
+                    outcome.loser(secondaryProvider, race.secondary(), "req:" + requestId + ":hedge");
+                    outcome.fail(new ApiException(HttpStatus.BAD_GATEWAY, "Both providers failed creating checkout session"));
+                    yield null;
+                }
+            });
+        }).thenCompose(Function.identity());
+    }
+
+    /**
+     * The next-best candidate once {@code primaryProvider} is out, or null when nothing else can take the hedge.
+     */
+    private RoutingEngine.RoutingResult hedgeRouting(Prepared prepared, PaymentProvider primaryProvider) {
+        java.util.Set<PaymentProvider> excluded = new java.util.HashSet<>();
+        if (prepared.excludedProviders() != null) excluded.addAll(prepared.excludedProviders());
+        excluded.add(primaryProvider);
+        List<PaymentProvider> alternates = providerAvailabilityService.availableProviders(prepared.merchant().getId(), Set.copyOf(excluded));
+        if (alternates.isEmpty()) return null;
+        try {
+            return routingEngine.decide(
+                    prepared.merchant(),
+                    prepared.pi().getId(),
+                    prepared.pi().getAmountMinor(),
+                    prepared.pi().getCurrency(),
+                    ProviderPreference.AUTO,
+                    Set.copyOf(excluded),
+                    alternates
+            );
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Continues on a worker thread when {@code stage} completes later, since that happens on a provider's I/O
+     * thread where no database work may run. A stage that is already done continues inline.
+     */
+    private <T, R> CompletableFuture<R> continueWith(CompletableFuture<T> stage, BiFunction<? super T, Throwable, ? extends R> next) {
+        return stage.isDone() ? stage.handle(next) : stage.handleAsync(next, continuations);
+    }
+
+    private static <T> T await(CompletableFuture<T> call) {
+        try {
+            return call.join();
+        } catch (CompletionException e) {
+            throw CreateSessionHedger.unwrap(e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        continuations.shutdown();
+    }
+
     private PaymentIntentEntity requireDemoIntent(UUID merchantId, UUID paymentIntentId) {
         PaymentIntentEntity pi = paymentIntentRepository.findByIdAndMerchantId(paymentIntentId, merchantId)
                 .orElseThrow(() -> new ApiException(HttpStatus.NOT_FOUND, "PaymentIntent not found"));
@@ -483,32 +887,21 @@ public class PaymentIntentService {
         ));
     }
 
-    private String requestHash(CreatePaymentIntentCommand cmd) {
-        try {
-            return objectMapper.writeValueAsString(Map.of(
-                    "amountMinor", cmd.amountMinor(),
-                    "currency", cmd.currency(),
-                    "description", cmd.description(),
-                    "providerPreference", cmd.providerPreference().name()
-            ));
-        } catch (Exception e) {
-            return cmd.amountMinor() + ":" + cmd.currency() + ":" + cmd.providerPreference();
-        }
+    static String requestHash(CreatePaymentIntentCommand cmd) {
+        return IdempotencyService.requestHash(
+                cmd.amountMinor(),
+                cmd.currency(),
+                cmd.description(),
+                cmd.providerPreference() == null ? null : cmd.providerPreference().name()
+        );
     }
 
-    private RoutingEngine.RoutingResult demoRoutingResult(UUID paymentIntentId, long amountMinor, String currency) {
-        String json;
-        try {
-            json = objectMapper.writeValueAsString(Map.of(
-                    "mode", "DEMO",
-                    "currency", currency,
-                    "amountMinor", amountMinor,
-                    "computedAt", Instant.now().toString()
-            ));
-        } catch (Exception e) {
-            json = "{\"mode\":\"DEMO\"}";
-        }
-        return new RoutingEngine.RoutingResult(PaymentProvider.DEMO, "DEMO_MODE", json);
+    private RoutingEngine.RoutingResult demoRoutingResult() {
+        return new RoutingEngine.RoutingResult(
+                PaymentProvider.DEMO,
+                RoutingReasonCode.DEMO_MODE,
+                RoutingDecisionCodec.writer(null, 0).toBytes()
+        );
     }
 
     private Map<String, String> resolveProviderConfig(UUID merchantId, PaymentProvider provider) {
@@ -517,6 +910,82 @@ public class PaymentIntentService {
                 .orElseGet(() -> providerConfigService.resolveEffectiveConfig(provider).config());
     }
 
+    /**
+     * {@code providerConfigs} memoizes provider configs for the request, or for the whole batch when shared.
+     */
+    private record Prepared(
+            MerchantEntity merchant,
+            PaymentIntentEntity pi,
+            RoutingDecisionEntity decision,
+            RoutingEngine.RoutingResult routing,
+            Set<PaymentProvider> excludedProviders,
+            Map<PaymentProvider, Map<String, String>> providerConfigs
+    ) {
+        Prepared sharingConfigs(Map<PaymentProvider, Map<String, String>> configs) {
+            return new Prepared(merchant, pi, decision, routing, excludedProviders, configs);
+        }
+    }
+
+    /**
+     * One provider call made in phase two; a null {@code success} means it was abandoned to a hedge.
+     */
+    private record SessionAttempt(PaymentProvider provider, Boolean success, long latencyMs, String errorType, String requestTag) {}
+
+    /**
+     * Everything phase two learned, applied by phase three. Stages touch it one at a time, and each stage's
+     * completion publishes its writes to the next.
+     */
+    private static final class SessionOutcome {
+        private final List<SessionAttempt> attempts = new java.util.ArrayList<>();
+        private PaymentProvider provider;
+        private RoutingEngine.RoutingResult switchedRouting;
+        private RoutingReasonCode switchedReason;
+        private CreateSessionResult session;
+        private ApiException failure;
+
+        private SessionOutcome(PaymentProvider provider) {
+            this.provider = provider;
+        }
+
+        private void attempt(PaymentProvider provider, Boolean success, String errorType, String requestTag) {
+            attempts.add(new SessionAttempt(provider, success, 0, errorType, requestTag));
+        }
+
+        private void succeeded(CreateSessionResult result, String requestTag) {
+            Object latencyMs = result.checkoutConfig().remove("_latencyMs");
+            attempts.add(new SessionAttempt(provider, true, latencyMs instanceof Number n ? n.longValue() : 0, null, requestTag));
+            session = result;
+        }
+
+        private void loser(PaymentProvider provider, CompletableFuture<CreateSessionResult> call, String requestTag) {
+            RuntimeException error = CreateSessionHedger.failure(call);
+            if (error == null) {
+                attempt(provider, null, null, requestTag);
+                return;
+            }
+            String errorType = error instanceof ProviderException pe ? pe.getType().name() : ProviderErrorType.UNKNOWN.name();
+            attempt(provider, false, errorType, requestTag);
+        }
+
+        private void switchTo(RoutingEngine.RoutingResult routing, RoutingReasonCode reason) {
+            provider = routing.chosenProvider();
+            switchedRouting = routing;
+            switchedReason = reason;
+        }
+
+        private SessionOutcome fail(ApiException error) {
+            failure = error;
+            return this;
+        }
+    }
+
+    public record BatchItem(CreatePaymentIntentCommand command, String idempotencyKey) {}
+
+    /**
+     * Exactly one of {@code created} and {@code error} is set.
+     */
+    public record BatchItemResult(PaymentIntentCreated created, RuntimeException error) {}
+
     public record CreatePaymentIntentCommand(
             long amountMinor,
             String currency,
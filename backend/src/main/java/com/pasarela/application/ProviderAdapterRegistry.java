@@ -54,16 +54,14 @@ public class ProviderAdapterRegistry {
     }
 
     private EnumMap<PaymentProvider, PaymentProviderAdapter> ensureInitialized() {
+        // Racy single-check: buildRegistry is deterministic, so a duplicate build on first use is harmless and
+        // no request thread ever blocks on a monitor here (a virtual thread would pin its carrier).
         EnumMap<PaymentProvider, PaymentProviderAdapter> snapshot = adaptersByProvider;
-        if (snapshot != null) {
-            return snapshot;
-        }
-        synchronized (this) {
-            if (adaptersByProvider == null) {
-                adaptersByProvider = buildRegistry();
-            }
-            return adaptersByProvider;
+        if (snapshot == null) {
+            snapshot = buildRegistry();
+            adaptersByProvider = snapshot;
         }
+        return snapshot;
     }
 
     private EnumMap<PaymentProvider, PaymentProviderAdapter> buildRegistry() {
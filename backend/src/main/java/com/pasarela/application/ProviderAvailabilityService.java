@@ -5,18 +5,26 @@
 
 package com.pasarela.application;
 
-import com.pasarela.application.routing.ProviderHealthService;
+import com.pasarela.application.routing.ProviderHealthReader;
 import com.pasarela.application.routing.ProviderSnapshot;
 import com.pasarela.domain.model.CircuitState;
 import com.pasarela.domain.model.PaymentProvider;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 
+/**
+ * Availability is resolved for all providers of a merchant in one pass and kept as an immutable
+ * {@link AvailabilityView}. The view is reused until a provider config is written or a circuit opens or closes.
+ * Views are kept for the {@link #MAX_VIEWS} most recently seen merchants.
+ */
 @Service
 public class ProviderAvailabilityService {
     private static final List<PaymentProvider> ORDERED = List.of(
@@ -28,35 +36,57 @@ public class ProviderAvailabilityService {
     );
 
     private final ProviderAdapterRegistry providerAdapterRegistry;
-    private final ProviderHealthService providerHealthService;
+    private final ProviderHealthReader providerHealthReader;
     private final MerchantProviderConfigService merchantProviderConfigService;
     private final ProviderConfigService providerConfigService;
+    static final int MAX_VIEWS = 10_000;
+
+    private final Map<UUID, CachedView> views = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<UUID, CachedView> eldest) {
+            return size() > MAX_VIEWS;
+        }
+    });
 
     public ProviderAvailabilityService(
             ProviderAdapterRegistry providerAdapterRegistry,
-            ProviderHealthService providerHealthService,
+            ProviderHealthReader providerHealthReader,
             MerchantProviderConfigService merchantProviderConfigService,
             ProviderConfigService providerConfigService
     ) {
         this.providerAdapterRegistry = providerAdapterRegistry;
-        this.providerHealthService = providerHealthService;
+        this.providerHealthReader = providerHealthReader;
         this.merchantProviderConfigService = merchantProviderConfigService;
         this.providerConfigService = providerConfigService;
     }
 
+    public AvailabilityView view(UUID merchantId) {
+        Stamp stamp = new Stamp(
+                providerConfigService.configVersion(),
+                merchantProviderConfigService.configVersion(),
+                providerHealthReader.openCircuits()
+        );
+        if (merchantId == null) return resolve(null);
+
+        CachedView cached = views.get(merchantId);
+        if (cached != null && cached.stamp().equals(stamp)) return cached.view();
+        // Stamped with what was current before resolving, so a change made meanwhile forces the next recompute.
+        AvailabilityView fresh = resolve(merchantId);
+        views.put(merchantId, new CachedView(stamp, fresh));
+        return fresh;
+    }
+
+    int cachedViews() {
+        return views.size();
+    }
+
     public List<ProviderStatus> listForMerchant(UUID merchantId) {
-        Set<PaymentProvider> supported = providerAdapterRegistry.registeredProviders();
-        List<ProviderStatus> statuses = new ArrayList<>();
-        for (PaymentProvider provider : ORDERED) {
-            statuses.add(resolveStatus(merchantId, provider, supported));
-        }
-        return statuses;
+        return view(merchantId).statuses();
     }
 
     public ProviderStatus getStatus(UUID merchantId, PaymentProvider provider) {
         if (provider == null) return null;
-        Set<PaymentProvider> supported = providerAdapterRegistry.registeredProviders();
-        return resolveStatus(merchantId, provider, supported);
+        return view(merchantId).status(provider);
     }
 
     public boolean isProviderAvailable(UUID merchantId, PaymentProvider provider) {
@@ -65,8 +95,21 @@ public class ProviderAvailabilityService {
     }
 
     public List<PaymentProvider> availableProviders(UUID merchantId, Set<PaymentProvider> excluded) {
+        return view(merchantId).availableProviders(excluded);
+    }
+
+    private AvailabilityView resolve(UUID merchantId) {
+        Set<PaymentProvider> supported = providerAdapterRegistry.registeredProviders();
+        List<ProviderStatus> statuses = new ArrayList<>();
+        for (PaymentProvider provider : ORDERED) {
+            statuses.add(resolveStatus(merchantId, provider, supported));
+        }
+        return new AvailabilityView(List.copyOf(statuses));
+    }
+
+    private static List<PaymentProvider> availableProviders(List<ProviderStatus> statuses, Set<PaymentProvider> excluded) {
         List<PaymentProvider> available = new ArrayList<>();
-        for (ProviderStatus status : listForMerchant(merchantId)) {
+        for (ProviderStatus status : statuses) {
             if (status.provider() == PaymentProvider.DEMO) continue;
             if (!status.available()) continue;
             if (excluded != null && excluded.contains(status.provider())) continue;
@@ -97,7 +140,7 @@ public class ProviderAvailabilityService {
             return new ProviderStatus(provider, true, false, false, "DISABLED");
         }
 
-        ProviderSnapshot snapshot = providerHealthService.getSnapshot(provider);
+        ProviderSnapshot snapshot = providerHealthReader.getSnapshot(provider);
         boolean healthy = snapshot.circuitState() != CircuitState.OPEN;
         return new ProviderStatus(provider, true, true, healthy, healthy ? "OK" : "UNHEALTHY");
     }
@@ -106,7 +149,7 @@ public class ProviderAvailabilityService {
         if (merchantId != null) {
             Optional<MerchantProviderConfigService.MerchantProviderConfig> cfg = merchantProviderConfigService.find(merchantId, provider);
             if (cfg.isPresent()) {
-                List<String> missing = providerConfigService.missingRequiredFields(provider, cfg.get().config());
+                List<String> missing = cfg.get().missingFields();
                 return new ProviderConfigState(missing.isEmpty(), cfg.get().enabled(), "MERCHANT", missing);
             }
         }
@@ -120,6 +163,29 @@ public class ProviderAvailabilityService {
         );
     }
 
+    private record Stamp(long providerConfigVersion, long merchantConfigVersion, long openCircuits) {}
+
+    private record CachedView(Stamp stamp, AvailabilityView view) {}
+
+    /**
+     * Every provider's status for one merchant, in display order.
+     */
+    public record AvailabilityView(List<ProviderStatus> statuses) {
+        public ProviderStatus status(PaymentProvider provider) {
+            for (ProviderStatus status : statuses) {
+                if (status.provider() == provider) return status;
+            }
+            return null;
+        }
+
+        /**
+         * Routing candidates: available non-DEMO providers outside {@code excluded}.
+         */
+        public List<PaymentProvider> availableProviders(Set<PaymentProvider> excluded) {
+            return ProviderAvailabilityService.availableProviders(statuses, excluded);
+        }
+    }
+
     private record ProviderConfigState(
             boolean configured,
             boolean enabled,
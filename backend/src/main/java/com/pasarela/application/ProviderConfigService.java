@@ -17,7 +17,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.nio.charset.StandardCharsets;
+import java.nio.ByteBuffer;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.EnumMap;
@@ -29,6 +29,7 @@ import java.util.Optional;
 @Service
 public class ProviderConfigService {
     private static final TypeReference<Map<String, String>> MAP = new TypeReference<>() {};
+    private static final int CACHE_CAPACITY = 16;
 
     private static final Map<PaymentProvider, ProviderSchema> SCHEMAS = Map.of(
             PaymentProvider.STRIPE, new ProviderSchema(
@@ -53,6 +54,7 @@ public class ProviderConfigService {
     private final AesGcmCrypto crypto;
     private final ObjectMapper objectMapper;
     private final AppProperties properties;
+    private final DecryptedConfigCache<PaymentProvider> cache = new DecryptedConfigCache<>(CACHE_CAPACITY);
 
     public ProviderConfigService(
             ProviderConfigRepository configRepository,
@@ -141,6 +143,7 @@ public class ProviderConfigService {
         }
 
         ProviderConfigEntity saved = configRepository.save(entity);
+        cache.invalidate(provider);
         return new ProviderConfigView(provider, saved.isEnabled(), missing.isEmpty(), maskConfig(provider, merged), missing, true);
     }
 
@@ -159,6 +162,7 @@ public class ProviderConfigService {
         ProviderConfigEntity entity = entityOpt.get();
         entity.setEnabled(false);
         ProviderConfigEntity saved = configRepository.save(entity);
+        cache.invalidate(provider);
         Map<String, String> config = decryptConfig(saved.getConfigJsonEnc());
         List<String> missing = missingRequiredFields(provider, config);
         return new ProviderConfigView(provider, false, missing.isEmpty(), maskConfig(provider, config), missing, true);
@@ -173,10 +177,29 @@ public class ProviderConfigService {
                 ));
     }
 
+    /**
+     * Changes whenever a provider config is written.
+     */
+    public long configVersion() {
+        return cache.version();
+    }
+
+    /**
+     * Served from the decrypted config cache; {@link #upsert} and {@link #disable} invalidate it.
+     */
     public EffectiveConfig resolveEffectiveConfig(PaymentProvider provider) {
         if (provider == PaymentProvider.DEMO) {
             return new EffectiveConfig(true, true, Map.of(), "DEMO", List.of());
         }
+        DecryptedConfigCache.Snapshot snapshot = cache.get(provider, () -> {
+            EffectiveConfig loaded = loadEffectiveConfig(provider);
+            return Optional.of(new DecryptedConfigCache.Snapshot(
+                    loaded.configured(), loaded.enabled(), loaded.source(), loaded.missingFields(), loaded.config()));
+        }).orElseThrow();
+        return new EffectiveConfig(snapshot.configured(), snapshot.enabled(), snapshot.config(), snapshot.source(), snapshot.missingFields());
+    }
+
+    private EffectiveConfig loadEffectiveConfig(PaymentProvider provider) {
         Optional<ProviderConfigEntity> entityOpt = configRepository.findByProvider(provider);
         if (entityOpt.isPresent()) {
             ProviderConfigEntity entity = entityOpt.get();
@@ -282,8 +305,8 @@ public class ProviderConfigService {
     private Map<String, String> decryptConfig(String token) {
         if (token == null || token.isBlank()) return Map.of();
         try {
-            byte[] json = crypto.decryptToBytes(token);
-            Map<String, String> map = objectMapper.readValue(new String(json, StandardCharsets.UTF_8), MAP);
+            ByteBuffer json = crypto.decrypt(token);
+            Map<String, String> map = objectMapper.readValue(json.array(), json.arrayOffset() + json.position(), json.remaining(), MAP);
             return map == null ? Map.of() : map;
         } catch (Exception e) {
             throw new IllegalStateException("provider config decrypt failed", e);
@@ -38,17 +38,20 @@ public class WebhookService {
     private final com.pasarela.config.AppProperties properties;
     private final PaymentIntentRepository paymentIntentRepository;
     private final ProviderHealthService providerHealthService;
+    private final PaymentIntentReadCache readCache;
     private final ObjectMapper objectMapper;
 
     public WebhookService(
             com.pasarela.config.AppProperties properties,
             PaymentIntentRepository paymentIntentRepository,
             ProviderHealthService providerHealthService,
+            PaymentIntentReadCache readCache,
             ObjectMapper objectMapper
     ) {
         this.properties = properties;
         this.paymentIntentRepository = paymentIntentRepository;
         this.providerHealthService = providerHealthService;
+        this.readCache = readCache;
         this.objectMapper = objectMapper;
     }
 
@@ -99,10 +102,12 @@ public class WebhookService {
         PaymentIntentEntity entity = pi.get();
         entity.setStatus(success ? PaymentStatus.SUCCEEDED : PaymentStatus.FAILED);
         paymentIntentRepository.save(entity);
+        readCache.invalidate(entity.getId());
 
         providerHealthService.recordPaymentOutcomeFromWebhook(
                 PaymentProvider.STRIPE,
                 entity.getId(),
+                entity.getCurrency(),
                 success,
                 payload,
                 toJsonSafe(sanitized)
@@ -116,6 +121,7 @@ public class WebhookService {
         PaymentIntentEntity entity = pi.get();
         entity.setStatus(PaymentStatus.REFUNDED);
         paymentIntentRepository.save(entity);
+        readCache.invalidate(entity.getId());
 
         providerHealthService.recordRefundOutcomeFromWebhook(
                 PaymentProvider.STRIPE,
@@ -177,10 +183,12 @@ public class WebhookService {
                 pi.setProviderRef(item.pspReference);
             }
             paymentIntentRepository.save(pi);
+            readCache.invalidate(pi.getId());
 
             providerHealthService.recordPaymentOutcomeFromWebhook(
                     PaymentProvider.ADYEN,
                     pi.getId(),
+                    pi.getCurrency(),
                     success,
                     payload,
                     toJsonSafe(sanitized)
@@ -191,6 +199,7 @@ public class WebhookService {
         if ("REFUND".equalsIgnoreCase(eventCode) && success) {
             pi.setStatus(PaymentStatus.REFUNDED);
             paymentIntentRepository.save(pi);
+            readCache.invalidate(pi.getId());
 
             providerHealthService.recordRefundOutcomeFromWebhook(
                     PaymentProvider.ADYEN,
@@ -14,5 +14,6 @@ public final class EventTypes {
 
     public static final String PROVIDER_CREATE_SESSION_SUCCEEDED = "PROVIDER_CREATE_SESSION_SUCCEEDED";
     public static final String PROVIDER_CREATE_SESSION_FAILED = "PROVIDER_CREATE_SESSION_FAILED";
+    public static final String PROVIDER_CREATE_SESSION_ABANDONED = "PROVIDER_CREATE_SESSION_ABANDONED";
 }
 
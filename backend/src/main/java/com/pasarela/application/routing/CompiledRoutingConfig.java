@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2025 Pasarela Orchestrator
+ * SPDX-License-Identifier: AGPL-3.0-only
+ */
+
+package com.pasarela.application.routing;
+
+import com.pasarela.domain.model.PaymentProvider;
+
+import java.util.Map;
+
+/**
+ * Scoring-ready form of a merchant {@link RoutingConfig}: weights resolved to primitives and the
+ * cost model flattened into a {@code double[]} indexed by {@link PaymentProvider#ordinal()}.
+ */
+public final class CompiledRoutingConfig {
+    private static final double DEFAULT_COST = 0.3;
+
+    private final RoutingConfig config;
+    private final String sourceJson;
+    private final long version;
+    private final String forceProviderName;
+    private final PaymentProvider forcedProvider;
+    private final double[] costByProvider;
+    private final boolean bandit;
+    final double w1SuccessRate;
+    final double w2CostScore;
+    final double w3LatencyScore;
+    final double w4AvailabilityScore;
+    final double w5RiskPenalty;
+
+    CompiledRoutingConfig(RoutingConfig config, String sourceJson, long version) {
+        this.config = config;
+        this.sourceJson = sourceJson;
+        this.version = version;
+
+        String force = config.forceProvider();
+        this.forceProviderName = (force == null || "AUTO".equalsIgnoreCase(force)) ? null : force;
+        this.forcedProvider = resolve(forceProviderName);
+
+        this.costByProvider = new double[PaymentProvider.values().length];
+        Map<PaymentProvider, Double> costModel = config.costModel();
+        for (PaymentProvider provider : PaymentProvider.values()) {
+            Double cost = costModel.get(provider);
+            costByProvider[provider.ordinal()] = clamp01(cost == null ? DEFAULT_COST : cost);
+        }
+
+        this.bandit = config.strategy() == RoutingStrategy.BANDIT;
+
+        RoutingWeights w = config.weights();
+        this.w1SuccessRate = w.w1SuccessRate();
+        this.w2CostScore = w.w2CostScore();
+        this.w3LatencyScore = w.w3LatencyScore();
+        this.w4AvailabilityScore = w.w4AvailabilityScore();
+        this.w5RiskPenalty = w.w5RiskPenalty();
+    }
+
+    public RoutingConfig config() {
+        return config;
+    }
+
+    public long version() {
+        return version;
+    }
+
+    String sourceJson() {
+        return sourceJson;
+    }
+
+    boolean forcesProvider() {
+        return forceProviderName != null;
+    }
+
+    PaymentProvider forcedProvider() {
+        if (forcedProvider == null) {
+            throw new IllegalArgumentException("Unknown forced provider " + forceProviderName);
+        }
+        return forcedProvider;
+    }
+
+    boolean bandit() {
+        return bandit;
+    }
+
+    double cost(PaymentProvider provider) {
+        return costByProvider[provider.ordinal()];
+    }
+
+    private static PaymentProvider resolve(String name) {
+        if (name == null) return null;
+        try {
+            return PaymentProvider.valueOf(name.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static double clamp01(double v) {
+        if (v < 0) return 0;
+        if (v > 1) return 1;
+        return v;
+    }
+}
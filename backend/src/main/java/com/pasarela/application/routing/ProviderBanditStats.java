@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2025 Pasarela Orchestrator
+ * SPDX-License-Identifier: AGPL-3.0-only
+ */
+
+package com.pasarela.application.routing;
+
+import com.pasarela.domain.model.PaymentProvider;
+import org.springframework.stereotype.Component;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Payment outcome counters per (provider, currency) for the {@link RoutingStrategy#BANDIT} strategy.
+ * Each slot packs successes in the high and failures in the low 32 bits of one long, so a reader gets a
+ * consistent pair from a single volatile load. Once a slot holds {@link #HORIZON} outcomes both halves are
+ * halved, which keeps the posterior responsive to providers whose conversion drifts.
+ */
+@Component
+public class ProviderBanditStats {
+    static final long HORIZON = 4096;
+    private static final int PROVIDERS = PaymentProvider.values().length;
+    private static final long LOW = 0xffff_ffffL;
+
+    private final ProviderCapabilityRegistry capabilities;
+    private final AtomicLongArray outcomes;
+
+    public ProviderBanditStats(ProviderCapabilityRegistry capabilities) {
+        this.capabilities = capabilities;
+        this.outcomes = new AtomicLongArray(capabilities.currencyCount() * PROVIDERS);
+    }
+
+    public void record(PaymentProvider provider, String currency, boolean success) {
+        int slot = slot(provider, currency);
+        outcomes.getAndUpdate(slot, packed -> {
+            long succeeded = (packed >>> 32) + (success ? 1 : 0);
+            long failed = (packed & LOW) + (success ? 0 : 1);
+            if (succeeded + failed > HORIZON) {
+                succeeded >>>= 1;
+                failed >>>= 1;
+            }
+            return (succeeded << 32) | failed;
+        });
+    }
+
+    public ProviderHealthWindow.Counts counts(PaymentProvider provider, String currency) {
+        long packed = outcomes.get(slot(provider, currency));
+        return new ProviderHealthWindow.Counts(packed >>> 32, packed & LOW);
+    }
+
+    /**
+     * Thompson draw from Beta(successes + 1, failures + 1) for one arm.
+     */
+    public double sample(PaymentProvider provider, String currency, Random random) {
+        long packed = outcomes.get(slot(provider, currency));
+        double x = gamma(random, (packed >>> 32) + 1);
+        double y = gamma(random, (packed & LOW) + 1);
+        return x / (x + y);
+    }
+
+    private int slot(PaymentProvider provider, String currency) {
+        return capabilities.currencyId(currency) * PROVIDERS + provider.ordinal();
+    }
+
+    /**
+     * Marsaglia–Tsang sampler; the shape is always at least 1 here.
+     */
+    private static double gamma(Random random, double shape) {
+        double d = shape - 1.0 / 3.0;
+        double c = 1.0 / Math.sqrt(9.0 * d);
+        while (true) {
+            double x;
+            double v;
+            do {
+                x = random.nextGaussian();
+                v = 1.0 + c * x;
+            } while (v <= 0);
+            v = v * v * v;
+            double u = random.nextDouble();
+            if (u < 1.0 - 0.0331 * x * x * x * x) return d * v;
+            if (Math.log(u) < 0.5 * x * x + d * (1.0 - v + Math.log(v))) return d * v;
+        }
+    }
+}
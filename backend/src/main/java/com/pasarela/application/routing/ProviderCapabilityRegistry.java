@@ -0,0 +1,182 @@
+/*
+ * Copyright (C) 2025 Pasarela Orchestrator
+ * SPDX-License-Identifier: AGPL-3.0-only
+ */
+
+package com.pasarela.application.routing;
+
+import com.pasarela.config.AppProperties;
+import com.pasarela.domain.model.PaymentProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Provider capabilities from {@code app.routing.capabilities}, compiled to provider bitmasks
+ * ({@code 1L << ordinal}). ISO-4217 codes map to small ids through a table over the 26^3 letter space,
+ * so lookups are case-insensitive and allocation-free; amount limits and payment methods are further masks.
+ */
+@Component
+public class ProviderCapabilityRegistry {
+    private static final String ANY_CURRENCY = "*";
+    private static final int CODE_SPACE = 26 * 26 * 26;
+    private static final int UNLISTED = 0;
+
+    private final short[] currencyIds = new short[CODE_SPACE];
+    private final String[] currencyCodes;
+    private final long[] providersByCurrency;
+    private final long amountLimited;
+    private final long[] minAmountMinor;
+    private final long[] maxAmountMinor;
+    private final Map<String, Long> providersByMethod;
+    private final long methodAgnostic;
+
+    @Autowired
+    public ProviderCapabilityRegistry(AppProperties properties) {
+        this(properties.routing() == null || properties.routing().capabilities() == null
+                ? Map.of()
+                : properties.routing().capabilities());
+    }
+
+    ProviderCapabilityRegistry(Map<PaymentProvider, AppProperties.Routing.Capability> capabilities) {
+        int providers = PaymentProvider.values().length;
+        if (providers > Long.SIZE) {
+            throw new IllegalStateException("Provider masks support at most " + Long.SIZE + " providers");
+        }
+
+        List<String> codes = new ArrayList<>();
+        codes.add(null);
+        long wildcard = 0;
+        for (AppProperties.Routing.Capability capability : capabilities.values()) {
+            for (String currency : nullToEmpty(capability.currencies())) {
+                if (ANY_CURRENCY.equals(currency)) continue;
+                int code = code(currency);
+                if (code < 0) {
+                    throw new IllegalStateException("Invalid currency code in app.routing.capabilities: " + currency);
+                }
+                if (currencyIds[code] == UNLISTED) {
+                    currencyIds[code] = (short) codes.size();
+                    codes.add(currency.toUpperCase(Locale.ROOT));
+                }
+            }
+        }
+        this.currencyCodes = codes.toArray(String[]::new);
+        this.providersByCurrency = new long[currencyCodes.length];
+        this.minAmountMinor = new long[providers];
+        this.maxAmountMinor = new long[providers];
+        this.providersByMethod = new HashMap<>();
+
+        long limited = 0;
+        long agnostic = 0;
+        for (Map.Entry<PaymentProvider, AppProperties.Routing.Capability> entry : capabilities.entrySet()) {
+            PaymentProvider provider = entry.getKey();
+            AppProperties.Routing.Capability capability = entry.getValue();
+            long bit = bit(provider);
+
+            for (String currency : nullToEmpty(capability.currencies())) {
+                if (ANY_CURRENCY.equals(currency)) {
+                    wildcard |= bit;
+                } else {
+                    providersByCurrency[currencyIds[code(currency)]] |= bit;
+                }
+            }
+
+            minAmountMinor[provider.ordinal()] = capability.minAmountMinor() == null ? 0 : capability.minAmountMinor();
+            maxAmountMinor[provider.ordinal()] = capability.maxAmountMinor() == null ? Long.MAX_VALUE : capability.maxAmountMinor();
+            if (capability.minAmountMinor() != null || capability.maxAmountMinor() != null) limited |= bit;
+
+            List<String> methods = nullToEmpty(capability.paymentMethods());
+            if (methods.isEmpty()) agnostic |= bit;
+            for (String method : methods) {
+                providersByMethod.merge(method.toUpperCase(Locale.ROOT), bit, (a, b) -> a | b);
+            }
+        }
+        for (int id = 0; id < providersByCurrency.length; id++) {
+            providersByCurrency[id] |= wildcard;
+        }
+        this.amountLimited = limited;
+        this.methodAgnostic = agnostic;
+    }
+
+    public static long bit(PaymentProvider provider) {
+        return 1L << provider.ordinal();
+    }
+
+    public static long mask(Collection<PaymentProvider> providers) {
+        long mask = 0;
+        if (providers == null) return mask;
+        for (PaymentProvider provider : providers) {
+            mask |= bit(provider);
+        }
+        return mask;
+    }
+
+    /**
+     * Upper-case form of a currency code; configured codes come back as the shared instance.
+     */
+    public String canonicalCurrency(String currency) {
+        int id = currencyId(currency);
+        if (id != UNLISTED) return currencyCodes[id];
+        return currency == null ? "" : currency.toUpperCase(Locale.ROOT);
+    }
+
+    public int currencyCount() {
+        return currencyCodes.length;
+    }
+
+    public long currencyMask(String currency) {
+        return providersByCurrency[currencyId(currency)];
+    }
+
+    public long amountMask(long amountMinor) {
+        long mask = ~amountLimited;
+        for (long pending = amountLimited; pending != 0; pending &= pending - 1) {
+            int ordinal = Long.numberOfTrailingZeros(pending);
+            if (amountMinor >= minAmountMinor[ordinal] && amountMinor <= maxAmountMinor[ordinal]) {
+                mask |= 1L << ordinal;
+            }
+        }
+        return mask;
+    }
+
+    public long paymentMethodMask(String paymentMethod) {
+        if (paymentMethod == null) return -1L;
+        return methodAgnostic | providersByMethod.getOrDefault(paymentMethod.toUpperCase(Locale.ROOT), 0L);
+    }
+
+    public long eligible(String currency, long amountMinor, String paymentMethod) {
+        long mask = currencyMask(currency);
+        if (amountLimited != 0) mask &= amountMask(amountMinor);
+        if (paymentMethod != null) mask &= paymentMethodMask(paymentMethod);
+        return mask;
+    }
+
+    /**
+     * Dense id of a configured currency in {@code [1, currencyCount())}; unlisted codes share id 0.
+     */
+    public int currencyId(String currency) {
+        int code = code(currency);
+        return code < 0 ? UNLISTED : currencyIds[code];
+    }
+
+    private static int code(String currency) {
+        if (currency == null || currency.length() != 3) return -1;
+        int code = 0;
+        for (int i = 0; i < 3; i++) {
+            int letter = (currency.charAt(i) | 0x20) - 'a';
+            if (letter < 0 || letter >= 26) return -1;
+            code = code * 26 + letter;
+        }
+        return code;
+    }
+
+    private static List<String> nullToEmpty(List<String> values) {
+        return values == null ? List.of() : values;
+    }
+}
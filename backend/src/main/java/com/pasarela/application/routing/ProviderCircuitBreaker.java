@@ -0,0 +1,125 @@
+/*
+ * Copyright (C) 2025 Pasarela Orchestrator
+ * SPDX-License-Identifier: AGPL-3.0-only
+ */
+
+package com.pasarela.application.routing;
+
+import com.pasarela.domain.model.CircuitState;
+import com.pasarela.domain.model.PaymentProvider;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * In-process circuit breaker per provider. Reads never touch the database: the latest snapshot lives in an
+ * {@link AtomicReferenceArray} slot and OPEN decays to HALF_OPEN on read once {@link #OPEN_TTL} has elapsed.
+ */
+@Component
+public class ProviderCircuitBreaker implements ProviderHealthReader {
+    static final Duration OPEN_TTL = Duration.ofMinutes(2);
+
+    private final ProviderSnapshot[] initial;
+    private final AtomicReferenceArray<ProviderSnapshot> states;
+
+    public ProviderCircuitBreaker() {
+        PaymentProvider[] providers = PaymentProvider.values();
+        Instant now = Instant.now();
+        this.initial = new ProviderSnapshot[providers.length];
+        this.states = new AtomicReferenceArray<>(providers.length);
+        for (PaymentProvider provider : providers) {
+            initial[provider.ordinal()] = new ProviderSnapshot(provider, CircuitState.CLOSED, 0, 0, 0, 0, 0, null, now);
+            states.set(provider.ordinal(), initial[provider.ordinal()]);
+        }
+    }
+
+    @Override
+    public ProviderSnapshot getSnapshot(PaymentProvider provider) {
+        ProviderSnapshot state = states.get(provider.ordinal());
+        CircuitState effective = effectiveCircuitState(state.circuitState(), state.lastFailureAt(), Instant.now());
+        if (effective == state.circuitState()) return state;
+        return new ProviderSnapshot(
+                provider,
+                effective,
+                state.successRate(),
+                state.errorRate(),
+                state.p50LatencyMs(),
+                state.p95LatencyMs(),
+                state.p99LatencyMs(),
+                state.lastFailureAt(),
+                state.updatedAt()
+        );
+    }
+
+    /**
+     * Restores a persisted snapshot. Ignored once the provider has seen live traffic.
+     */
+    public void seed(ProviderSnapshot snapshot) {
+        int i = snapshot.provider().ordinal();
+        states.compareAndSet(i, initial[i], snapshot);
+    }
+
+    public Transition record(PaymentProvider provider, Boolean lastCreateSessionSuccess, boolean shouldOpen, Metrics metrics, Instant now) {
+        int i = provider.ordinal();
+        while (true) {
+            ProviderSnapshot previous = states.get(i);
+            CircuitState previousState = effectiveCircuitState(previous.circuitState(), previous.lastFailureAt(), now);
+            CircuitState nextState = previousState;
+            Instant lastFailureAt = previous.lastFailureAt();
+
+            if (Boolean.TRUE.equals(lastCreateSessionSuccess)) {
+                if (nextState == CircuitState.HALF_OPEN || nextState == CircuitState.OPEN) {
+                    nextState = CircuitState.CLOSED;
+                    lastFailureAt = null;
+                }
+            } else if (Boolean.FALSE.equals(lastCreateSessionSuccess)) {
+                if (nextState == CircuitState.HALF_OPEN || shouldOpen) {
+                    nextState = CircuitState.OPEN;
+                    lastFailureAt = now;
+                }
+            } else if (shouldOpen) {
+                nextState = CircuitState.OPEN;
+                lastFailureAt = now;
+            }
+            // Otherwise OPEN keeps waiting for its TTL and HALF_OPEN for a probe.
+
+            ProviderSnapshot next = new ProviderSnapshot(
+                    provider,
+                    nextState,
+                    Double.isNaN(metrics.successRate()) ? previous.successRate() : metrics.successRate(),
+                    metrics.errorRate(),
+                    metrics.p50LatencyMs(),
+                    metrics.p95LatencyMs(),
+                    metrics.p99LatencyMs(),
+                    lastFailureAt,
+                    now
+            );
+            if (states.compareAndSet(i, previous, next)) {
+                boolean changed = previousState != nextState || !Objects.equals(previous.lastFailureAt(), lastFailureAt);
+                return new Transition(next, changed);
+            }
+        }
+    }
+
+    static CircuitState effectiveCircuitState(CircuitState state, Instant lastFailureAt, Instant now) {
+        if (state != CircuitState.OPEN) return state;
+        if (lastFailureAt == null) return CircuitState.OPEN;
+        if (Duration.between(lastFailureAt, now).compareTo(OPEN_TTL) > 0) {
+            return CircuitState.HALF_OPEN;
+        }
+        return CircuitState.OPEN;
+    }
+
+    public record Metrics(
+            double successRate,
+            double errorRate,
+            long p50LatencyMs,
+            long p95LatencyMs,
+            long p99LatencyMs
+    ) {}
+
+    public record Transition(ProviderSnapshot snapshot, boolean stateChanged) {}
+}
@@ -5,9 +5,21 @@
 
 package com.pasarela.application.routing;
 
+import com.pasarela.domain.model.CircuitState;
 import com.pasarela.domain.model.PaymentProvider;
 
 public interface ProviderHealthReader {
     ProviderSnapshot getSnapshot(PaymentProvider provider);
+
+    /**
+     * Bit {@code provider.ordinal()} is set for every provider whose circuit is currently OPEN.
+     */
+    default long openCircuits() {
+        long open = 0;
+        for (PaymentProvider provider : PaymentProvider.values()) {
+            if (getSnapshot(provider).circuitState() == CircuitState.OPEN) open |= 1L << provider.ordinal();
+        }
+        return open;
+    }
 }
 
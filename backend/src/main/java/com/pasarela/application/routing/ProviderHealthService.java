@@ -11,25 +11,40 @@ import com.pasarela.application.events.EventTypes;
 import com.pasarela.config.PaymentsMode;
 import com.pasarela.domain.model.CircuitState;
 import com.pasarela.domain.model.PaymentProvider;
-import com.pasarela.infrastructure.persistence.entity.PaymentEventEntity;
 import com.pasarela.infrastructure.persistence.entity.ProviderHealthSnapshotEntity;
 import com.pasarela.infrastructure.persistence.repository.PaymentEventRepository;
 import com.pasarela.infrastructure.persistence.repository.ProviderHealthSnapshotRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
 import java.time.Duration;
 import java.time.Instant;
-import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Outcomes land in the in-memory windows on the caller's thread and are handed to a single worker that
+ * recomputes each touched provider once per tick, so health writes stay out of payment transactions. A circuit
+ * state change is written to {@code provider_health_snapshot} on that tick; metric-only updates at most every
+ * {@link #PERSIST_INTERVAL_MS} per provider. A failed createSession that should open the circuit trips the
+ * in-memory breaker right away and leaves the write to the worker.
+ */
 @Service
-public class ProviderHealthService implements ProviderHealthReader {
+public class ProviderHealthService {
+    private static final Logger log = LoggerFactory.getLogger(ProviderHealthService.class);
     private static final Duration ERROR_WINDOW = Duration.ofMinutes(5);
     private static final Duration SUCCESS_WINDOW = Duration.ofMinutes(15);
     private static final Duration SUCCESS_FALLBACK_WINDOW = Duration.ofHours(24);
-    private static final Duration OPEN_TTL = Duration.ofMinutes(2);
+    private static final int CONSECUTIVE_FAILURES_TO_OPEN = 5;
+    private static final int SIGNAL_CAPACITY = 4096;
+    static final long PERSIST_INTERVAL_MS = 1000;
+    private static final PaymentProvider[] PROVIDERS = PaymentProvider.values();
 
     private final ProviderHealthSnapshotRepository snapshotRepository;
     private final PaymentEventRepository paymentEventRepository;
@@ -37,6 +52,16 @@ public class ProviderHealthService implements ProviderHealthReader {
     private final ObjectMapper objectMapper;
     private final PaymentsMode paymentsMode;
     private final com.pasarela.application.ProviderAdapterRegistry providerAdapterRegistry;
+    private final ProviderHealthWindow healthWindow;
+    private final ProviderLatencyHistogram latencyHistogram;
+    private final ProviderCircuitBreaker circuitBreaker;
+    private final ProviderBanditStats banditStats;
+    private final ProviderHealthSignals signals = new ProviderHealthSignals(SIGNAL_CAPACITY);
+    private final ProviderSnapshot[] unpersisted = new ProviderSnapshot[PROVIDERS.length];
+    private final long[] persistedAt = new long[PROVIDERS.length];
+    // Providers whose circuit was tripped off the worker thread and still need their transition written.
+    private final AtomicLong tripped = new AtomicLong();
+    private volatile Thread worker;
 
     public ProviderHealthService(
             ProviderHealthSnapshotRepository snapshotRepository,
@@ -44,7 +69,11 @@ public class ProviderHealthService implements ProviderHealthReader {
             PaymentEventService paymentEventService,
             ObjectMapper objectMapper,
             PaymentsMode paymentsMode,
-            com.pasarela.application.ProviderAdapterRegistry providerAdapterRegistry
+            com.pasarela.application.ProviderAdapterRegistry providerAdapterRegistry,
+            ProviderHealthWindow healthWindow,
+            ProviderLatencyHistogram latencyHistogram,
+            ProviderCircuitBreaker circuitBreaker,
+            ProviderBanditStats banditStats
     ) {
         this.snapshotRepository = snapshotRepository;
         this.paymentEventRepository = paymentEventRepository;
@@ -52,30 +81,49 @@ public class ProviderHealthService implements ProviderHealthReader {
         this.objectMapper = objectMapper;
         this.paymentsMode = paymentsMode;
         this.providerAdapterRegistry = providerAdapterRegistry;
+        this.healthWindow = healthWindow;
+        this.latencyHistogram = latencyHistogram;
+        this.circuitBreaker = circuitBreaker;
+        this.banditStats = banditStats;
     }
 
-    @Override
-    public ProviderSnapshot getSnapshot(PaymentProvider provider) {
-        ProviderHealthSnapshotEntity entity = snapshotRepository.findByProvider(provider).orElseGet(() -> {
-            ProviderHealthSnapshotEntity e = new ProviderHealthSnapshotEntity();
-            e.setProvider(provider);
-            e.setCircuitState(CircuitState.CLOSED);
-            e.setSuccessRate(0);
-            e.setErrorRate(0);
-            e.setP95LatencyMs(0);
-            return snapshotRepository.save(e);
-        });
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        for (ProviderHealthSnapshotEntity entity : snapshotRepository.findAll()) {
+            circuitBreaker.seed(new ProviderSnapshot(
+                    entity.getProvider(),
+                    entity.getCircuitState(),
+                    entity.getSuccessRate(),
+                    entity.getErrorRate(),
+                    entity.getP50LatencyMs(),
+                    entity.getP95LatencyMs(),
+                    entity.getP99LatencyMs(),
+                    entity.getLastFailureAt(),
+                    entity.getUpdatedAt()
+            ));
+        }
 
-        CircuitState effective = effectiveCircuitState(entity.getCircuitState(), entity.getLastFailureAt(), Instant.now());
-        return new ProviderSnapshot(
-                provider,
-                effective,
-                entity.getSuccessRate(),
-                entity.getErrorRate(),
-                entity.getP95LatencyMs(),
-                entity.getLastFailureAt(),
-                entity.getUpdatedAt()
-        );
+        Instant now = Instant.now();
+        paymentEventRepository.findLatencySamplesSince(EventTypes.PROVIDER_CREATE_SESSION_SUCCEEDED, now.minus(SUCCESS_WINDOW))
+                .forEach(sample -> latencyHistogram.record(
+                        sample.getProvider(),
+                        sample.getLatencyMs(),
+                        sample.getCreatedAt().toEpochMilli()
+                ));
+
+        Thread thread = new Thread(this::runWorker, "provider-health");
+        thread.setDaemon(true);
+        worker = thread;
+        thread.start();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        Thread thread = worker;
+        worker = null;
+        if (thread == null) return;
+        thread.interrupt();
+        thread.join(PERSIST_INTERVAL_MS);
     }
 
     public List<ProviderSnapshot> getAllSnapshots() {
@@ -90,10 +138,26 @@ public class ProviderHealthService implements ProviderHealthReader {
         return ordered.stream()
                 .filter(supported::contains)
                 .filter(p -> paymentsMode.isDemo() || p != PaymentProvider.DEMO)
-                .map(this::getSnapshot)
+                .map(circuitBreaker::getSnapshot)
                 .toList();
     }
 
+    /**
+     * Feeds one finished create-session call into the health window and the breaker. Called as the call completes,
+     * not when the request is done, so a failing provider stops being routed to while a fallback is still running.
+     */
+    public void recordCreateSessionSignal(PaymentProvider provider, boolean success, long latencyMs) {
+        long nowMillis = System.currentTimeMillis();
+        healthWindow.recordCreateSession(provider, success, nowMillis);
+        if (success) latencyHistogram.record(provider, latencyMs, nowMillis);
+        if (!success) tripIfNeeded(provider);
+        signals.offer(provider, success);
+    }
+
+    /**
+     * The payment_events row for a create-session call; its health signal was already fed by
+     * {@link #recordCreateSessionSignal}.
+     */
     public void recordCreateSessionOutcome(PaymentProvider provider, java.util.UUID paymentIntentId, boolean success, long latencyMs, String errorType, String payloadForHash) {
         String sanitized = null;
         try {
@@ -109,13 +173,22 @@ public class ProviderHealthService implements ProviderHealthReader {
                 paymentIntentId,
                 success ? EventTypes.PROVIDER_CREATE_SESSION_SUCCEEDED : EventTypes.PROVIDER_CREATE_SESSION_FAILED,
                 payloadForHash,
-                sanitized
+                sanitized,
+                latencyMs
         );
+    }
 
-        recomputeAndPersist(provider, success);
+    /**
+     * A session that lost a hedged race while still running. Whatever it ends with is signalled by the call itself,
+     * so only the event is kept.
+     */
+    public void recordCreateSessionAbandoned(PaymentProvider provider, java.util.UUID paymentIntentId, String payloadForHash) {
+        paymentEventService.record(provider, paymentIntentId, EventTypes.PROVIDER_CREATE_SESSION_ABANDONED, payloadForHash, null);
     }
 
-    public void recordPaymentOutcomeFromWebhook(PaymentProvider provider, java.util.UUID paymentIntentId, boolean success, String payloadForHash, String sanitizedPayloadJson) {
+    public void recordPaymentOutcomeFromWebhook(PaymentProvider provider, java.util.UUID paymentIntentId, String currency, boolean success, String payloadForHash, String sanitizedPayloadJson) {
+        healthWindow.recordPayment(provider, success, System.currentTimeMillis());
+        banditStats.record(provider, currency, success);
         paymentEventService.record(
                 provider,
                 paymentIntentId,
@@ -123,143 +196,126 @@ public class ProviderHealthService implements ProviderHealthReader {
                 payloadForHash,
                 sanitizedPayloadJson
         );
-        recomputeAndPersist(provider, null);
+        signals.offer(provider, null);
     }
 
     public void recordRefundOutcomeFromWebhook(PaymentProvider provider, java.util.UUID paymentIntentId, String payloadForHash, String sanitizedPayloadJson) {
         paymentEventService.record(provider, paymentIntentId, EventTypes.REFUND_SUCCEEDED, payloadForHash, sanitizedPayloadJson);
-        recomputeAndPersist(provider, null);
+        signals.offer(provider, null);
     }
 
-    private void recomputeAndPersist(PaymentProvider provider, Boolean lastCreateSessionSuccess) {
-        ProviderHealthSnapshotEntity entity = snapshotRepository.findByProvider(provider).orElseGet(() -> {
-            ProviderHealthSnapshotEntity e = new ProviderHealthSnapshotEntity();
-            e.setProvider(provider);
-            e.setCircuitState(CircuitState.CLOSED);
-            e.setSuccessRate(0);
-            e.setErrorRate(0);
-            e.setP95LatencyMs(0);
-            return e;
-        });
-
+    /**
+     * Synchronous path for the open decision: routing must stop picking a failing provider on the very next
+     * request, not a tick later. The worker persists the transition with its next recompute.
+     */
+    private void tripIfNeeded(PaymentProvider provider) {
         Instant now = Instant.now();
-
-        Instant errFrom = now.minus(ERROR_WINDOW);
-        List<PaymentEventEntity> recentCreates = paymentEventRepository.findRecentByProviderAndTypes(
-                provider,
-                List.of(EventTypes.PROVIDER_CREATE_SESSION_SUCCEEDED, EventTypes.PROVIDER_CREATE_SESSION_FAILED),
-                errFrom
-        );
-
-        long total = recentCreates.size();
-        long failures = recentCreates.stream().filter(e -> EventTypes.PROVIDER_CREATE_SESSION_FAILED.equals(e.getEventType())).count();
-        double errorRate = total == 0 ? 0 : (double) failures / (double) total;
-
-        long p95 = computeP95LatencyMs(provider, now.minus(SUCCESS_WINDOW));
-
-        double successRate = computePaymentSuccessRate(provider, now.minus(SUCCESS_WINDOW));
-        if (Double.isNaN(successRate)) {
-            successRate = computePaymentSuccessRate(provider, now.minus(SUCCESS_FALLBACK_WINDOW));
-            if (Double.isNaN(successRate)) successRate = entity.getSuccessRate();
+        long nowMillis = now.toEpochMilli();
+        double errorRate = healthWindow.createSessions(provider, ERROR_WINDOW, nowMillis).failureRate();
+        boolean halfOpen = circuitBreaker.getSnapshot(provider).circuitState() == CircuitState.HALF_OPEN;
+        if ((halfOpen || shouldOpen(provider, errorRate, nowMillis)) && recompute(provider, false, now).stateChanged()) {
+            tripped.getAndAccumulate(ProviderCapabilityRegistry.bit(provider), (a, b) -> a | b);
         }
+    }
 
-        CircuitState nextState = effectiveCircuitState(entity.getCircuitState(), entity.getLastFailureAt(), now);
-        boolean shouldOpen = errorRate > 0.20 || lastNCreateSessionAreFailures(provider, 5);
-
-        if (Boolean.TRUE.equals(lastCreateSessionSuccess)) {
-            if (nextState == CircuitState.HALF_OPEN || nextState == CircuitState.OPEN) {
-                nextState = CircuitState.CLOSED;
-                entity.setLastFailureAt(null);
-            }
-        } else if (Boolean.FALSE.equals(lastCreateSessionSuccess)) {
-            if (nextState == CircuitState.HALF_OPEN) {
-                nextState = CircuitState.OPEN;
-                entity.setLastFailureAt(now);
-            } else if (shouldOpen) {
-                nextState = CircuitState.OPEN;
-                entity.setLastFailureAt(now);
-            }
-        } else {
-            if (shouldOpen) {
-                nextState = CircuitState.OPEN;
-                entity.setLastFailureAt(now);
-            } else if (nextState == CircuitState.OPEN) {
-                // keep OPEN until TTL passes
-            } else if (nextState == CircuitState.HALF_OPEN) {
-                // keep HALF_OPEN until probe
-            } else {
-                nextState = CircuitState.CLOSED;
+    private void runWorker() {
+        while (worker == Thread.currentThread()) {
+            try {
+                long dirty = signals.await(PERSIST_INTERVAL_MS);
+                long changed = tripped.getAndSet(0);
+                dirty |= changed;
+                Instant now = Instant.now();
+                for (PaymentProvider provider : PROVIDERS) {
+                    long bit = ProviderCapabilityRegistry.bit(provider);
+                    if ((dirty & bit) == 0) continue;
+                    ProviderCircuitBreaker.Transition transition = recompute(provider, signals.lastCreateSession(provider), now);
+                    unpersisted[provider.ordinal()] = transition.snapshot();
+                    if (transition.stateChanged()) changed |= bit;
+                }
+                flush(now, changed);
+            } catch (InterruptedException e) {
+                break;
+            } catch (RuntimeException e) {
+                log.warn("provider health tick failed", e);
             }
         }
-
-        entity.setCircuitState(nextState);
-        entity.setErrorRate(errorRate);
-        entity.setP95LatencyMs(p95);
-        entity.setSuccessRate(successRate);
-        entity.setWindowStart(now.minus(SUCCESS_WINDOW));
-        entity.setWindowEnd(now);
-        snapshotRepository.save(entity);
+        try {
+            flush(Instant.now(), -1L);
+        } catch (RuntimeException e) {
+            log.warn("provider health flush on shutdown failed", e);
+        }
     }
 
-    private boolean lastNCreateSessionAreFailures(PaymentProvider provider, int n) {
-        Instant from = Instant.now().minus(Duration.ofHours(6));
-        List<PaymentEventEntity> recent = paymentEventRepository.findRecentByProviderAndTypes(
-                provider,
-                List.of(EventTypes.PROVIDER_CREATE_SESSION_SUCCEEDED, EventTypes.PROVIDER_CREATE_SESSION_FAILED),
-                from
-        );
-        if (recent.size() < n) return false;
-        return recent.stream().limit(n).allMatch(e -> EventTypes.PROVIDER_CREATE_SESSION_FAILED.equals(e.getEventType()));
+    /**
+     * Writes pending snapshots whose last write is at least {@link #PERSIST_INTERVAL_MS} old, and those in
+     * {@code immediate} regardless.
+     */
+    private void flush(Instant now, long immediate) {
+        long nowMillis = now.toEpochMilli();
+        for (PaymentProvider provider : PROVIDERS) {
+            int i = provider.ordinal();
+            ProviderSnapshot pending = unpersisted[i];
+            if (pending == null) continue;
+            boolean force = (immediate & ProviderCapabilityRegistry.bit(provider)) != 0;
+            if (!force && nowMillis - persistedAt[i] < PERSIST_INTERVAL_MS) continue;
+            persist(pending, now);
+            unpersisted[i] = null;
+            persistedAt[i] = nowMillis;
+        }
     }
 
-    private long computeP95LatencyMs(PaymentProvider provider, Instant from) {
-        List<PaymentEventEntity> successes = paymentEventRepository.findRecentByProviderAndType(
-                provider,
-                EventTypes.PROVIDER_CREATE_SESSION_SUCCEEDED,
-                from
-        );
-        if (successes.isEmpty()) return 0;
+    private ProviderCircuitBreaker.Transition recompute(PaymentProvider provider, Boolean lastCreateSessionSuccess, Instant now) {
+        long nowMillis = now.toEpochMilli();
 
-        List<Long> latencies = successes.stream()
-                .map(PaymentEventEntity::getSanitizedPayloadJson)
-                .map(json -> extractLatency(json))
-                .filter(v -> v != null && v >= 0)
-                .sorted(Comparator.naturalOrder())
-                .toList();
-        if (latencies.isEmpty()) return 0;
-        int index = (int) Math.ceil(0.95 * latencies.size()) - 1;
-        if (index < 0) index = 0;
-        if (index >= latencies.size()) index = latencies.size() - 1;
-        return latencies.get(index);
-    }
+        double errorRate = healthWindow.createSessions(provider, ERROR_WINDOW, nowMillis).failureRate();
+        ProviderLatencyHistogram.Percentiles latency = latencyHistogram.percentiles(provider, nowMillis);
 
-    private Long extractLatency(String json) {
-        if (json == null || json.isBlank()) return null;
-        try {
-            Map<?, ?> map = objectMapper.readValue(json, Map.class);
-            Object v = map.get("latencyMs");
-            if (v instanceof Number n) return n.longValue();
-            return null;
-        } catch (Exception ignored) {
-            return null;
+        double successRate = healthWindow.payments(provider, SUCCESS_WINDOW, nowMillis).successRate();
+        if (Double.isNaN(successRate)) {
+            successRate = healthWindow.payments(provider, SUCCESS_FALLBACK_WINDOW, nowMillis).successRate();
         }
+
+        return circuitBreaker.record(
+                provider,
+                lastCreateSessionSuccess,
+                shouldOpen(provider, errorRate, nowMillis),
+                new ProviderCircuitBreaker.Metrics(successRate, errorRate, latency.p50(), latency.p95(), latency.p99()),
+                now
+        );
     }
 
-    private double computePaymentSuccessRate(PaymentProvider provider, Instant from) {
-        long succ = paymentEventRepository.countByProviderAndTypeSince(provider, EventTypes.PAYMENT_SUCCEEDED, from);
-        long fail = paymentEventRepository.countByProviderAndTypeSince(provider, EventTypes.PAYMENT_FAILED, from);
-        long total = succ + fail;
-        if (total == 0) return Double.NaN;
-        return (double) succ / (double) total;
+    boolean shouldOpen(PaymentProvider provider, double errorRate, long nowMillis) {
+        return errorRate > 0.20
+                || healthWindow.consecutiveCreateSessionFailures(provider, nowMillis) >= CONSECUTIVE_FAILURES_TO_OPEN;
     }
 
-    private CircuitState effectiveCircuitState(CircuitState state, Instant lastFailureAt, Instant now) {
-        if (state != CircuitState.OPEN) return state;
-        if (lastFailureAt == null) return CircuitState.OPEN;
-        if (Duration.between(lastFailureAt, now).compareTo(OPEN_TTL) > 0) {
-            return CircuitState.HALF_OPEN;
+    private void persist(ProviderSnapshot next, Instant now) {
+        int updated = snapshotRepository.updateSnapshot(
+                next.provider(),
+                next.circuitState(),
+                next.successRate(),
+                next.errorRate(),
+                next.p50LatencyMs(),
+                next.p95LatencyMs(),
+                next.p99LatencyMs(),
+                next.lastFailureAt(),
+                now.minus(SUCCESS_WINDOW),
+                now,
+                now
+        );
+        if (updated == 0) {
+            ProviderHealthSnapshotEntity e = new ProviderHealthSnapshotEntity();
+            e.setProvider(next.provider());
+            e.setCircuitState(next.circuitState());
+            e.setSuccessRate(next.successRate());
+            e.setErrorRate(next.errorRate());
+            e.setP50LatencyMs(next.p50LatencyMs());
+            e.setP95LatencyMs(next.p95LatencyMs());
+            e.setP99LatencyMs(next.p99LatencyMs());
+            e.setLastFailureAt(next.lastFailureAt());
+            e.setWindowStart(now.minus(SUCCESS_WINDOW));
+            e.setWindowEnd(now);
+            snapshotRepository.save(e);
         }
-        return CircuitState.OPEN;
     }
-
 }
@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2025 Pasarela Orchestrator
+ * SPDX-License-Identifier: AGPL-3.0-only
+ */
+
+package com.pasarela.application.routing;
+
+import com.pasarela.domain.model.PaymentProvider;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded hand-off from request threads to the single health worker. Producers never block: when the queue is
+ * full the provider is flagged in an overflow mask instead, which still gets it recomputed on the next tick
+ * (the windows hold the data; only the create-session outcome hint is lost). The consumer side is
+ * worker-confined and coalesces a burst into one entry per provider.
+ */
+final class ProviderHealthSignals {
+    private static final PaymentProvider[] PROVIDERS = PaymentProvider.values();
+
+    private final ArrayBlockingQueue<Signal> queue;
+    private final AtomicLong overflowed = new AtomicLong();
+    private final List<Signal> drained = new ArrayList<>();
+    private final Boolean[] lastCreateSession = new Boolean[PROVIDERS.length];
+
+    ProviderHealthSignals(int capacity) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+    }
+
+    void offer(PaymentProvider provider, Boolean createSessionSuccess) {
+        if (!queue.offer(new Signal(provider, createSessionSuccess))) {
+            overflowed.getAndAccumulate(ProviderCapabilityRegistry.bit(provider), (a, b) -> a | b);
+        }
+    }
+
+    /**
+     * Waits up to {@code timeoutMs} for a signal, then drains everything queued. Returns the providers to
+     * recompute as a bitmask; {@link #lastCreateSession} holds the latest non-null outcome for each of them.
+     */
+    long await(long timeoutMs) throws InterruptedException {
+        Signal first = queue.poll(timeoutMs, TimeUnit.MILLISECONDS);
+        Arrays.fill(lastCreateSession, null);
+        long dirty = overflowed.getAndSet(0);
+        if (first == null) return dirty;
+
+        drained.add(first);
+        queue.drainTo(drained);
+        for (Signal signal : drained) {
+            dirty |= ProviderCapabilityRegistry.bit(signal.provider());
+            if (signal.createSessionSuccess() != null) {
+                lastCreateSession[signal.provider().ordinal()] = signal.createSessionSuccess();
+            }
+        }
+        drained.clear();
+        return dirty;
+    }
+
+    Boolean lastCreateSession(PaymentProvider provider) {
+        return lastCreateSession[provider.ordinal()];
+    }
+
+    private record Signal(PaymentProvider provider, Boolean createSessionSuccess) {}
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2025 Pasarela Orchestrator
+ * SPDX-License-Identifier: AGPL-3.0-only
+ */
+
+package com.pasarela.application.routing;
+
+import com.pasarela.domain.model.PaymentProvider;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free sliding-window counters per provider, indexed by {@link PaymentProvider#ordinal()}.
+ * A fine ring (10s buckets, 16 minutes) feeds error and success rates; a coarse ring
+ * (15 minute buckets, 24 hours) backs the success-rate fallback window.
+ */
+@Component
+public class ProviderHealthWindow {
+    static final int CREATE_SUCCEEDED = 0;
+    static final int CREATE_FAILED = 1;
+    static final int PAYMENT_SUCCEEDED = 2;
+    static final int PAYMENT_FAILED = 3;
+    private static final int COUNTERS = 4;
+    /** A failure streak whose last failure is older than this no longer counts. */
+    static final Duration FAILURE_STREAK_WINDOW = Duration.ofHours(6);
+
+    private static final int PROVIDERS = PaymentProvider.values().length;
+
+    private final Ring fine = new Ring(Duration.ofSeconds(10).toMillis(), 96);
+    private final Ring coarse = new Ring(Duration.ofMinutes(15).toMillis(), 96);
+    private final AtomicIntegerArray failureStreaks = new AtomicIntegerArray(PROVIDERS);
+    private final AtomicLongArray lastFailureAt = new AtomicLongArray(PROVIDERS);
+
+    public void recordCreateSession(PaymentProvider provider, boolean success, long nowMillis) {
+        int i = provider.ordinal();
+        fine.increment(i, success ? CREATE_SUCCEEDED : CREATE_FAILED, nowMillis);
+        if (success) {
+            failureStreaks.set(i, 0);
+            return;
+        }
+        long previous = lastFailureAt.getAndSet(i, nowMillis);
+        if (nowMillis - previous > FAILURE_STREAK_WINDOW.toMillis()) {
+            failureStreaks.set(i, 1);
+        } else {
+            failureStreaks.incrementAndGet(i);
+        }
+    }
+
+    public void recordPayment(PaymentProvider provider, boolean success, long nowMillis) {
+        int counter = success ? PAYMENT_SUCCEEDED : PAYMENT_FAILED;
+        fine.increment(provider.ordinal(), counter, nowMillis);
+        coarse.increment(provider.ordinal(), counter, nowMillis);
+    }
+
+    public Counts createSessions(PaymentProvider provider, Duration window, long nowMillis) {
+        return fine.counts(provider.ordinal(), CREATE_SUCCEEDED, CREATE_FAILED, window.toMillis(), nowMillis);
+    }
+
+    public Counts payments(PaymentProvider provider, Duration window, long nowMillis) {
+        Ring ring = window.toMillis() <= fine.span() ? fine : coarse;
+        return ring.counts(provider.ordinal(), PAYMENT_SUCCEEDED, PAYMENT_FAILED, window.toMillis(), nowMillis);
+    }
+
+    /**
+     * Create-session failures since the last success, or 0 once the newest of them is older than
+     * {@link #FAILURE_STREAK_WINDOW}.
+     */
+    public int consecutiveCreateSessionFailures(PaymentProvider provider, long nowMillis) {
+        int i = provider.ordinal();
+        if (nowMillis - lastFailureAt.get(i) > FAILURE_STREAK_WINDOW.toMillis()) return 0;
+        return failureStreaks.get(i);
+    }
+
+    public record Counts(long succeeded, long failed) {
+        public long total() {
+            return succeeded + failed;
+        }
+
+        public double failureRate() {
+            long total = total();
+            return total == 0 ? 0 : (double) failed / (double) total;
+        }
+
+        public double successRate() {
+            long total = total();
+            return total == 0 ? Double.NaN : (double) succeeded / (double) total;
+        }
+    }
+
+    private static final class Ring {
+        private static final long EMPTY = -1;
+        // Held by the one writer clearing a recycled bucket; other writers wait for the new epoch.
+        private static final long RESETTING = -2;
+
+        private final long bucketMillis;
+        private final int slots;
+        private final AtomicLongArray epochs;
+        private final AtomicLongArray counters;
+
+        Ring(long bucketMillis, int slots) {
+            this.bucketMillis = bucketMillis;
+            this.slots = slots;
+            this.epochs = new AtomicLongArray(PROVIDERS * slots);
+            this.counters = new AtomicLongArray(PROVIDERS * slots * COUNTERS);
+            for (int i = 0; i < epochs.length(); i++) {
+                epochs.set(i, EMPTY);
+            }
+        }
+
+        long span() {
+            return bucketMillis * slots;
+        }
+
+        void increment(int provider, int counter, long nowMillis) {
+            long epoch = nowMillis / bucketMillis;
+            int bucket = provider * slots + (int) (epoch % slots);
+            while (true) {
+                long seen = epochs.get(bucket);
+                if (seen == epoch) {
+                    counters.incrementAndGet(bucket * COUNTERS + counter);
+                    return;
+                }
+                if (seen == RESETTING) {
+                    Thread.onSpinWait();
+                    continue;
+                }
+                // The bucket already moved on to a newer epoch; this sample is too old to keep.
+                if (seen > epoch) return;
+                // First writer into a recycled bucket clears the stale counts before anyone can add to the new epoch.
+                if (epochs.compareAndSet(bucket, seen, RESETTING)) {
+                    for (int c = 0; c < COUNTERS; c++) {
+                        counters.set(bucket * COUNTERS + c, 0);
+                    }
+                    epochs.set(bucket, epoch);
+                }
+            }
+        }
+
+        Counts counts(int provider, int succeededCounter, int failedCounter, long windowMillis, long nowMillis) {
+            long newest = nowMillis / bucketMillis;
+            long oldest = (nowMillis - windowMillis) / bucketMillis;
+            if (newest - oldest >= slots) oldest = newest - slots + 1;
+
+            long succeeded = 0;
+            long failed = 0;
+            for (long epoch = oldest; epoch <= newest; epoch++) {
+                int bucket = provider * slots + (int) (epoch % slots);
+                if (epochs.get(bucket) != epoch) continue;
+                succeeded += counters.get(bucket * COUNTERS + succeededCounter);
+                failed += counters.get(bucket * COUNTERS + failedCounter);
+            }
+            return new Counts(succeeded, failed);
+        }
+    }
+}
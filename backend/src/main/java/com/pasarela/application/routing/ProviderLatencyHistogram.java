@@ -0,0 +1,145 @@
+/*
+ * Copyright (C) 2025 Pasarela Orchestrator
+ * SPDX-License-Identifier: AGPL-3.0-only
+ */
+
+package com.pasarela.application.routing;
+
+import com.pasarela.domain.model.PaymentProvider;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Per-provider log-linear latency histogram (HdrHistogram layout: 16 linear sub-buckets per power of two,
+ * about 6% worst-case error) over a rolling window of one-minute slices. A running total per provider is kept
+ * alongside the slices so percentile queries scan {@link #BUCKETS} counters without allocating.
+ */
+@Component
+public class ProviderLatencyHistogram {
+    static final long MAX_TRACKABLE_MS = (1L << 20) - 1;
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKET_HALF = 1 << SUB_BUCKET_BITS;
+    private static final int LINEAR_LIMIT = SUB_BUCKET_HALF << 1;
+    static final int BUCKETS = bucketIndex(MAX_TRACKABLE_MS) + 1;
+
+    private static final int PROVIDERS = PaymentProvider.values().length;
+    private static final long SLICE_MILLIS = Duration.ofMinutes(1).toMillis();
+    private static final long RETIRED = -1;
+
+    private final int slices;
+    private final AtomicLongArray sliceEpochs;
+    private final AtomicLongArray sliceCounts;
+    private final AtomicLongArray totals;
+
+    public ProviderLatencyHistogram() {
+        this(Duration.ofMinutes(15));
+    }
+
+    ProviderLatencyHistogram(Duration window) {
+        this.slices = (int) Math.max(1, window.toMillis() / SLICE_MILLIS);
+        this.sliceEpochs = new AtomicLongArray(PROVIDERS * slices);
+        this.sliceCounts = new AtomicLongArray(PROVIDERS * slices * BUCKETS);
+        this.totals = new AtomicLongArray(PROVIDERS * BUCKETS);
+        for (int i = 0; i < sliceEpochs.length(); i++) {
+            sliceEpochs.set(i, RETIRED);
+        }
+    }
+
+    public void record(PaymentProvider provider, long latencyMs, long nowMillis) {
+        if (latencyMs < 0) return;
+        int p = provider.ordinal();
+        long epoch = nowMillis / SLICE_MILLIS;
+        int slice = p * slices + (int) (epoch % slices);
+        long seen = sliceEpochs.get(slice);
+        if (seen < epoch && sliceEpochs.compareAndSet(slice, seen, epoch)) {
+            drain(p, slice);
+        }
+        if (sliceEpochs.get(slice) != epoch) return;
+
+        int bucket = bucketIndex(Math.min(latencyMs, MAX_TRACKABLE_MS));
+        sliceCounts.incrementAndGet(slice * BUCKETS + bucket);
+        totals.incrementAndGet(p * BUCKETS + bucket);
+    }
+
+    public long valueAtPercentile(PaymentProvider provider, double percentile, long nowMillis) {
+        int p = provider.ordinal();
+        expire(p, nowMillis);
+
+        long count = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            count += totals.get(p * BUCKETS + b);
+        }
+        if (count == 0) return 0;
+
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+        long seen = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            seen += totals.get(p * BUCKETS + b);
+            if (seen >= rank) return highestEquivalentValue(b);
+        }
+        return highestEquivalentValue(BUCKETS - 1);
+    }
+
+    public Percentiles percentiles(PaymentProvider provider, long nowMillis) {
+        int p = provider.ordinal();
+        expire(p, nowMillis);
+
+        long count = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            count += totals.get(p * BUCKETS + b);
+        }
+        if (count == 0) return Percentiles.EMPTY;
+
+        long rank50 = Math.max(1, (long) Math.ceil(0.50 * count));
+        long rank95 = Math.max(1, (long) Math.ceil(0.95 * count));
+        long rank99 = Math.max(1, (long) Math.ceil(0.99 * count));
+        long p50 = -1;
+        long p95 = -1;
+        long seen = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            seen += totals.get(p * BUCKETS + b);
+            if (p50 < 0 && seen >= rank50) p50 = highestEquivalentValue(b);
+            if (p95 < 0 && seen >= rank95) p95 = highestEquivalentValue(b);
+            if (seen >= rank99) return new Percentiles(p50, p95, highestEquivalentValue(b));
+        }
+        long max = highestEquivalentValue(BUCKETS - 1);
+        return new Percentiles(p50 < 0 ? max : p50, p95 < 0 ? max : p95, max);
+    }
+
+    private void expire(int p, long nowMillis) {
+        long oldestLive = nowMillis / SLICE_MILLIS - slices + 1;
+        for (int s = 0; s < slices; s++) {
+            int slice = p * slices + s;
+            long seen = sliceEpochs.get(slice);
+            if (seen != RETIRED && seen < oldestLive && sliceEpochs.compareAndSet(slice, seen, RETIRED)) {
+                drain(p, slice);
+            }
+        }
+    }
+
+    private void drain(int p, int slice) {
+        for (int b = 0; b < BUCKETS; b++) {
+            long stale = sliceCounts.getAndSet(slice * BUCKETS + b, 0);
+            if (stale != 0) totals.addAndGet(p * BUCKETS + b, -stale);
+        }
+    }
+
+    static int bucketIndex(long value) {
+        if (value < LINEAR_LIMIT) return (int) value;
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return shift * SUB_BUCKET_HALF + (int) (value >>> shift);
+    }
+
+    static long highestEquivalentValue(int index) {
+        if (index < LINEAR_LIMIT) return index;
+        int shift = index / SUB_BUCKET_HALF - 1;
+        long subBucket = index % SUB_BUCKET_HALF + SUB_BUCKET_HALF;
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+    public record Percentiles(long p50, long p95, long p99) {
+        static final Percentiles EMPTY = new Percentiles(0, 0, 0);
+    }
+}
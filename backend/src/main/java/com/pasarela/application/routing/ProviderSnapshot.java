@@ -15,7 +15,9 @@ public record ProviderSnapshot(
         CircuitState circuitState,
         double successRate,
         double errorRate,
+        long p50LatencyMs,
         long p95LatencyMs,
+        long p99LatencyMs,
         Instant lastFailureAt,
         Instant updatedAt
 ) {}
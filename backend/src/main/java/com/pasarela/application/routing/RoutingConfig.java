@@ -13,7 +13,8 @@ import java.util.Map;
 public record RoutingConfig(
         String forceProvider,
         RoutingWeights weights,
-        Map<PaymentProvider, Double> costModel
+        Map<PaymentProvider, Double> costModel,
+        RoutingStrategy strategy
 ) {
     public static RoutingConfig defaults() {
         EnumMap<PaymentProvider, Double> cost = new EnumMap<>(PaymentProvider.class);
@@ -21,6 +22,6 @@ public record RoutingConfig(
         cost.put(PaymentProvider.ADYEN, 0.25);
         cost.put(PaymentProvider.MASTERCARD, 0.28);
         cost.put(PaymentProvider.PAYPAL, 0.35);
-        return new RoutingConfig("AUTO", RoutingWeights.defaults(), cost);
+        return new RoutingConfig("AUTO", RoutingWeights.defaults(), cost, RoutingStrategy.WEIGHTED_SCORE);
     }
 }
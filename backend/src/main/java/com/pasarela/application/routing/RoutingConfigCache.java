@@ -0,0 +1,66 @@
+/*
+ * Copyright (C) 2025 Pasarela Orchestrator
+ * SPDX-License-Identifier: AGPL-3.0-only
+ */
+
+package com.pasarela.application.routing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pasarela.infrastructure.persistence.entity.MerchantEntity;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compiled routing configs keyed by merchant id. Entries remember the config_json they were built from,
+ * so a merchant row changed behind the cache's back is recompiled instead of served stale.
+ */
+@Component
+public class RoutingConfigCache {
+    private final ObjectMapper objectMapper;
+    private final ConcurrentHashMap<UUID, CompiledRoutingConfig> compiled = new ConcurrentHashMap<>();
+    private final AtomicLong versions = new AtomicLong();
+
+    public RoutingConfigCache(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public CompiledRoutingConfig get(MerchantEntity merchant) {
+        String json = merchant.getConfigJson();
+        UUID merchantId = merchant.getId();
+        if (merchantId == null) return compile(json);
+
+        CompiledRoutingConfig cached = compiled.get(merchantId);
+        if (cached != null && Objects.equals(cached.sourceJson(), json)) {
+            return cached;
+        }
+        CompiledRoutingConfig fresh = compile(json);
+        compiled.put(merchantId, fresh);
+        return fresh;
+    }
+
+    public void invalidate(UUID merchantId) {
+        compiled.remove(merchantId);
+    }
+
+    public RoutingConfig read(String json) {
+        try {
+            if (json == null || json.isBlank()) return RoutingConfig.defaults();
+            RoutingConfig cfg = objectMapper.readValue(json, RoutingConfig.class);
+            if (cfg == null) return RoutingConfig.defaults();
+            if (cfg.weights() == null) cfg = new RoutingConfig(cfg.forceProvider(), RoutingWeights.defaults(), cfg.costModel(), cfg.strategy());
+            if (cfg.costModel() == null || cfg.costModel().isEmpty()) cfg = new RoutingConfig(cfg.forceProvider(), cfg.weights(), RoutingConfig.defaults().costModel(), cfg.strategy());
+            if (cfg.strategy() == null) cfg = new RoutingConfig(cfg.forceProvider(), cfg.weights(), cfg.costModel(), RoutingStrategy.WEIGHTED_SCORE);
+            return cfg;
+        } catch (Exception e) {
+            return RoutingConfig.defaults();
+        }
+    }
+
+    private CompiledRoutingConfig compile(String json) {
+        return new CompiledRoutingConfig(read(json), json, versions.incrementAndGet());
+    }
+}
@@ -0,0 +1,260 @@
+/*
+ * Copyright (C) 2025 Pasarela Orchestrator
+ * SPDX-License-Identifier: AGPL-3.0-only
+ */
+
+package com.pasarela.application.routing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pasarela.domain.model.CircuitState;
+import com.pasarela.domain.model.PaymentProvider;
+import com.pasarela.infrastructure.persistence.entity.RoutingDecisionEntity;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fixed-layout binary form of the candidate scores kept in {@code routing_decisions.candidate_scores}.
+ * Layout: version, flags, candidate count (one byte each), the five weights when flagged, then per candidate
+ * the provider and circuit state ordinals (-1 without a snapshot), seven doubles (score, cost, latency,
+ * availability, risk, success rate, error rate) and p95/p99 latency as ints. JSON is only built on read.
+ */
+@Component
+public class RoutingDecisionCodec {
+    private static final byte VERSION = 1;
+    private static final int HAS_WEIGHTS = 1;
+    private static final int HEADER_BYTES = 3;
+    private static final int WEIGHTS_BYTES = 5 * Double.BYTES;
+    private static final int CANDIDATE_BYTES = 2 + 7 * Double.BYTES + 2 * Integer.BYTES;
+    private static final PaymentProvider[] PROVIDERS = PaymentProvider.values();
+    private static final CircuitState[] CIRCUIT_STATES = CircuitState.values();
+
+    private final ObjectMapper objectMapper;
+
+    public RoutingDecisionCodec(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public static Writer writer(RoutingWeights weights, int candidates) {
+        return new Writer(weights, candidates);
+    }
+
+    public static Decoded decode(byte[] packed) {
+        Reader reader = new Reader().reset(packed);
+        List<Candidate> candidates = new ArrayList<>(reader.count());
+        for (int i = 0; i < reader.count(); i++) {
+            reader.select(i);
+            candidates.add(new Candidate(
+                    reader.provider(),
+                    reader.circuitState(),
+                    reader.score(),
+                    reader.costScore(),
+                    reader.latencyScore(),
+                    reader.availabilityScore(),
+                    reader.riskPenalty(),
+                    reader.successRate(),
+                    reader.errorRate(),
+                    reader.p95LatencyMs(),
+                    reader.p99LatencyMs()
+            ));
+        }
+        return new Decoded(reader.weights(), candidates);
+    }
+
+    public String renderJson(RoutingDecisionEntity decision) {
+        if (decision.getCandidateScoresJson() != null) return decision.getCandidateScoresJson();
+        if (decision.getCandidateScores() == null) return null;
+
+        Decoded decoded = decode(decision.getCandidateScores());
+        Map<String, Object> root = new LinkedHashMap<>();
+        if (decoded.weights() == null) root.put("mode", "DEMO");
+        root.put("currency", decision.getCurrency());
+        root.put("amountMinor", decision.getAmountMinor());
+        if (decoded.weights() != null) {
+            Map<String, Object> candidates = new HashMap<>();
+            for (Candidate c : decoded.candidates()) {
+                Map<String, Object> inputs = new HashMap<>();
+                if (c.circuitState() != null) {
+                    inputs.put("successRate", c.successRate());
+                    inputs.put("errorRate", c.errorRate());
+                    inputs.put("p95LatencyMs", c.p95LatencyMs());
+                    inputs.put("p99LatencyMs", c.p99LatencyMs());
+                    inputs.put("circuitState", c.circuitState().name());
+                }
+                inputs.put("costScore", c.costScore());
+                inputs.put("latencyScore", c.latencyScore());
+                inputs.put("availabilityScore", c.availabilityScore());
+                inputs.put("riskPenalty", c.riskPenalty());
+                candidates.put(c.provider().name(), Map.of("score", c.score(), "inputs", inputs));
+            }
+            root.put("weights", decoded.weights());
+            root.put("candidates", candidates);
+        }
+        root.put("computedAt", String.valueOf(decision.getCreatedAt()));
+
+        try {
+            return objectMapper.writeValueAsString(root);
+        } catch (Exception e) {
+            return "{\"error\":\"candidateScoresJson_failed\"}";
+        }
+    }
+
+    public static final class Writer {
+        private final ByteBuffer out;
+        private int count;
+
+        private Writer(RoutingWeights weights, int candidates) {
+            this.out = ByteBuffer.allocate(HEADER_BYTES + (weights == null ? 0 : WEIGHTS_BYTES) + candidates * CANDIDATE_BYTES);
+            out.put(VERSION);
+            out.put((byte) (weights == null ? 0 : HAS_WEIGHTS));
+            out.put((byte) 0);
+            if (weights != null) {
+                out.putDouble(weights.w1SuccessRate());
+                out.putDouble(weights.w2CostScore());
+                out.putDouble(weights.w3LatencyScore());
+                out.putDouble(weights.w4AvailabilityScore());
+                out.putDouble(weights.w5RiskPenalty());
+            }
+        }
+
+        public Writer candidate(
+                PaymentProvider provider,
+                ProviderSnapshot snapshot,
+                double score,
+                double costScore,
+                double latencyScore,
+                double availabilityScore,
+                double riskPenalty
+        ) {
+            out.put((byte) provider.ordinal());
+            out.put((byte) (snapshot == null ? -1 : snapshot.circuitState().ordinal()));
+            out.putDouble(score);
+            out.putDouble(costScore);
+            out.putDouble(latencyScore);
+            out.putDouble(availabilityScore);
+            out.putDouble(riskPenalty);
+            out.putDouble(snapshot == null ? 0 : snapshot.successRate());
+            out.putDouble(snapshot == null ? 0 : snapshot.errorRate());
+            out.putInt(snapshot == null ? 0 : (int) Math.min(snapshot.p95LatencyMs(), Integer.MAX_VALUE));
+            out.putInt(snapshot == null ? 0 : (int) Math.min(snapshot.p99LatencyMs(), Integer.MAX_VALUE));
+            count++;
+            return this;
+        }
+
+        public byte[] toBytes() {
+            out.put(2, (byte) count);
+            return out.array();
+        }
+    }
+
+    /**
+     * Reusable cursor over a packed decision; {@link #reset} and {@link #select} reposition it without decoding.
+     */
+    public static final class Reader {
+        private ByteBuffer in;
+        private int candidatesAt;
+        private int count;
+        private int at;
+
+        public Reader reset(byte[] packed) {
+            this.in = ByteBuffer.wrap(packed);
+            byte version = in.get(0);
+            if (version != VERSION) {
+                throw new IllegalStateException("Unsupported routing decision layout " + version);
+            }
+            this.count = in.get(2) & 0xff;
+            this.candidatesAt = HEADER_BYTES + (hasWeights() ? WEIGHTS_BYTES : 0);
+            this.at = candidatesAt;
+            return this;
+        }
+
+        public boolean hasWeights() {
+            return (in.get(1) & HAS_WEIGHTS) != 0;
+        }
+
+        public RoutingWeights weights() {
+            if (!hasWeights()) return null;
+            return new RoutingWeights(
+                    in.getDouble(HEADER_BYTES),
+                    in.getDouble(HEADER_BYTES + 8),
+                    in.getDouble(HEADER_BYTES + 16),
+                    in.getDouble(HEADER_BYTES + 24),
+                    in.getDouble(HEADER_BYTES + 32)
+            );
+        }
+
+        public int count() {
+            return count;
+        }
+
+        public void select(int candidate) {
+            this.at = candidatesAt + candidate * CANDIDATE_BYTES;
+        }
+
+        public PaymentProvider provider() {
+            return PROVIDERS[in.get(at)];
+        }
+
+        public CircuitState circuitState() {
+            byte state = in.get(at + 1);
+            return state < 0 ? null : CIRCUIT_STATES[state];
+        }
+
+        public double score() {
+            return in.getDouble(at + 2);
+        }
+
+        public double costScore() {
+            return in.getDouble(at + 10);
+        }
+
+        public double latencyScore() {
+            return in.getDouble(at + 18);
+        }
+
+        public double availabilityScore() {
+            return in.getDouble(at + 26);
+        }
+
+        public double riskPenalty() {
+            return in.getDouble(at + 34);
+        }
+
+        public double successRate() {
+            return in.getDouble(at + 42);
+        }
+
+        public double errorRate() {
+            return in.getDouble(at + 50);
+        }
+
+        public int p95LatencyMs() {
+            return in.getInt(at + 58);
+        }
+
+        public int p99LatencyMs() {
+            return in.getInt(at + 62);
+        }
+    }
+
+    public record Decoded(RoutingWeights weights, List<Candidate> candidates) {}
+
+    public record Candidate(
+            PaymentProvider provider,
+            CircuitState circuitState,
+            double score,
+            double costScore,
+            double latencyScore,
+            double availabilityScore,
+            double riskPenalty,
+            double successRate,
+            double errorRate,
+            int p95LatencyMs,
+            int p99LatencyMs
+    ) {}
+}
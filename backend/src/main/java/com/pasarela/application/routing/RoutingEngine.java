@@ -5,33 +5,38 @@
 
 package com.pasarela.application.routing;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.pasarela.domain.model.CircuitState;
 import com.pasarela.domain.model.PaymentProvider;
+import com.pasarela.domain.model.RoutingReasonCode;
 import com.pasarela.infrastructure.persistence.entity.MerchantEntity;
 import org.springframework.stereotype.Service;
 
 import java.nio.charset.StandardCharsets;
-import java.time.Instant;
+import java.util.ArrayList;
 import java.util.EnumMap;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
 
 @Service
 public class RoutingEngine {
-    private static final Set<String> STRIPE_CURRENCIES = Set.of("USD", "EUR", "GBP");
-    private static final Set<String> ADYEN_CURRENCIES = Set.of("USD", "EUR", "MXN");
-    private static final Set<String> PAYPAL_CURRENCIES = Set.of("USD", "EUR", "GBP");
-
     private final ProviderHealthReader providerHealthReader;
-    private final ObjectMapper objectMapper;
-
-    public RoutingEngine(ProviderHealthReader providerHealthReader, ObjectMapper objectMapper) {
+    private final RoutingConfigCache routingConfigCache;
+    private final ProviderCapabilityRegistry capabilities;
+    private final ProviderBanditStats banditStats;
+
+    public RoutingEngine(
+            ProviderHealthReader providerHealthReader,
+            RoutingConfigCache routingConfigCache,
+            ProviderCapabilityRegistry capabilities,
+            ProviderBanditStats banditStats
+    ) {
         this.providerHealthReader = providerHealthReader;
-        this.objectMapper = objectMapper;
+        this.routingConfigCache = routingConfigCache;
+        this.capabilities = capabilities;
+        this.banditStats = banditStats;
     }
 
     public RoutingResult decide(
@@ -43,8 +48,9 @@ public class RoutingEngine {
             Set<PaymentProvider> excludedProviders,
             List<PaymentProvider> candidates
     ) {
-        String cur = currency == null ? "" : currency.toUpperCase();
-        RoutingConfig merchantConfig = parseConfig(merchant.getConfigJson());
+        String cur = capabilities.canonicalCurrency(currency);
+        long eligible = capabilities.eligible(cur, amountMinor, null);
+        CompiledRoutingConfig merchantConfig = routingConfigCache.get(merchant);
 
         List<PaymentProvider> baseCandidates = (candidates == null || candidates.isEmpty())
                 ? List.of(PaymentProvider.STRIPE, PaymentProvider.ADYEN, PaymentProvider.MASTERCARD)
@@ -52,22 +58,23 @@ public class RoutingEngine {
 
         if (preference != null && preference != ProviderPreference.AUTO) {
             PaymentProvider chosen = preference.toProvider();
-            ensureHardConstraints(chosen, cur);
-            return buildResult(paymentIntentId, amountMinor, cur, merchantConfig, chosen, "EXPLICIT_PREFERENCE", baseCandidates);
+            ensureHardConstraints(chosen, eligible, cur, amountMinor);
+            return buildResult(paymentIntentId, amountMinor, eligible, merchantConfig, chosen, RoutingReasonCode.EXPLICIT_PREFERENCE, baseCandidates);
         }
 
         if (preference == null || preference == ProviderPreference.AUTO) {
-            if (merchantConfig.forceProvider() != null && !"AUTO".equalsIgnoreCase(merchantConfig.forceProvider())) {
-                PaymentProvider forced = PaymentProvider.valueOf(merchantConfig.forceProvider().toUpperCase());
-                ensureHardConstraints(forced, cur);
-                return buildResult(paymentIntentId, amountMinor, cur, merchantConfig, forced, "MERCHANT_FORCE_PROVIDER", baseCandidates);
+            if (merchantConfig.forcesProvider()) {
+                PaymentProvider forced = merchantConfig.forcedProvider();
+                ensureHardConstraints(forced, eligible, cur, amountMinor);
+                return buildResult(paymentIntentId, amountMinor, eligible, merchantConfig, forced, RoutingReasonCode.MERCHANT_FORCE_PROVIDER, baseCandidates);
             }
         }
 
-        List<PaymentProvider> candidatesFiltered = baseCandidates.stream()
-                .filter(p -> excludedProviders == null || !excludedProviders.contains(p))
-                .filter(p -> supportsCurrency(p, cur))
-                .toList();
+        long allowed = eligible & ~ProviderCapabilityRegistry.mask(excludedProviders);
+        List<PaymentProvider> candidatesFiltered = new ArrayList<>(baseCandidates.size());
+        for (PaymentProvider p : baseCandidates) {
+            if ((allowed & ProviderCapabilityRegistry.bit(p)) != 0) candidatesFiltered.add(p);
+        }
 
         if (candidatesFiltered.isEmpty()) {
             throw new IllegalArgumentException("No provider supports currency " + cur);
@@ -88,22 +95,24 @@ public class RoutingEngine {
             breakdowns.put(provider, score(provider, amountMinor, merchantConfig, snapshots.get(provider)));
         }
 
-        PaymentProvider chosen = chooseBest(paymentIntentId, effectiveCandidates, breakdowns);
+        PaymentProvider chosen = merchantConfig.bandit()
+                ? sampleArm(effectiveCandidates, cur)
+                : chooseBest(paymentIntentId, effectiveCandidates, breakdowns);
 
-        String reason = nonOpen.isEmpty()
-                ? "HEALTH_DEGRADED_NO_ALTERNATIVE"
-                : "WEIGHTED_SCORE";
+        RoutingReasonCode reason = nonOpen.isEmpty()
+                ? RoutingReasonCode.HEALTH_DEGRADED_NO_ALTERNATIVE
+                : merchantConfig.bandit() ? RoutingReasonCode.BANDIT : RoutingReasonCode.WEIGHTED_SCORE;
 
-        return toResult(chosen, reason, breakdowns, snapshots, merchantConfig, amountMinor, cur);
+        return toResult(chosen, reason, breakdowns, snapshots, merchantConfig);
     }
 
     private RoutingResult buildResult(
             UUID paymentIntentId,
             long amountMinor,
-            String currency,
-            RoutingConfig cfg,
+            long eligible,
+            CompiledRoutingConfig cfg,
             PaymentProvider chosen,
-            String reason,
+            RoutingReasonCode reason,
             List<PaymentProvider> candidates
     ) {
         List<PaymentProvider> baseCandidates = (candidates == null || candidates.isEmpty())
@@ -116,58 +125,32 @@ public class RoutingEngine {
 
         EnumMap<PaymentProvider, ScoreBreakdown> breakdowns = new EnumMap<>(PaymentProvider.class);
         for (PaymentProvider p : baseCandidates) {
-            if (supportsCurrency(p, currency)) breakdowns.put(p, score(p, amountMinor, cfg, snapshots.get(p)));
+            if ((eligible & ProviderCapabilityRegistry.bit(p)) != 0) breakdowns.put(p, score(p, amountMinor, cfg, snapshots.get(p)));
         }
-        return toResult(chosen, reason, breakdowns, snapshots, cfg, amountMinor, currency);
+        return toResult(chosen, reason, breakdowns, snapshots, cfg);
     }
 
     private RoutingResult toResult(
             PaymentProvider chosen,
-            String reasonCode,
+            RoutingReasonCode reasonCode,
             Map<PaymentProvider, ScoreBreakdown> breakdowns,
             Map<PaymentProvider, ProviderSnapshot> snapshots,
-            RoutingConfig cfg,
-            long amountMinor,
-            String currency
+            CompiledRoutingConfig cfg
     ) {
-        Map<String, Object> candidateScores = new HashMap<>();
+        RoutingDecisionCodec.Writer scores = RoutingDecisionCodec.writer(cfg.config().weights(), breakdowns.size());
         for (Map.Entry<PaymentProvider, ScoreBreakdown> entry : breakdowns.entrySet()) {
-            PaymentProvider p = entry.getKey();
             ScoreBreakdown b = entry.getValue();
-            ProviderSnapshot snap = snapshots.get(p);
-
-            Map<String, Object> inputs = new HashMap<>();
-            if (snap != null) {
-                inputs.put("successRate", snap.successRate());
-                inputs.put("errorRate", snap.errorRate());
-                inputs.put("p95LatencyMs", snap.p95LatencyMs());
-                inputs.put("circuitState", snap.circuitState().name());
-            }
-            inputs.put("costScore", b.costScore());
-            inputs.put("latencyScore", b.latencyScore());
-            inputs.put("availabilityScore", b.availabilityScore());
-            inputs.put("riskPenalty", b.riskPenalty());
-
-            candidateScores.put(p.name(), Map.of(
-                    "score", b.totalScore(),
-                    "inputs", inputs
-            ));
-        }
-
-        String json;
-        try {
-            json = objectMapper.writeValueAsString(Map.of(
-                    "currency", currency,
-                    "amountMinor", amountMinor,
-                    "weights", cfg.weights(),
-                    "candidates", candidateScores,
-                    "computedAt", Instant.now().toString()
-            ));
-        } catch (Exception e) {
-            json = "{\"error\":\"candidateScoresJson_failed\"}";
+            scores.candidate(
+                    entry.getKey(),
+                    snapshots.get(entry.getKey()),
+                    b.totalScore(),
+                    b.costScore(),
+                    b.latencyScore(),
+                    b.availabilityScore(),
+                    b.riskPenalty()
+            );
         }
-
-        return new RoutingResult(chosen, reasonCode, json);
+        return new RoutingResult(chosen, reasonCode, scores.toBytes());
     }
 
     private PaymentProvider chooseBest(UUID paymentIntentId, List<PaymentProvider> candidates, Map<PaymentProvider, ScoreBreakdown> breakdowns) {
@@ -193,11 +176,28 @@ public class RoutingEngine {
         return best;
     }
 
-    private ScoreBreakdown score(PaymentProvider provider, long amountMinor, RoutingConfig cfg, ProviderSnapshot snapshot) {
-        RoutingWeights w = cfg.weights() == null ? RoutingWeights.defaults() : cfg.weights();
+    /**
+     * Thompson sampling over the per-currency payment outcomes; the weighted breakdowns are still recorded
+     * alongside so decisions stay comparable in replay.
+     */
+    private PaymentProvider sampleArm(List<PaymentProvider> candidates, String currency) {
+        if (candidates.size() == 1) return candidates.getFirst();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        PaymentProvider best = null;
+        double bestDraw = -1;
+        for (PaymentProvider p : candidates) {
+            double draw = banditStats.sample(p, currency, random);
+            if (draw > bestDraw) {
+                best = p;
+                bestDraw = draw;
+            }
+        }
+        return best;
+    }
 
+    private ScoreBreakdown score(PaymentProvider provider, long amountMinor, CompiledRoutingConfig cfg, ProviderSnapshot snapshot) {
         double successRate = snapshot == null ? 0 : clamp01(snapshot.successRate());
-        double costScore = clamp01(cfg.costModel().getOrDefault(provider, 0.3));
+        double costScore = cfg.cost(provider);
         double latencyScore = snapshot == null ? 0 : clamp01(snapshot.p95LatencyMs() / 2000.0);
         double availabilityScore = snapshot == null ? 1 : switch (snapshot.circuitState()) {
             case CLOSED -> 1.0;
@@ -206,52 +206,41 @@ public class RoutingEngine {
         };
         double riskPenalty = amountMinor >= 200_00 ? 0.25 : (amountMinor >= 1_000_00 ? 0.10 : 0.0);
 
-        double score =
-                (w.w1SuccessRate() * successRate)
-                        - (w.w2CostScore() * costScore)
-                        - (w.w3LatencyScore() * latencyScore)
-                        + (w.w4AvailabilityScore() * availabilityScore)
-                        - (w.w5RiskPenalty() * riskPenalty);
-
+        double score = weightedScore(cfg, successRate, costScore, latencyScore, availabilityScore, riskPenalty);
         return new ScoreBreakdown(score, costScore, latencyScore, availabilityScore, riskPenalty);
     }
 
-    private RoutingConfig parseConfig(String json) {
-        try {
-            if (json == null || json.isBlank()) return RoutingConfig.defaults();
-            RoutingConfig cfg = objectMapper.readValue(json, RoutingConfig.class);
-            if (cfg == null) return RoutingConfig.defaults();
-            if (cfg.weights() == null) cfg = new RoutingConfig(cfg.forceProvider(), RoutingWeights.defaults(), cfg.costModel());
-            if (cfg.costModel() == null || cfg.costModel().isEmpty()) cfg = new RoutingConfig(cfg.forceProvider(), cfg.weights(), RoutingConfig.defaults().costModel());
-            return cfg;
-        } catch (Exception e) {
-            return RoutingConfig.defaults();
-        }
+    static double weightedScore(
+            CompiledRoutingConfig cfg,
+            double successRate,
+            double costScore,
+            double latencyScore,
+            double availabilityScore,
+            double riskPenalty
+    ) {
+        return (cfg.w1SuccessRate * successRate)
+                - (cfg.w2CostScore * costScore)
+                - (cfg.w3LatencyScore * latencyScore)
+                + (cfg.w4AvailabilityScore * availabilityScore)
+                - (cfg.w5RiskPenalty * riskPenalty);
     }
 
-    private void ensureHardConstraints(PaymentProvider provider, String currency) {
-        if (!supportsCurrency(provider, currency)) {
+    private void ensureHardConstraints(PaymentProvider provider, long eligible, String currency, long amountMinor) {
+        long bit = ProviderCapabilityRegistry.bit(provider);
+        if ((eligible & bit) != 0) return;
+        if ((capabilities.currencyMask(currency) & bit) == 0) {
             throw new IllegalArgumentException("Provider " + provider + " does not support currency " + currency);
         }
+        throw new IllegalArgumentException("Provider " + provider + " does not support amount " + amountMinor + " " + currency);
     }
 
-    private boolean supportsCurrency(PaymentProvider provider, String currency) {
-        return switch (provider) {
-            case STRIPE -> STRIPE_CURRENCIES.contains(currency);
-            case ADYEN -> ADYEN_CURRENCIES.contains(currency);
-            case MASTERCARD -> true;
-            case PAYPAL -> PAYPAL_CURRENCIES.contains(currency);
-            case DEMO -> false;
-        };
-    }
-
-    private static double clamp01(double v) {
+    static double clamp01(double v) {
         if (v < 0) return 0;
         if (v > 1) return 1;
         return v;
     }
 
-    private static int fnv1a32(String s) {
+    static int fnv1a32(String s) {
         final int FNV_PRIME = 0x01000193;
         int hash = 0x811c9dc5;
         for (byte b : s.getBytes(StandardCharsets.UTF_8)) {
@@ -271,7 +260,7 @@ public class RoutingEngine {
 
     public record RoutingResult(
             PaymentProvider chosenProvider,
-            String reasonCode,
-            String candidateScoresJson
+            RoutingReasonCode reasonCode,
+            byte[] candidateScores
     ) {}
 }
@@ -0,0 +1,355 @@
+/*
+ * Copyright (C) 2025 Pasarela Orchestrator
+ * SPDX-License-Identifier: AGPL-3.0-only
+ */
+
+package com.pasarela.application.routing;
+
+import com.pasarela.domain.model.PaymentProvider;
+import com.pasarela.domain.model.RoutingReasonCode;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.PreparedStatement;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * What-if replay of historical routing decisions under candidate weights and cost model. Rows are streamed
+ * from {@code routing_decisions} in fixed-size batches; each batch is re-scored on a fork-join pool from the
+ * health inputs packed with the decision and folded into per-provider counters, so only a bounded number of
+ * batches is ever in memory.
+ */
+@Service
+public class RoutingReplayService {
+    static final int BATCH_SIZE = 4096;
+    private static final int SPLIT_THRESHOLD = 512;
+    private static final int FETCH_SIZE = 1000;
+    private static final PaymentProvider[] PROVIDERS = PaymentProvider.values();
+    private static final RoutingReasonCode[] REASONS = RoutingReasonCode.values();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public RoutingReplayService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public SimulationReport simulate(SimulationRequest request) {
+        long startedAt = System.nanoTime();
+        RoutingConfig candidate = new RoutingConfig(
+                "AUTO",
+                request.weights() == null ? RoutingWeights.defaults() : request.weights(),
+                request.costModel() == null || request.costModel().isEmpty() ? RoutingConfig.defaults().costModel() : request.costModel(),
+                RoutingStrategy.WEIGHTED_SCORE
+        );
+        CompiledRoutingConfig cfg = new CompiledRoutingConfig(candidate, null, 0);
+        boolean overrideCost = request.costModel() != null && !request.costModel().isEmpty();
+
+        StringBuilder sql = new StringBuilder("""
+                select payment_intent_id, chosen_provider, reason_code, candidate_scores
+                from routing_decisions
+                where 1 = 1
+                """);
+        List<Object> args = new ArrayList<>();
+        if (request.from() != null) {
+            sql.append(" and created_at >= ?");
+            args.add(request.from().toEpochMilli());
+        }
+        if (request.to() != null) {
+            sql.append(" and created_at <= ?");
+            args.add(request.to().toEpochMilli());
+        }
+        if (request.merchantId() != null) {
+            sql.append(" and merchant_id = ?");
+            args.add(request.merchantId().toString());
+        }
+
+        int parallelism = Math.max(1, Runtime.getRuntime().availableProcessors());
+        int maxInFlight = parallelism * 2;
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        Aggregate total = new Aggregate();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        try (ForkJoinPool pool = new ForkJoinPool(parallelism)) {
+            Batch[] current = {new Batch(BATCH_SIZE)};
+            Runnable submit = () -> {
+                Batch batch = current[0];
+                current[0] = new Batch(BATCH_SIZE);
+                inFlight.acquireUninterruptibly();
+                pool.execute(() -> {
+                    try {
+                        Aggregate partial = new ReplayTask(batch, 0, batch.size, cfg, overrideCost).invoke();
+                        synchronized (total) {
+                            total.merge(partial);
+                        }
+                    } catch (Throwable t) {
+                        failure.compareAndSet(null, t);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            };
+
+            jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(sql.toString());
+                ps.setFetchSize(FETCH_SIZE);
+                for (int i = 0; i < args.size(); i++) {
+                    ps.setObject(i + 1, args.get(i));
+                }
+                return ps;
+            }, rs -> {
+                current[0].add(
+                        rs.getString(1),
+                        PaymentProvider.valueOf(rs.getString(2)),
+                        RoutingReasonCode.valueOf(rs.getString(3)),
+                        rs.getBytes(4)
+                );
+                if (current[0].size == BATCH_SIZE) submit.run();
+            });
+            if (current[0].size > 0) submit.run();
+            inFlight.acquireUninterruptibly(maxInFlight);
+        }
+        if (failure.get() != null) {
+            throw new IllegalStateException("Routing replay failed", failure.get());
+        }
+
+        synchronized (total) {
+            return total.report((System.nanoTime() - startedAt) / 1_000_000);
+        }
+    }
+
+    static Aggregate replay(Batch batch, CompiledRoutingConfig cfg, boolean overrideCost) {
+        return new ReplayTask(batch, 0, batch.size, cfg, overrideCost).invoke();
+    }
+
+    private static boolean rescorable(RoutingReasonCode reason) {
+        return reason == RoutingReasonCode.WEIGHTED_SCORE
+                || reason == RoutingReasonCode.HEALTH_DEGRADED_NO_ALTERNATIVE
+                || reason == RoutingReasonCode.INSTANT_FALLBACK
+                || reason == RoutingReasonCode.HEDGED;
+    }
+
+    static final class Batch {
+        final String[] paymentIntentIds;
+        final byte[] chosen;
+        final byte[] reasons;
+        final byte[][] scores;
+        int size;
+
+        Batch(int capacity) {
+            this.paymentIntentIds = new String[capacity];
+            this.chosen = new byte[capacity];
+            this.reasons = new byte[capacity];
+            this.scores = new byte[capacity][];
+        }
+
+        void add(String paymentIntentId, PaymentProvider chosenProvider, RoutingReasonCode reason, byte[] candidateScores) {
+            paymentIntentIds[size] = paymentIntentId;
+            chosen[size] = (byte) chosenProvider.ordinal();
+            reasons[size] = (byte) reason.ordinal();
+            scores[size] = candidateScores;
+            size++;
+        }
+    }
+
+    private static final class ReplayTask extends RecursiveTask<Aggregate> {
+        private final Batch batch;
+        private final int from;
+        private final int to;
+        private final CompiledRoutingConfig cfg;
+        private final boolean overrideCost;
+
+        ReplayTask(Batch batch, int from, int to, CompiledRoutingConfig cfg, boolean overrideCost) {
+            this.batch = batch;
+            this.from = from;
+            this.to = to;
+            this.cfg = cfg;
+            this.overrideCost = overrideCost;
+        }
+
+        @Override
+        protected Aggregate compute() {
+            if (to - from > SPLIT_THRESHOLD) {
+                int mid = (from + to) >>> 1;
+                ReplayTask left = new ReplayTask(batch, from, mid, cfg, overrideCost);
+                left.fork();
+                Aggregate right = new ReplayTask(batch, mid, to, cfg, overrideCost).compute();
+                right.merge(left.join());
+                return right;
+            }
+
+            Aggregate agg = new Aggregate();
+            RoutingDecisionCodec.Reader reader = new RoutingDecisionCodec.Reader();
+            double[] scores = new double[256];
+            for (int i = from; i < to; i++) {
+                int baseline = batch.chosen[i];
+                byte[] packed = batch.scores[i];
+                agg.decisions++;
+                if (packed == null) {
+                    // Decisions recorded before the packed layout only carry JSON.
+                    agg.skipped++;
+                    agg.baseline[baseline]++;
+                    agg.simulated[baseline]++;
+                    continue;
+                }
+
+                reader.reset(packed);
+                int n = reader.count();
+                int baselineAt = -1;
+                boolean rescore = rescorable(REASONS[batch.reasons[i]]) && n > 0;
+                for (int c = 0; c < n; c++) {
+                    reader.select(c);
+                    if (reader.provider().ordinal() == baseline) baselineAt = c;
+                    if (!rescore) continue;
+                    scores[c] = RoutingEngine.weightedScore(
+                            cfg,
+                            RoutingEngine.clamp01(reader.successRate()),
+                            overrideCost ? cfg.cost(reader.provider()) : reader.costScore(),
+                            reader.latencyScore(),
+                            reader.availabilityScore(),
+                            reader.riskPenalty()
+                    );
+                }
+                int bestAt = rescore ? chooseBest(scores, n, batch.paymentIntentIds[i]) : -1;
+
+                int simulatedAt = rescore ? bestAt : baselineAt;
+                reader.select(simulatedAt < 0 ? 0 : simulatedAt);
+                int simulated = simulatedAt < 0 ? baseline : reader.provider().ordinal();
+                agg.baseline[baseline]++;
+                agg.simulated[simulated]++;
+                if (simulated != baseline) agg.changed++;
+                if (rescore) agg.rescored++;
+
+                if (baselineAt >= 0 && simulatedAt >= 0) {
+                    agg.compared++;
+                    reader.select(baselineAt);
+                    agg.baselineSuccess += RoutingEngine.clamp01(reader.successRate());
+                    agg.baselineCost += overrideCost ? cfg.cost(reader.provider()) : reader.costScore();
+                    reader.select(simulatedAt);
+                    agg.simulatedSuccess += RoutingEngine.clamp01(reader.successRate());
+                    agg.simulatedCost += overrideCost ? cfg.cost(reader.provider()) : reader.costScore();
+                }
+            }
+            return agg;
+        }
+    }
+
+    /**
+     * Same rule as {@code RoutingEngine.chooseBest}: highest score, FNV bucket over the candidates on a tie.
+     */
+    private static int chooseBest(double[] scores, int n, String paymentIntentId) {
+        int best = 0;
+        for (int c = 1; c < n; c++) {
+            if (scores[c] > scores[best]) best = c;
+        }
+        for (int c = 0; c < n; c++) {
+            if (c != best && Math.abs(scores[c] - scores[best]) < 1e-6) {
+                return Math.floorMod(RoutingEngine.fnv1a32(paymentIntentId), n);
+            }
+        }
+        return best;
+    }
+
+    static final class Aggregate {
+        final long[] baseline = new long[PROVIDERS.length];
+        final long[] simulated = new long[PROVIDERS.length];
+        long decisions;
+        long rescored;
+        long changed;
+        long skipped;
+        long compared;
+        double baselineSuccess;
+        double simulatedSuccess;
+        double baselineCost;
+        double simulatedCost;
+
+        void merge(Aggregate other) {
+            for (int p = 0; p < PROVIDERS.length; p++) {
+                baseline[p] += other.baseline[p];
+                simulated[p] += other.simulated[p];
+            }
+            decisions += other.decisions;
+            rescored += other.rescored;
+            changed += other.changed;
+            skipped += other.skipped;
+            compared += other.compared;
+            baselineSuccess += other.baselineSuccess;
+            simulatedSuccess += other.simulatedSuccess;
+            baselineCost += other.baselineCost;
+            simulatedCost += other.simulatedCost;
+        }
+
+        SimulationReport report(long elapsedMs) {
+            List<ProviderShift> providers = new ArrayList<>();
+            for (PaymentProvider provider : PROVIDERS) {
+                long before = baseline[provider.ordinal()];
+                long after = simulated[provider.ordinal()];
+                if (before == 0 && after == 0) continue;
+                double beforeShare = share(before, decisions);
+                double afterShare = share(after, decisions);
+                providers.add(new ProviderShift(provider, before, after, beforeShare, afterShare, afterShare - beforeShare));
+            }
+            double baselineSuccessRate = share(baselineSuccess, compared);
+            double simulatedSuccessRate = share(simulatedSuccess, compared);
+            double baselineCostScore = share(baselineCost, compared);
+            double simulatedCostScore = share(simulatedCost, compared);
+            return new SimulationReport(
+                    decisions,
+                    rescored,
+                    changed,
+                    skipped,
+                    providers,
+                    baselineSuccessRate,
+                    simulatedSuccessRate,
+                    simulatedSuccessRate - baselineSuccessRate,
+                    baselineCostScore,
+                    simulatedCostScore,
+                    simulatedCostScore - baselineCostScore,
+                    elapsedMs
+            );
+        }
+
+        private static double share(double part, long total) {
+            return total == 0 ? 0 : part / total;
+        }
+    }
+
+    public record SimulationRequest(
+            Instant from,
+            Instant to,
+            UUID merchantId,
+            RoutingWeights weights,
+            Map<PaymentProvider, Double> costModel
+    ) {}
+
+    public record ProviderShift(
+            PaymentProvider provider,
+            long baselineDecisions,
+            long simulatedDecisions,
+            double baselineShare,
+            double simulatedShare,
+            double shareDelta
+    ) {}
+
+    public record SimulationReport(
+            long decisions,
+            long rescored,
+            long changed,
+            long skipped,
+            List<ProviderShift> providers,
+            double baselineSuccessRate,
+            double simulatedSuccessRate,
+            double successRateDelta,
+            double baselineCostScore,
+            double simulatedCostScore,
+            double costScoreDelta,
+            long elapsedMs
+    ) {}
+}
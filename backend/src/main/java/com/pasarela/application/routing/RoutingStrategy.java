@@ -0,0 +1,11 @@
+/*
+ * Copyright (C) 2025 Pasarela Orchestrator
+ * SPDX-License-Identifier: AGPL-3.0-only
+ */
+
+package com.pasarela.application.routing;
+
+public enum RoutingStrategy {
+    WEIGHTED_SCORE,
+    BANDIT
+}
@@ -5,14 +5,19 @@
 
 package com.pasarela.config;
 
+import com.pasarela.domain.model.PaymentProvider;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.util.List;
+import java.util.Map;
+
 @ConfigurationProperties(prefix = "app")
 public record AppProperties(
         Frontend frontend,
         Jwt jwt,
         Crypto crypto,
-        Providers providers
+        Providers providers,
+        Routing routing
 ) {
     public record Frontend(String baseUrl) {}
 
@@ -20,6 +25,17 @@ public record AppProperties(
 
     public record Crypto(String encryptionKeyBase64) {}
 
+    public record Routing(Map<PaymentProvider, Capability> capabilities, Hedging hedging) {
+        public record Capability(
+                List<String> currencies,
+                Long minAmountMinor,
+                Long maxAmountMinor,
+                List<String> paymentMethods
+        ) {}
+
+        public record Hedging(boolean enabled, Long minDelayMs, Long defaultDelayMs) {}
+    }
+
     public record Providers(Stripe stripe, Adyen adyen, Mastercard mastercard) {
         public record Stripe(String secretKey, String publishableKey, String webhookSecret) {}
 
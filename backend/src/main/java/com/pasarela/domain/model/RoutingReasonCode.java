@@ -0,0 +1,17 @@
+/*
+ * Copyright (C) 2025 Pasarela Orchestrator
+ * SPDX-License-Identifier: AGPL-3.0-only
+ */
+
+package com.pasarela.domain.model;
+
+public enum RoutingReasonCode {
+    EXPLICIT_PREFERENCE,
+    MERCHANT_FORCE_PROVIDER,
+    WEIGHTED_SCORE,
+    HEALTH_DEGRADED_NO_ALTERNATIVE,
+    INSTANT_FALLBACK,
+    HEDGED,
+    DEMO_MODE,
+    BANDIT
+}
@@ -7,5 +7,11 @@ package com.pasarela.domain.security;
 
 import java.util.UUID;
 
-public record MerchantPrincipal(UUID merchantId, String name) {}
-
+/**
+ * {@code configJson} is the merchant's routing config as of authentication, or null when only the id is known.
+ */
+public record MerchantPrincipal(UUID merchantId, String name, String configJson) {
+    public MerchantPrincipal(UUID merchantId, String name) {
+        this(merchantId, name, null);
+    }
+}
@@ -12,7 +12,7 @@ import com.pasarela.infrastructure.persistence.entity.PaymentIntentPrivateDataEn
 import com.pasarela.infrastructure.persistence.repository.PaymentIntentPrivateDataRepository;
 import org.springframework.stereotype.Service;
 
-import java.nio.charset.StandardCharsets;
+import java.nio.ByteBuffer;
 import java.time.Instant;
 import java.util.Map;
 import java.util.Optional;
@@ -58,8 +58,8 @@ public class CheckoutConfigStore {
     public Optional<Map<String, Object>> get(UUID paymentIntentId) {
         return privateDataRepository.findById(paymentIntentId).map(entity -> {
             try {
-                byte[] json = crypto.decryptToBytes(entity.getCheckoutConfigEnc());
-                return objectMapper.readValue(new String(json, StandardCharsets.UTF_8), MAP);
+                ByteBuffer json = crypto.decrypt(entity.getCheckoutConfigEnc());
+                return objectMapper.readValue(json.array(), json.arrayOffset() + json.position(), json.remaining(), MAP);
             } catch (Exception e) {
                 throw new IllegalStateException("checkout config decrypt failed", e);
             }
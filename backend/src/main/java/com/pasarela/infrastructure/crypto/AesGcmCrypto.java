@@ -9,60 +9,141 @@ import javax.crypto.Cipher;
 import javax.crypto.SecretKey;
 import javax.crypto.spec.GCMParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.security.SecureRandom;
 import java.util.Base64;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
+/**
+ * Tokens are {@code v1:<nonce>:<ciphertext>} in unpadded URL-safe Base64. Ciphers are pooled rather than
+ * thread-local because callers run on virtual threads, which would each get a fresh one. Nonces follow the
+ * deterministic GCM construction: a random fixed field per instance followed by a counter that starts at a random
+ * value, so generating one is a single atomic increment instead of a shared {@link SecureRandom} call.
+ */
 public class AesGcmCrypto {
-    private static final String PREFIX = "v1";
+    private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+    private static final byte[] PREFIX = "v1:".getBytes(StandardCharsets.US_ASCII);
+    private static final byte SEPARATOR = ':';
     private static final int NONCE_BYTES = 12;
     private static final int TAG_BITS = 128;
+    private static final int MAX_IDLE_CIPHERS = 64;
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
 
     private final SecretKey key;
-    private final SecureRandom secureRandom = new SecureRandom();
+    private final int nonceFixedField;
+    private final AtomicLong nonceCounter;
+    private final ConcurrentLinkedQueue<Cipher> idleCiphers = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger idleCount = new AtomicInteger();
 
     public AesGcmCrypto(byte[] rawKey32) {
         if (rawKey32 == null || rawKey32.length != 32) {
             throw new IllegalArgumentException("APP_ENCRYPTION_KEY_BASE64 must decode to 32 bytes");
         }
         this.key = new SecretKeySpec(rawKey32, "AES");
+        SecureRandom seed = new SecureRandom();
+        this.nonceFixedField = seed.nextInt();
+        this.nonceCounter = new AtomicLong(seed.nextLong());
     }
 
     public String encryptToString(byte[] plaintext) {
-        try {
-            byte[] nonce = new byte[NONCE_BYTES];
-            secureRandom.nextBytes(nonce);
+        return encryptToString(ByteBuffer.wrap(plaintext));
+    }
 
-            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+    public String encryptToString(ByteBuffer plaintext) {
+        Cipher cipher = null;
+        try {
+            byte[] nonce = nextNonce();
+            cipher = borrow();
             cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, nonce));
-            byte[] ciphertext = cipher.doFinal(plaintext);
-
-            return String.join(
-                    ":",
-                    PREFIX,
-                    Base64.getUrlEncoder().withoutPadding().encodeToString(nonce),
-                    Base64.getUrlEncoder().withoutPadding().encodeToString(ciphertext)
-            );
+            ByteBuffer ciphertext = ByteBuffer.allocate(cipher.getOutputSize(plaintext.remaining()));
+            cipher.doFinal(plaintext, ciphertext);
+            release(cipher);
+
+            byte[] encodedNonce = ENCODER.encode(nonce);
+            byte[] encodedCiphertext = ENCODER.encode(ciphertext.flip()).array();
+            byte[] token = new byte[PREFIX.length + encodedNonce.length + 1 + encodedCiphertext.length];
+            System.arraycopy(PREFIX, 0, token, 0, PREFIX.length);
+            System.arraycopy(encodedNonce, 0, token, PREFIX.length, encodedNonce.length);
+            token[PREFIX.length + encodedNonce.length] = SEPARATOR;
+            System.arraycopy(encodedCiphertext, 0, token, PREFIX.length + encodedNonce.length + 1, encodedCiphertext.length);
+            return new String(token, StandardCharsets.US_ASCII);
         } catch (Exception e) {
             throw new IllegalStateException("encrypt failed", e);
         }
     }
 
     public byte[] decryptToBytes(String token) {
+        ByteBuffer plaintext = decrypt(token);
+        byte[] out = new byte[plaintext.remaining()];
+        plaintext.get(out);
+        return out;
+    }
+
+    /**
+     * Decrypts in place over the decoded ciphertext; the returned heap buffer holds the plaintext between its
+     * position and limit.
+     */
+    public ByteBuffer decrypt(String token) {
         try {
             if (token == null) throw new IllegalArgumentException("token is null");
-            String[] parts = token.split(":");
-            if (parts.length != 3 || !PREFIX.equals(parts[0])) {
+            byte[] ascii = token.getBytes(StandardCharsets.US_ASCII);
+            int nonceEnd = indexOf(ascii, SEPARATOR, PREFIX.length);
+            if (!startsWithPrefix(ascii) || nonceEnd < 0 || indexOf(ascii, SEPARATOR, nonceEnd + 1) >= 0) {
                 throw new IllegalArgumentException("unsupported token format");
             }
-            byte[] nonce = Base64.getUrlDecoder().decode(parts[1]);
-            byte[] ciphertext = Base64.getUrlDecoder().decode(parts[2]);
+            ByteBuffer nonce = DECODER.decode(ByteBuffer.wrap(ascii, PREFIX.length, nonceEnd - PREFIX.length));
+            ByteBuffer ciphertext = DECODER.decode(ByteBuffer.wrap(ascii, nonceEnd + 1, ascii.length - nonceEnd - 1));
 
-            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
-            cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, nonce));
-            return cipher.doFinal(ciphertext);
+            Cipher cipher = borrow();
+            cipher.init(Cipher.DECRYPT_MODE, key,
+                    new GCMParameterSpec(TAG_BITS, nonce.array(), nonce.arrayOffset() + nonce.position(), nonce.remaining()));
+            byte[] buffer = ciphertext.array();
+            int offset = ciphertext.arrayOffset() + ciphertext.position();
+            int length = cipher.doFinal(buffer, offset, ciphertext.remaining(), buffer, offset);
+            release(cipher);
+            return ByteBuffer.wrap(buffer, offset, length);
         } catch (Exception e) {
             throw new IllegalStateException("decrypt failed", e);
         }
     }
-}
 
+    private byte[] nextNonce() {
+        long counter = nonceCounter.getAndIncrement();
+        return ByteBuffer.allocate(NONCE_BYTES).putInt(nonceFixedField).putLong(counter).array();
+    }
+
+    private Cipher borrow() throws Exception {
+        Cipher cipher = idleCiphers.poll();
+        if (cipher == null) return Cipher.getInstance(TRANSFORMATION);
+        idleCount.decrementAndGet();
+        return cipher;
+    }
+
+    // Ciphers that threw are dropped rather than returned, so a half-initialised one is never reused.
+    private void release(Cipher cipher) {
+        if (idleCount.incrementAndGet() > MAX_IDLE_CIPHERS) {
+            idleCount.decrementAndGet();
+            return;
+        }
+        idleCiphers.offer(cipher);
+    }
+
+    private static boolean startsWithPrefix(byte[] ascii) {
+        if (ascii.length < PREFIX.length) return false;
+        for (int i = 0; i < PREFIX.length; i++) {
+            if (ascii[i] != PREFIX[i]) return false;
+        }
+        return true;
+    }
+
+    private static int indexOf(byte[] bytes, byte value, int from) {
+        for (int i = from; i < bytes.length; i++) {
+            if (bytes[i] == value) return i;
+        }
+        return -1;
+    }
+}
@@ -5,29 +5,133 @@
 
 package com.pasarela.infrastructure.crypto;
 
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Lower-case hex SHA-256. Each call borrows a {@link Hasher} (a digest plus scratch buffers) that stays confined to
+ * the calling thread until it is closed; they are pooled rather than thread-local because most callers run on
+ * virtual threads. Strings are UTF-8 encoded through the scratch buffer, so a large webhook payload is hashed
+ * without first being copied into a {@code byte[]}.
+ */
 public final class Sha256 {
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    private static final int DIGEST_BYTES = 32;
+    private static final int CHUNK_CHARS = 2048;
+    private static final int MAX_IDLE_HASHERS = 64;
+    private static final ConcurrentLinkedQueue<Hasher> IDLE = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger IDLE_COUNT = new AtomicInteger();
+
     private Sha256() {}
 
     public static String hex(String input) {
-        try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] hashed = digest.digest(input.getBytes(StandardCharsets.UTF_8));
-            return toHex(hashed);
-        } catch (Exception e) {
-            throw new IllegalStateException("sha-256 unavailable", e);
+        try (Hasher hasher = hasher()) {
+            return hasher.update(input).hex();
         }
     }
 
-    private static String toHex(byte[] bytes) {
-        StringBuilder sb = new StringBuilder(bytes.length * 2);
-        for (byte b : bytes) {
-            sb.append(Character.forDigit((b >> 4) & 0xF, 16));
-            sb.append(Character.forDigit(b & 0xF, 16));
+    public static String hex(byte[] input) {
+        return hex(input, 0, input.length);
+    }
+
+    public static String hex(byte[] input, int offset, int length) {
+        try (Hasher hasher = hasher()) {
+            return hasher.update(input, offset, length).hex();
         }
-        return sb.toString();
     }
-}
 
+    public static String hex(ByteBuffer input) {
+        try (Hasher hasher = hasher()) {
+            return hasher.update(input).hex();
+        }
+    }
+
+    /** Incremental hashing; close the hasher (try-with-resources) to hand it back. */
+    public static Hasher hasher() {
+        Hasher hasher = IDLE.poll();
+        if (hasher == null) return new Hasher();
+        IDLE_COUNT.decrementAndGet();
+        return hasher;
+    }
+
+    public static final class Hasher implements AutoCloseable {
+        private final MessageDigest digest;
+        private final char[] chars = new char[CHUNK_CHARS];
+        private final CharBuffer charBuffer = CharBuffer.wrap(chars);
+        // A char encodes to at most three bytes; a surrogate pair takes two chars and four bytes.
+        private final byte[] scratch = new byte[CHUNK_CHARS * 3];
+        private final ByteBuffer byteBuffer = ByteBuffer.wrap(scratch);
+        private final CharsetEncoder utf8 = StandardCharsets.UTF_8.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        private final byte[] out = new byte[DIGEST_BYTES * 2];
+
+        private Hasher() {
+            try {
+                this.digest = MessageDigest.getInstance("SHA-256");
+            } catch (Exception e) {
+                throw new IllegalStateException("sha-256 unavailable", e);
+            }
+        }
+
+        public Hasher update(byte[] input, int offset, int length) {
+            digest.update(input, offset, length);
+            return this;
+        }
+
+        /** Consumes the buffer's remaining bytes. */
+        public Hasher update(ByteBuffer input) {
+            digest.update(input);
+            return this;
+        }
+
+        /** Same bytes as {@code input.getBytes(UTF_8)}, including {@code '?'} for unpaired surrogates. */
+        public Hasher update(String input) {
+            for (int start = 0, length = input.length(); start < length; ) {
+                int end = Math.min(length, start + CHUNK_CHARS);
+                // Keep a surrogate pair in one chunk.
+                if (end < length && Character.isHighSurrogate(input.charAt(end - 1))) end--;
+                input.getChars(start, end, chars, 0);
+                charBuffer.clear().limit(end - start);
+                byteBuffer.clear();
+                utf8.reset();
+                utf8.encode(charBuffer, byteBuffer, true);
+                utf8.flush(byteBuffer);
+                digest.update(scratch, 0, byteBuffer.position());
+                start = end;
+            }
+            return this;
+        }
+
+        /** Completes the hash and resets the hasher for the next input. */
+        public String hex() {
+            try {
+                digest.digest(scratch, 0, DIGEST_BYTES);
+            } catch (Exception e) {
+                throw new IllegalStateException("sha-256 failed", e);
+            }
+            for (int i = 0; i < DIGEST_BYTES; i++) {
+                int b = scratch[i];
+                out[2 * i] = HEX[(b >> 4) & 0xF];
+                out[2 * i + 1] = HEX[b & 0xF];
+            }
+            return new String(out, StandardCharsets.US_ASCII);
+        }
+
+        @Override
+        public void close() {
+            digest.reset();
+            if (IDLE_COUNT.incrementAndGet() > MAX_IDLE_HASHERS) {
+                IDLE_COUNT.decrementAndGet();
+                return;
+            }
+            IDLE.offer(this);
+        }
+    }
+}
@@ -44,6 +44,9 @@ public class PaymentEventEntity {
     @Column(name = "sanitized_payload_json")
     private String sanitizedPayloadJson;
 
+    @Column(name = "latency_ms")
+    private Long latencyMs;
+
     @Column(name = "created_at", nullable = false)
     private Instant createdAt;
 
@@ -101,6 +104,14 @@ public class PaymentEventEntity {
         this.sanitizedPayloadJson = sanitizedPayloadJson;
     }
 
+    public Long getLatencyMs() {
+        return latencyMs;
+    }
+
+    public void setLatencyMs(Long latencyMs) {
+        this.latencyMs = latencyMs;
+    }
+
     public Instant getCreatedAt() {
         return createdAt;
     }
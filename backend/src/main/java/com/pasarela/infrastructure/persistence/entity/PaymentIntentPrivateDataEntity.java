@@ -8,17 +8,21 @@ package com.pasarela.infrastructure.persistence.entity;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.type.SqlTypes;
+import org.springframework.data.domain.Persistable;
 
 import java.time.Instant;
 import java.util.UUID;
 
 @Entity
 @Table(name = "payment_intent_private_data")
-public class PaymentIntentPrivateDataEntity {
+public class PaymentIntentPrivateDataEntity implements Persistable<UUID> {
     @Id
     @JdbcTypeCode(SqlTypes.CHAR)
     @Column(name = "payment_intent_id", nullable = false, length = 36)
@@ -30,11 +34,30 @@ public class PaymentIntentPrivateDataEntity {
     @Column(name = "created_at", nullable = false)
     private Instant createdAt;
 
+    @Transient
+    private boolean isNew = true;
+
     @PrePersist
     void prePersist() {
         if (createdAt == null) createdAt = Instant.now();
     }
 
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        isNew = false;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @Override
+    public UUID getId() {
+        return paymentIntentId;
+    }
+
     public UUID getPaymentIntentId() {
         return paymentIntentId;
     }
@@ -45,9 +45,15 @@ public class ProviderHealthSnapshotEntity {
     @Column(name = "error_rate", nullable = false)
     private double errorRate;
 
+    @Column(name = "p50_latency_ms", nullable = false)
+    private long p50LatencyMs;
+
     @Column(name = "p95_latency_ms", nullable = false)
     private long p95LatencyMs;
 
+    @Column(name = "p99_latency_ms", nullable = false)
+    private long p99LatencyMs;
+
     @Column(name = "last_failure_at")
     private Instant lastFailureAt;
 
@@ -118,6 +124,14 @@ public class ProviderHealthSnapshotEntity {
         this.errorRate = errorRate;
     }
 
+    public long getP50LatencyMs() {
+        return p50LatencyMs;
+    }
+
+    public void setP50LatencyMs(long p50LatencyMs) {
+        this.p50LatencyMs = p50LatencyMs;
+    }
+
     public long getP95LatencyMs() {
         return p95LatencyMs;
     }
@@ -126,6 +140,14 @@ public class ProviderHealthSnapshotEntity {
         this.p95LatencyMs = p95LatencyMs;
     }
 
+    public long getP99LatencyMs() {
+        return p99LatencyMs;
+    }
+
+    public void setP99LatencyMs(long p99LatencyMs) {
+        this.p99LatencyMs = p99LatencyMs;
+    }
+
     public Instant getLastFailureAt() {
         return lastFailureAt;
     }
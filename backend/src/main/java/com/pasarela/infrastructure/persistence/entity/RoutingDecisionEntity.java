@@ -6,22 +6,27 @@
 package com.pasarela.infrastructure.persistence.entity;
 
 import com.pasarela.domain.model.PaymentProvider;
+import com.pasarela.domain.model.RoutingReasonCode;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.Id;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.type.SqlTypes;
+import org.springframework.data.domain.Persistable;
 
 import java.time.Instant;
 import java.util.UUID;
 
 @Entity
 @Table(name = "routing_decisions")
-public class RoutingDecisionEntity {
+public class RoutingDecisionEntity implements Persistable<UUID> {
     @Id
     @JdbcTypeCode(SqlTypes.CHAR)
     @Column(name = "id", nullable = false, length = 36)
@@ -39,21 +44,46 @@ public class RoutingDecisionEntity {
     @Column(name = "chosen_provider", nullable = false)
     private PaymentProvider chosenProvider;
 
-    @Column(name = "candidate_scores_json", nullable = false)
-    private String candidateScoresJson;
-
+    @Enumerated(EnumType.STRING)
     @Column(name = "reason_code", nullable = false)
-    private String reasonCode;
+    private RoutingReasonCode reasonCode;
+
+    @Column(name = "currency")
+    private String currency;
+
+    @Column(name = "amount_minor")
+    private Long amountMinor;
+
+    @Column(name = "candidate_scores")
+    private byte[] candidateScores;
+
+    @Column(name = "candidate_scores_json")
+    private String candidateScoresJson;
 
     @Column(name = "created_at", nullable = false)
     private Instant createdAt;
 
+    @Transient
+    private boolean isNew = true;
+
     @PrePersist
     void prePersist() {
         if (id == null) id = UUID.randomUUID();
         if (createdAt == null) createdAt = Instant.now();
     }
 
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        isNew = false;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @Override
     public UUID getId() {
         return id;
     }
@@ -86,6 +116,30 @@ public class RoutingDecisionEntity {
         this.chosenProvider = chosenProvider;
     }
 
+    public String getCurrency() {
+        return currency;
+    }
+
+    public void setCurrency(String currency) {
+        this.currency = currency;
+    }
+
+    public Long getAmountMinor() {
+        return amountMinor;
+    }
+
+    public void setAmountMinor(Long amountMinor) {
+        this.amountMinor = amountMinor;
+    }
+
+    public byte[] getCandidateScores() {
+        return candidateScores;
+    }
+
+    public void setCandidateScores(byte[] candidateScores) {
+        this.candidateScores = candidateScores;
+    }
+
     public String getCandidateScoresJson() {
         return candidateScoresJson;
     }
@@ -94,11 +148,11 @@ public class RoutingDecisionEntity {
         this.candidateScoresJson = candidateScoresJson;
     }
 
-    public String getReasonCode() {
+    public RoutingReasonCode getReasonCode() {
         return reasonCode;
     }
 
-    public void setReasonCode(String reasonCode) {
+    public void setReasonCode(RoutingReasonCode reasonCode) {
         this.reasonCode = reasonCode;
     }
 
@@ -7,11 +7,36 @@ package com.pasarela.infrastructure.persistence.repository;
 
 import com.pasarela.infrastructure.persistence.entity.IdempotencyRecordEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecordEntity, UUID> {
     Optional<IdempotencyRecordEntity> findByMerchantIdAndEndpointAndIdempotencyKey(UUID merchantId, String endpoint, String idempotencyKey);
-}
 
+    @Query("select r.merchantId as merchantId, count(r) as records from IdempotencyRecordEntity r group by r.merchantId")
+    List<MerchantRecordCount> countByMerchant();
+
+    /**
+     * Must be consumed inside a transaction and closed.
+     */
+    @Query("select r.merchantId as merchantId, r.endpoint as endpoint, r.idempotencyKey as idempotencyKey from IdempotencyRecordEntity r")
+    Stream<KeyRef> streamAllKeys();
+
+    interface MerchantRecordCount {
+        UUID getMerchantId();
+
+        long getRecords();
+    }
+
+    interface KeyRef {
+        UUID getMerchantId();
+
+        String getEndpoint();
+
+        String getIdempotencyKey();
+    }
+}
@@ -53,5 +53,24 @@ public interface PaymentEventRepository extends JpaRepository<PaymentEventEntity
             @Param("eventType") String eventType,
             @Param("from") Instant from
     );
-}
 
+    @Query("""
+            select e.provider as provider, e.latencyMs as latencyMs, e.createdAt as createdAt
+            from PaymentEventEntity e
+            where e.eventType = :eventType
+              and e.createdAt >= :from
+              and e.latencyMs is not null
+            """)
+    List<LatencySample> findLatencySamplesSince(
+            @Param("eventType") String eventType,
+            @Param("from") Instant from
+    );
+
+    interface LatencySample {
+        PaymentProvider getProvider();
+
+        Long getLatencyMs();
+
+        Instant getCreatedAt();
+    }
+}
@@ -8,8 +8,10 @@ package com.pasarela.infrastructure.persistence.repository;
 import com.pasarela.domain.model.PaymentStatus;
 import com.pasarela.infrastructure.persistence.entity.PaymentIntentEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
 import java.util.List;
@@ -44,5 +46,15 @@ public interface PaymentIntentRepository extends JpaRepository<PaymentIntentEnti
               and p.provider = com.pasarela.domain.model.PaymentProvider.STRIPE
             """)
     Optional<PaymentIntentEntity> findStripeByProviderRef(@Param("providerRef") String providerRef);
-}
 
+    @Transactional
+    @Modifying
+    @Query("""
+            update PaymentIntentEntity p
+            set p.status = com.pasarela.domain.model.PaymentStatus.FAILED,
+                p.updatedAt = :now
+            where p.status = com.pasarela.domain.model.PaymentStatus.CREATED
+              and p.createdAt < :cutoff
+            """)
+    int failCreatedBefore(@Param("cutoff") Instant cutoff, @Param("now") Instant now);
+}
@@ -5,14 +5,49 @@
 
 package com.pasarela.infrastructure.persistence.repository;
 
+import com.pasarela.domain.model.CircuitState;
 import com.pasarela.domain.model.PaymentProvider;
 import com.pasarela.infrastructure.persistence.entity.ProviderHealthSnapshotEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
 import java.util.Optional;
 import java.util.UUID;
 
 public interface ProviderHealthSnapshotRepository extends JpaRepository<ProviderHealthSnapshotEntity, UUID> {
     Optional<ProviderHealthSnapshotEntity> findByProvider(PaymentProvider provider);
-}
 
+    @Transactional
+    @Modifying
+    @Query("""
+            update ProviderHealthSnapshotEntity s
+            set s.circuitState = :circuitState,
+                s.successRate = :successRate,
+                s.errorRate = :errorRate,
+                s.p50LatencyMs = :p50LatencyMs,
+                s.p95LatencyMs = :p95LatencyMs,
+                s.p99LatencyMs = :p99LatencyMs,
+                s.lastFailureAt = :lastFailureAt,
+                s.windowStart = :windowStart,
+                s.windowEnd = :windowEnd,
+                s.updatedAt = :updatedAt
+            where s.provider = :provider
+            """)
+    int updateSnapshot(
+            @Param("provider") PaymentProvider provider,
+            @Param("circuitState") CircuitState circuitState,
+            @Param("successRate") double successRate,
+            @Param("errorRate") double errorRate,
+            @Param("p50LatencyMs") long p50LatencyMs,
+            @Param("p95LatencyMs") long p95LatencyMs,
+            @Param("p99LatencyMs") long p99LatencyMs,
+            @Param("lastFailureAt") Instant lastFailureAt,
+            @Param("windowStart") Instant windowStart,
+            @Param("windowEnd") Instant windowEnd,
+            @Param("updatedAt") Instant updatedAt
+    );
+}
@@ -20,6 +20,7 @@ import reactor.core.publisher.Mono;
 import java.time.Duration;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class AdyenAdapter implements PaymentProviderAdapter {
@@ -43,6 +44,11 @@ public class AdyenAdapter implements PaymentProviderAdapter {
 
     @Override
     public CreateSessionResult createSession(CreateSessionCommand command) {
+        return PaymentProviderAdapter.await(createSessionAsync(command));
+    }
+
+    @Override
+    public CompletableFuture<CreateSessionResult> createSessionAsync(CreateSessionCommand command) {
         Map<String, String> cfg = command.providerConfig();
         var fallback = properties.providers().adyen();
         String apiKey = resolveConfigValue(cfg, "apiKey", fallback.apiKey());
@@ -52,7 +58,8 @@ public class AdyenAdapter implements PaymentProviderAdapter {
         if (apiKey == null || apiKey.isBlank()
                 || merchantAccount == null || merchantAccount.isBlank()
                 || clientKey == null || clientKey.isBlank()) {
-            throw new ProviderException(provider(), ProviderErrorType.VALIDATION, "Adyen is not configured");
+            return CompletableFuture.failedFuture(
+                    new ProviderException(provider(), ProviderErrorType.VALIDATION, "Adyen is not configured"));
         }
 
         String returnUrl = command.returnUrl();
@@ -70,58 +77,57 @@ public class AdyenAdapter implements PaymentProviderAdapter {
                 "currency", command.currency().toUpperCase()
         ));
 
-        try {
-            AdyenSessionResponse resp = adyenWebClient.post()
-                    .uri("/" + CHECKOUT_API_VERSION + "/sessions")
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .header("X-API-Key", apiKey)
-                    .headers(h -> {
-                        if (command.idempotencyKey() != null && !command.idempotencyKey().isBlank()) {
-                            h.set("Idempotency-Key", "po:" + command.merchantId() + ":" + command.idempotencyKey());
-                        }
-                    })
-                    .bodyValue(body)
-                    .retrieve()
-                    .onStatus(HttpStatusCode::is5xxServerError, res -> res.bodyToMono(String.class).flatMap(b -> Mono.error(
-                            new ProviderException(provider(), ProviderErrorType.HTTP_5XX, "Adyen 5xx"))))
-                    .bodyToMono(AdyenSessionResponse.class)
-                    .timeout(Duration.ofSeconds(12))
-                    .block();
-
-            if (resp == null || resp.id == null || resp.sessionData == null) {
-                throw new ProviderException(provider(), ProviderErrorType.UNKNOWN, "Adyen session response invalid");
-            }
-
-            Map<String, Object> checkoutConfig = new HashMap<>();
-            checkoutConfig.put("type", "ADYEN");
-            checkoutConfig.put("clientKey", clientKey);
-            checkoutConfig.put("environment", environment);
-            checkoutConfig.put("sessionId", resp.id);
-            checkoutConfig.put("sessionData", resp.sessionData);
-
-            return new CreateSessionResult(resp.id, checkoutConfig);
-        } catch (ProviderException e) {
-            throw e;
-        } catch (WebClientResponseException e) {
-            throw mapWebClientException(e);
-        } catch (Exception e) {
-            throw new ProviderException(provider(), ProviderErrorType.UNKNOWN, "Adyen request failed", e);
-        }
+        return adyenWebClient.post()
+                .uri("/" + CHECKOUT_API_VERSION + "/sessions")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("X-API-Key", apiKey)
+                .headers(h -> {
+                    if (command.idempotencyKey() != null && !command.idempotencyKey().isBlank()) {
+                        h.set("Idempotency-Key", "po:" + command.merchantId() + ":" + command.idempotencyKey());
+                    }
+                })
+                .bodyValue(body)
+                .retrieve()
+                .onStatus(HttpStatusCode::is5xxServerError, res -> res.bodyToMono(String.class).flatMap(b -> Mono.error(
+                        new ProviderException(provider(), ProviderErrorType.HTTP_5XX, "Adyen 5xx"))))
+                .bodyToMono(AdyenSessionResponse.class)
+                .timeout(Duration.ofSeconds(12))
+                .filter(resp -> resp.id != null && resp.sessionData != null)
+                .switchIfEmpty(Mono.error(() ->
+                        new ProviderException(provider(), ProviderErrorType.UNKNOWN, "Adyen session response invalid")))
+                .map(resp -> {
+                    Map<String, Object> checkoutConfig = new HashMap<>();
+                    checkoutConfig.put("type", "ADYEN");
+                    checkoutConfig.put("clientKey", clientKey);
+                    checkoutConfig.put("environment", environment);
+                    checkoutConfig.put("sessionId", resp.id);
+                    checkoutConfig.put("sessionData", resp.sessionData);
+                    return new CreateSessionResult(resp.id, checkoutConfig);
+                })
+                .onErrorMap(e -> !(e instanceof ProviderException), e -> mapError(e, "Adyen request failed"))
+                .toFuture();
     }
 
     @Override
     public RefundResult refund(RefundCommand command) {
+        return PaymentProviderAdapter.await(refundAsync(command));
+    }
+
+    @Override
+    public CompletableFuture<RefundResult> refundAsync(RefundCommand command) {
         Map<String, String> cfg = command.providerConfig();
         var fallback = properties.providers().adyen();
         String apiKey = resolveConfigValue(cfg, "apiKey", fallback.apiKey());
         String merchantAccount = resolveConfigValue(cfg, "merchantAccount", fallback.merchantAccount());
         if (apiKey == null || apiKey.isBlank()
                 || merchantAccount == null || merchantAccount.isBlank()) {
-            throw new ProviderException(provider(), ProviderErrorType.VALIDATION, "Adyen is not configured");
+            return CompletableFuture.failedFuture(
+                    new ProviderException(provider(), ProviderErrorType.VALIDATION, "Adyen is not configured"));
         }
 
         if (command.providerRef() == null || command.providerRef().startsWith("CS")) {
-            throw new ProviderException(provider(), ProviderErrorType.VALIDATION, "Adyen refund requires PSP reference (wait for webhook)");
+            return CompletableFuture.failedFuture(new ProviderException(
+                    provider(), ProviderErrorType.VALIDATION, "Adyen refund requires PSP reference (wait for webhook)"));
         }
 
         Map<String, Object> body = new HashMap<>();
@@ -129,23 +135,24 @@ public class AdyenAdapter implements PaymentProviderAdapter {
         body.put("reference", "refund-" + command.providerRef());
         body.put("amount", Map.of("value", command.amountMinor(), "currency", command.currency().toUpperCase()));
 
-        try {
-            Map<?, ?> resp = adyenWebClient.post()
-                    .uri("/" + CHECKOUT_API_VERSION + "/payments/" + command.providerRef() + "/refunds")
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .header("X-API-Key", apiKey)
-                    .bodyValue(body)
-                    .retrieve()
-                    .bodyToMono(Map.class)
-                    .timeout(Duration.ofSeconds(12))
-                    .block();
-            String refundRef = resp == null ? null : (String) resp.get("pspReference");
-            return new RefundResult(refundRef == null ? "UNKNOWN" : refundRef);
-        } catch (WebClientResponseException e) {
-            throw mapWebClientException(e);
-        } catch (Exception e) {
-            throw new ProviderException(provider(), ProviderErrorType.UNKNOWN, "Adyen refund request failed", e);
-        }
+        return adyenWebClient.post()
+                .uri("/" + CHECKOUT_API_VERSION + "/payments/" + command.providerRef() + "/refunds")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("X-API-Key", apiKey)
+                .bodyValue(body)
+                .retrieve()
+                .bodyToMono(Map.class)
+                .timeout(Duration.ofSeconds(12))
+                .map(resp -> resp.get("pspReference") instanceof String ref ? ref : "UNKNOWN")
+                .defaultIfEmpty("UNKNOWN")
+                .map(RefundResult::new)
+                .onErrorMap(e -> mapError(e, "Adyen refund request failed"))
+                .toFuture();
+    }
+
+    private ProviderException mapError(Throwable e, String message) {
+        if (e instanceof WebClientResponseException wcre) return mapWebClientException(wcre);
+        return new ProviderException(provider(), ProviderErrorType.UNKNOWN, message, e);
     }
 
     private ProviderException mapWebClientException(WebClientResponseException e) {
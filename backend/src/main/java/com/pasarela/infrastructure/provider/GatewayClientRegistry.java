@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2025 Pasarela Orchestrator
+ * SPDX-License-Identifier: AGPL-3.0-only
+ */
+
+package com.pasarela.infrastructure.provider;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * One long-lived {@link WebClient} per gateway origin (scheme, host and port), each with its own bounded
+ * keep-alive connection pool, so calls reuse warm connections instead of paying DNS, TCP and TLS every time.
+ * Merchant configs choose the host, so the registry holds at most {@link #MAX_HOSTS} and closes the least
+ * recently used one beyond that.
+ */
+final class GatewayClientRegistry implements AutoCloseable {
+    static final int MAX_HOSTS = 32;
+    static final int MAX_CONNECTIONS_PER_HOST = 50;
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(5);
+    private static final Duration RESPONSE_TIMEOUT = Duration.ofSeconds(12);
+    private static final Duration MAX_IDLE = Duration.ofSeconds(30);
+    private static final Duration MAX_LIFE = Duration.ofMinutes(5);
+
+    private final String name;
+    private final LinkedHashMap<String, Client> clients = new LinkedHashMap<>(16, 0.75f, true);
+    private boolean closed;
+
+    GatewayClientRegistry(String name) {
+        this.name = name;
+    }
+
+    /**
+     * The client for {@code baseUrl}'s origin; requests made through it should use absolute URIs.
+     */
+    WebClient forBaseUrl(String baseUrl) {
+        String origin = origin(baseUrl);
+        Client evicted = null;
+        Client client;
+        synchronized (this) {
+            if (closed) throw new IllegalStateException(name + " gateway clients are closed");
+            client = clients.get(origin);
+            if (client == null) {
+                client = create(origin);
+                clients.put(origin, client);
+                if (clients.size() > MAX_HOSTS) {
+                    Map.Entry<String, Client> eldest = clients.entrySet().iterator().next();
+                    evicted = eldest.getValue();
+                    clients.remove(eldest.getKey());
+                }
+            }
+        }
+        if (evicted != null) evicted.pool().disposeLater().subscribe();
+        return client.webClient();
+    }
+
+    synchronized int size() {
+        return clients.size();
+    }
+
+    @Override
+    public void close() {
+        List<Client> open;
+        synchronized (this) {
+            closed = true;
+            open = new ArrayList<>(clients.values());
+            clients.clear();
+        }
+        open.forEach(client -> client.pool().dispose());
+    }
+
+    static String origin(String baseUrl) {
+        URI uri = URI.create(baseUrl.trim());
+        String scheme = uri.getScheme() == null ? "https" : uri.getScheme().toLowerCase(Locale.ROOT);
+        String host = uri.getHost();
+        if (host == null) throw new IllegalArgumentException("gateway URL has no host");
+        int port = uri.getPort() != -1 ? uri.getPort() : ("http".equals(scheme) ? 80 : 443);
+        return scheme + "://" + host.toLowerCase(Locale.ROOT) + ":" + port;
+    }
+
+    private Client create(String origin) {
+        ConnectionProvider pool = ConnectionProvider.builder(name + "-" + origin)
+                .maxConnections(MAX_CONNECTIONS_PER_HOST)
+                .pendingAcquireTimeout(CONNECT_TIMEOUT)
+                .maxIdleTime(MAX_IDLE)
+                .maxLifeTime(MAX_LIFE)
+                .evictInBackground(MAX_IDLE)
+                .build();
+
+        // No Read/WriteTimeoutHandler: on a pooled connection they would also fire while it sits idle.
+        HttpClient httpClient = HttpClient.create(pool)
+                .keepAlive(true)
+                .option(ChannelOption.SO_KEEPALIVE, true)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) CONNECT_TIMEOUT.toMillis())
+                .responseTimeout(RESPONSE_TIMEOUT);
+
+        WebClient webClient = WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+        return new Client(webClient, pool);
+    }
+
+    private record Client(WebClient webClient, ConnectionProvider pool) {}
+}
@@ -7,9 +7,7 @@ package com.pasarela.infrastructure.provider;
 
 import com.pasarela.config.AppProperties;
 import com.pasarela.domain.model.PaymentProvider;
-import io.netty.channel.ChannelOption;
-import io.netty.handler.timeout.ReadTimeoutHandler;
-import io.netty.handler.timeout.WriteTimeoutHandler;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatusCode;
@@ -18,8 +16,6 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.reactive.function.client.WebClientResponseException;
 import reactor.core.publisher.Mono;
-import reactor.netty.http.client.HttpClient;
-import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
@@ -28,17 +24,24 @@ import java.time.Duration;
 import java.util.Base64;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class MastercardHostedCheckoutAdapter implements PaymentProviderAdapter {
     private static final Logger log = LoggerFactory.getLogger(MastercardHostedCheckoutAdapter.class);
 
     private final AppProperties properties;
+    private final GatewayClientRegistry clients = new GatewayClientRegistry("mastercard");
 
     public MastercardHostedCheckoutAdapter(AppProperties properties) {
         this.properties = properties;
     }
 
+    @PreDestroy
+    public void shutdown() {
+        clients.close();
+    }
+
     @Override
     public PaymentProvider provider() {
         return PaymentProvider.MASTERCARD;
@@ -46,6 +49,11 @@ public class MastercardHostedCheckoutAdapter implements PaymentProviderAdapter {
 
     @Override
     public CreateSessionResult createSession(CreateSessionCommand command) {
+        return PaymentProviderAdapter.await(createSessionAsync(command));
+    }
+
+    @Override
+    public CompletableFuture<CreateSessionResult> createSessionAsync(CreateSessionCommand command) {
         Map<String, String> cfg = command.providerConfig();
         AppProperties.Providers.Mastercard fallback = properties.providers() == null ? null : properties.providers().mastercard();
 
@@ -55,16 +63,12 @@ public class MastercardHostedCheckoutAdapter implements PaymentProviderAdapter {
         String apiPassword = resolveConfigValue(cfg, "apiPassword", fallback == null ? null : fallback.apiPassword());
 
         if (isBlank(gatewayHost) || isBlank(apiVersion) || isBlank(merchantId) || isBlank(apiPassword)) {
-            throw new ProviderException(provider(), ProviderErrorType.VALIDATION, "Mastercard is not configured");
+            return CompletableFuture.failedFuture(
+                    new ProviderException(provider(), ProviderErrorType.VALIDATION, "Mastercard is not configured"));
         }
 
         String baseUrl = normalizeBaseUrl(gatewayHost);
-        String returnUrl = command.returnUrl();
-        if (isBlank(returnUrl)) {
-            String baseFrontend = properties.frontend() == null ? null : properties.frontend().baseUrl();
-            if (baseFrontend == null || baseFrontend.isBlank()) baseFrontend = "http://localhost:3000";
-            returnUrl = baseFrontend.replaceAll("/$", "") + "/checkout/" + command.paymentIntentId();
-        }
+        String returnUrl = resolveReturnUrl(command);
 
         Map<String, Object> body = new HashMap<>();
         body.put("apiOperation", "CREATE_CHECKOUT_SESSION");
@@ -81,49 +85,52 @@ public class MastercardHostedCheckoutAdapter implements PaymentProviderAdapter {
         String authHeader = basicAuthHeader("merchant." + merchantId, apiPassword);
         String path = "/api/rest/version/" + apiVersion + "/merchant/" + merchantId + "/session";
 
+        WebClient webClient;
         try {
-            Map<?, ?> resp = webClient(baseUrl).post()
-                    .uri(path)
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .header("Authorization", authHeader)
-                    .bodyValue(body)
-                    .retrieve()
-                    .onStatus(HttpStatusCode::is5xxServerError, res -> res.bodyToMono(String.class).flatMap(b -> Mono.error(
-                            new ProviderException(provider(), ProviderErrorType.HTTP_5XX, "Mastercard 5xx"))))
-                    .bodyToMono(Map.class)
-                    .timeout(Duration.ofSeconds(12))
-                    .block();
-
-            if (resp == null) {
-                throw new ProviderException(provider(), ProviderErrorType.UNKNOWN, "Mastercard session response invalid");
-            }
-            String sessionId = extractSessionId(resp);
-            if (sessionId == null || sessionId.isBlank()) {
-                throw new ProviderException(provider(), ProviderErrorType.UNKNOWN, "Mastercard session response missing session.id");
-            }
-
-            String successIndicator = extractSuccessIndicator(resp);
-            Map<String, Object> checkoutConfig = new HashMap<>();
-            checkoutConfig.put("type", "MASTERCARD");
-            checkoutConfig.put("scriptUrl", baseUrl + "/checkout/version/" + apiVersion + "/checkout.js");
-            checkoutConfig.put("merchantId", merchantId);
-            checkoutConfig.put("sessionId", sessionId);
-            checkoutConfig.put("orderId", command.paymentIntentId().toString());
-            checkoutConfig.put("amount", formatAmount(command.amountMinor()));
-            checkoutConfig.put("currency", command.currency().toUpperCase());
-            checkoutConfig.put("returnUrl", returnUrl);
-            if (successIndicator != null && !successIndicator.isBlank()) {
-                checkoutConfig.put("successIndicator", successIndicator);
-            }
-
-            return new CreateSessionResult(sessionId, checkoutConfig);
-        } catch (ProviderException e) {
-            throw e;
-        } catch (WebClientResponseException e) {
-            throw mapWebClientException(e);
-        } catch (Exception e) {
-            throw new ProviderException(provider(), ProviderErrorType.UNKNOWN, "Mastercard request failed", e);
+            webClient = clients.forBaseUrl(baseUrl);
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.failedFuture(
+                    new ProviderException(provider(), ProviderErrorType.VALIDATION, "Mastercard gatewayHost is invalid"));
         }
+
+        return webClient.post()
+                .uri(baseUrl + path)
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("Authorization", authHeader)
+                .bodyValue(body)
+                .retrieve()
+                .onStatus(HttpStatusCode::is5xxServerError, res -> res.bodyToMono(String.class).flatMap(b -> Mono.error(
+                        new ProviderException(provider(), ProviderErrorType.HTTP_5XX, "Mastercard 5xx"))))
+                .bodyToMono(Map.class)
+                .timeout(Duration.ofSeconds(12))
+                .switchIfEmpty(Mono.error(() ->
+                        new ProviderException(provider(), ProviderErrorType.UNKNOWN, "Mastercard session response invalid")))
+                .map(resp -> {
+                    String sessionId = extractSessionId(resp);
+                    if (sessionId == null || sessionId.isBlank()) {
+                        throw new ProviderException(provider(), ProviderErrorType.UNKNOWN, "Mastercard session response missing session.id");
+                    }
+
+                    String successIndicator = extractSuccessIndicator(resp);
+                    Map<String, Object> checkoutConfig = new HashMap<>();
+                    checkoutConfig.put("type", "MASTERCARD");
+                    checkoutConfig.put("scriptUrl", baseUrl + "/checkout/version/" + apiVersion + "/checkout.js");
+                    checkoutConfig.put("merchantId", merchantId);
+                    checkoutConfig.put("sessionId", sessionId);
+                    checkoutConfig.put("orderId", command.paymentIntentId().toString());
+                    checkoutConfig.put("amount", formatAmount(command.amountMinor()));
+                    checkoutConfig.put("currency", command.currency().toUpperCase());
+                    checkoutConfig.put("returnUrl", returnUrl);
+                    if (successIndicator != null && !successIndicator.isBlank()) {
+                        checkoutConfig.put("successIndicator", successIndicator);
+                    }
+
+                    return new CreateSessionResult(sessionId, checkoutConfig);
+                })
+                .onErrorMap(e -> !(e instanceof ProviderException), e -> e instanceof WebClientResponseException wcre
+                        ? mapWebClientException(wcre)
+                        : new ProviderException(provider(), ProviderErrorType.UNKNOWN, "Mastercard request failed", e))
+                .toFuture();
     }
 
     @Override
@@ -131,18 +138,11 @@ public class MastercardHostedCheckoutAdapter implements PaymentProviderAdapter {
         throw new ProviderException(provider(), ProviderErrorType.VALIDATION, "Mastercard refund not implemented");
     }
 
-    private WebClient webClient(String baseUrl) {
-        HttpClient httpClient = HttpClient.create()
-                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, 5_000)
-                .responseTimeout(Duration.ofSeconds(12))
-                .doOnConnected(conn -> conn
-                        .addHandlerLast(new ReadTimeoutHandler(12))
-                        .addHandlerLast(new WriteTimeoutHandler(12)));
-
-        return WebClient.builder()
-                .baseUrl(baseUrl)
-                .clientConnector(new ReactorClientHttpConnector(httpClient))
-                .build();
+    private String resolveReturnUrl(CreateSessionCommand command) {
+        if (!isBlank(command.returnUrl())) return command.returnUrl();
+        String baseFrontend = properties.frontend() == null ? null : properties.frontend().baseUrl();
+        if (baseFrontend == null || baseFrontend.isBlank()) baseFrontend = "http://localhost:3000";
+        return baseFrontend.replaceAll("/$", "") + "/checkout/" + command.paymentIntentId();
     }
 
     private ProviderException mapWebClientException(WebClientResponseException e) {
@@ -7,11 +7,50 @@ package com.pasarela.infrastructure.provider;
 
 import com.pasarela.domain.model.PaymentProvider;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
 public interface PaymentProviderAdapter {
     PaymentProvider provider();
 
     CreateSessionResult createSession(CreateSessionCommand command);
 
     RefundResult refund(RefundCommand command);
-}
 
+    /**
+     * Completes when the provider answers, without holding the caller's thread meanwhile. Failures complete the
+     * future with a {@link ProviderException}. The default runs {@link #createSession} inline, which only suits
+     * adapters that do no network I/O.
+     */
+    default CompletableFuture<CreateSessionResult> createSessionAsync(CreateSessionCommand command) {
+        try {
+            return CompletableFuture.completedFuture(createSession(command));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Async counterpart of {@link #refund}, with the same contract as {@link #createSessionAsync}.
+     */
+    default CompletableFuture<RefundResult> refundAsync(RefundCommand command) {
+        try {
+            return CompletableFuture.completedFuture(refund(command));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Waits for an async call, rethrowing its failure as-is; for adapters whose blocking methods delegate to
+     * their async ones.
+     */
+    static <T> T await(CompletableFuture<T> call) {
+        try {
+            return call.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
+        }
+    }
+}
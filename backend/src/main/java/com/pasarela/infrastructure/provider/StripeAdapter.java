@@ -15,21 +15,46 @@ import com.stripe.model.Refund;
 import com.stripe.net.RequestOptions;
 import com.stripe.param.PaymentIntentCreateParams;
 import com.stripe.param.RefundCreateParams;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 import java.util.HashMap;
 import java.util.Map;
-
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * The Stripe SDK only offers blocking calls, so the async variants run them on a small bounded pool. When the
+ * pool and its queue are full the call fails fast as a TIMEOUT, which makes it eligible for instant fallback.
+ */
 @Service
 public class StripeAdapter implements PaymentProviderAdapter {
     private static final Logger log = LoggerFactory.getLogger(StripeAdapter.class);
+    private static final int MAX_CONCURRENT_CALLS = 32;
+    private static final int MAX_QUEUED_CALLS = 256;
 
     private final AppProperties properties;
+    private final ThreadPoolExecutor executor = new ThreadPoolExecutor(
+            MAX_CONCURRENT_CALLS,
+            MAX_CONCURRENT_CALLS,
+            60,
+            TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(MAX_QUEUED_CALLS),
+            Thread.ofPlatform().name("stripe-call-", 0).daemon(true).factory()
+    );
 
     public StripeAdapter(AppProperties properties) {
         this.properties = properties;
+        // The secret key travels per request in RequestOptions; Stripe.apiKey is process-wide and would race
+        // between merchants once calls run concurrently.
+        Stripe.enableTelemetry = false;
+        executor.allowCoreThreadTimeOut(true);
     }
 
     @Override
@@ -47,9 +72,6 @@ public class StripeAdapter implements PaymentProviderAdapter {
         }
 
         try {
-            Stripe.apiKey = secretKey;
-            Stripe.enableTelemetry = false;
-
             PaymentIntentCreateParams.Builder builder = PaymentIntentCreateParams.builder()
                     .setAmount(command.amountMinor())
                     .setCurrency(command.currency().toLowerCase())
@@ -69,6 +91,7 @@ public class StripeAdapter implements PaymentProviderAdapter {
                             : command.idempotencyKey());
 
             RequestOptions options = RequestOptions.builder()
+                    .setApiKey(secretKey)
                     .setIdempotencyKey(providerIdempotencyKey)
                     .build();
 
@@ -85,6 +108,11 @@ public class StripeAdapter implements PaymentProviderAdapter {
         }
     }
 
+    @Override
+    public CompletableFuture<CreateSessionResult> createSessionAsync(CreateSessionCommand command) {
+        return submit(() -> createSession(command));
+    }
+
     @Override
     public RefundResult refund(RefundCommand command) {
         Map<String, String> cfg = command.providerConfig();
@@ -94,20 +122,36 @@ public class StripeAdapter implements PaymentProviderAdapter {
         }
 
         try {
-            Stripe.apiKey = secretKey;
-            Stripe.enableTelemetry = false;
-
             RefundCreateParams params = RefundCreateParams.builder()
                     .setPaymentIntent(command.providerRef())
                     .setAmount(command.amountMinor())
                     .build();
-            Refund refund = Refund.create(params);
+            Refund refund = Refund.create(params, RequestOptions.builder().setApiKey(secretKey).build());
             return new RefundResult(refund.getId());
         } catch (StripeException e) {
             throw mapStripeException(e);
         }
     }
 
+    @Override
+    public CompletableFuture<RefundResult> refundAsync(RefundCommand command) {
+        return submit(() -> refund(command));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> call) {
+        try {
+            return CompletableFuture.supplyAsync(call, executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(
+                    new ProviderException(provider(), ProviderErrorType.TIMEOUT, "Stripe call queue full", e));
+        }
+    }
+
     private ProviderException mapStripeException(StripeException e) {
         Integer status = e.getStatusCode();
         ProviderErrorType type = ProviderErrorType.UNKNOWN;
@@ -7,9 +7,11 @@ package com.pasarela.infrastructure.security;
 
 import com.pasarela.config.AppProperties;
 import com.pasarela.domain.model.UserRole;
+import com.pasarela.infrastructure.crypto.Sha256;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jws;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
@@ -19,11 +21,22 @@ import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 
+/**
+ * Tokens are verified with one shared parser. A verified token is remembered by its SHA-256 until its
+ * {@code exp}, so a dashboard resending the same token skips signature verification and claim parsing. Beyond
+ * {@link #MAX_VERIFIED} tokens the least recently used one is forgotten.
+ */
 @Service
 public class JwtService {
+    static final int MAX_VERIFIED = 10_000;
+
     private final SecretKey key;
     private final long ttlSeconds;
+    private final JwtParser parser;
+    private final LinkedHashMap<String, Verified> verified = new LinkedHashMap<>(16, 0.75f, true);
 
     public JwtService(AppProperties properties) {
         String secret = properties.jwt().secret();
@@ -32,6 +45,7 @@ public class JwtService {
         }
         this.key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
         this.ttlSeconds = properties.jwt().ttlSeconds();
+        this.parser = Jwts.parserBuilder().setSigningKey(key).build();
     }
 
     public String mint(String email, UserRole role) {
@@ -47,18 +61,48 @@ public class JwtService {
     }
 
     public JwtPrincipal parseAndValidate(String token) {
+        if (token == null) throw new IllegalArgumentException("invalid token");
+        String digest = Sha256.hex(token);
+        long now = System.currentTimeMillis();
+        JwtPrincipal hit = lookup(digest, now);
+        if (hit != null) return hit;
+
         try {
-            Jws<Claims> jws = Jwts.parserBuilder()
-                    .setSigningKey(key)
-                    .build()
-                    .parseClaimsJws(token);
+            Jws<Claims> jws = parser.parseClaimsJws(token);
             Claims claims = jws.getBody();
             String email = claims.getSubject();
             String roleStr = claims.get("role", String.class);
-            return new JwtPrincipal(email, UserRole.valueOf(roleStr));
+            JwtPrincipal principal = new JwtPrincipal(email, UserRole.valueOf(roleStr));
+            remember(digest, principal, claims.getExpiration(), now);
+            return principal;
         } catch (JwtException | IllegalArgumentException e) {
             throw new IllegalArgumentException("invalid token");
         }
     }
+
+    synchronized int cachedTokens() {
+        return verified.size();
+    }
+
+    private synchronized JwtPrincipal lookup(String digest, long now) {
+        Verified hit = verified.get(digest);
+        if (hit == null) return null;
+        if (now < hit.expiresAtMillis()) return hit.principal();
+        verified.remove(digest);
+        return null;
+    }
+
+    // Tokens without exp are verified every time rather than cached indefinitely.
+    private synchronized void remember(String digest, JwtPrincipal principal, Date expiration, long now) {
+        if (expiration == null || now >= expiration.getTime()) return;
+        verified.put(digest, new Verified(principal, expiration.getTime()));
+        if (verified.size() > MAX_VERIFIED) {
+            Iterator<String> eldest = verified.keySet().iterator();
+            eldest.next();
+            eldest.remove();
+        }
+    }
+
+    private record Verified(JwtPrincipal principal, long expiresAtMillis) {}
 }
 
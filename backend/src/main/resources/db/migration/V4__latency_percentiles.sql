@@ -0,0 +1,10 @@
+ALTER TABLE payment_events ADD COLUMN latency_ms INTEGER;
+
+UPDATE payment_events
+SET latency_ms = CAST(json_extract(sanitized_payload_json, '$.latencyMs') AS INTEGER)
+WHERE event_type IN ('PROVIDER_CREATE_SESSION_SUCCEEDED', 'PROVIDER_CREATE_SESSION_FAILED')
+  AND sanitized_payload_json IS NOT NULL
+  AND json_valid(sanitized_payload_json);
+
+ALTER TABLE provider_health_snapshot ADD COLUMN p50_latency_ms INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE provider_health_snapshot ADD COLUMN p99_latency_ms INTEGER NOT NULL DEFAULT 0;
@@ -0,0 +1,24 @@
+CREATE TABLE routing_decisions_new (
+  id TEXT PRIMARY KEY,
+  payment_intent_id TEXT NOT NULL,
+  merchant_id TEXT NOT NULL,
+  chosen_provider TEXT NOT NULL,
+  reason_code TEXT NOT NULL,
+  currency TEXT,
+  amount_minor INTEGER,
+  candidate_scores BLOB,
+  candidate_scores_json TEXT,
+  created_at INTEGER NOT NULL,
+  FOREIGN KEY (payment_intent_id) REFERENCES payment_intents(id) ON DELETE CASCADE,
+  FOREIGN KEY (merchant_id) REFERENCES merchants(id)
+);
+
+INSERT INTO routing_decisions_new (id, payment_intent_id, merchant_id, chosen_provider, reason_code, candidate_scores_json, created_at)
+SELECT id, payment_intent_id, merchant_id, chosen_provider, reason_code, candidate_scores_json, created_at
+FROM routing_decisions;
+
+DROP TABLE routing_decisions;
+ALTER TABLE routing_decisions_new RENAME TO routing_decisions;
+
+CREATE INDEX IF NOT EXISTS idx_routing_decisions_created_at ON routing_decisions(created_at);
+CREATE INDEX IF NOT EXISTS idx_routing_decisions_provider ON routing_decisions(chosen_provider);
@@ -0,0 +1,57 @@
+/*
+ * Copyright (C) 2025 Pasarela Orchestrator
+ * SPDX-License-Identifier: AGPL-3.0-only
+ */
+
+package com.pasarela.api.paymentintents;
+
+import com.pasarela.api.ApiErrorResponse;
+import com.pasarela.api.ApiException;
+import com.pasarela.api.ApiExceptionHandler;
+import com.pasarela.application.PaymentIntentService;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.TransactionSystemException;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BatchItemResponseTest {
+    private static final String REQUEST_ID = "batch-req-1";
+
+    @Test
+    void itemErrorsMatchTheSingleCreateResponse() {
+        TransactionSystemException wrapped = new TransactionSystemException("commit failed");
+        wrapped.initCause(new DataIntegrityViolationException("duplicate"));
+        List<RuntimeException> errors = List.of(
+                new ApiException(HttpStatus.BAD_GATEWAY, "Provider failed creating checkout session"),
+                new IllegalArgumentException("currency must be ISO-4217"),
+                new DataIntegrityViolationException("duplicate"),
+                wrapped,
+                new TransactionSystemException("commit failed"),
+                new IllegalStateException("boom")
+        );
+
+        for (RuntimeException error : errors) {
+            ResponseEntity<ApiErrorResponse> single = ApiExceptionHandler.toResponse(error, REQUEST_ID);
+            PaymentIntentController.BatchItemResponse item = PaymentIntentController.BatchItemResponse.from(
+                    3, new PaymentIntentService.BatchItemResult(null, error), REQUEST_ID);
+
+            assertEquals(single.getStatusCode().value(), item.status(), error.toString());
+            assertEquals(single.getBody(), item.error(), error.toString());
+            assertEquals(3, item.index());
+        }
+    }
+
+    @Test
+    void integrityViolationIsAConflict() {
+        PaymentIntentController.BatchItemResponse item = PaymentIntentController.BatchItemResponse.from(
+                0, new PaymentIntentService.BatchItemResult(null, new DataIntegrityViolationException("duplicate")), REQUEST_ID);
+
+        assertEquals(HttpStatus.CONFLICT.value(), item.status());
+        assertEquals(new ApiErrorResponse("CONFLICT", "DATA_INTEGRITY_VIOLATION", "Data integrity violation", REQUEST_ID), item.error());
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2025 Pasarela Orchestrator
+ * SPDX-License-Identifier: AGPL-3.0-only
+ */
+
+package com.pasarela.api.paymentintents;
+
+import com.pasarela.domain.model.PaymentProvider;
+import com.pasarela.infrastructure.crypto.Sha256;
+import com.pasarela.infrastructure.persistence.entity.MerchantEntity;
+import com.pasarela.infrastructure.persistence.repository.MerchantRepository;
+import com.pasarela.infrastructure.provider.CreateSessionCommand;
+import com.pasarela.infrastructure.provider.CreateSessionResult;
+import com.pasarela.infrastructure.provider.DemoAdapter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tomcat is capped well below the number of payments sent at once. Each provider call stays pending until every
+ * payment is in flight, so the test only passes if a waiting payment does not occupy one of Tomcat's threads.
+ */
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "app.payments.mode=demo",
+                "spring.threads.virtual.enabled=true",
+                "server.tomcat.threads.max=" + PaymentIntentVirtualThreadLoadTest.TOMCAT_THREADS
+        }
+)
+@ActiveProfiles("test")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+class PaymentIntentVirtualThreadLoadTest {
+    static final int TOMCAT_THREADS = 8;
+    private static final int PAYMENTS = TOMCAT_THREADS * 8;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private MerchantRepository merchantRepository;
+
+    @MockBean
+    private DemoAdapter demoAdapter;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+    private final AtomicInteger arrived = new AtomicInteger();
+    private final CompletableFuture<Void> allInFlight = new CompletableFuture<>();
+
+    private String apiKey;
+
+    @BeforeEach
+    void setUp() {
+        apiKey = "load_key_" + UUID.randomUUID();
+        MerchantEntity merchant = new MerchantEntity();
+        merchant.setName("load-merchant");
+        merchant.setApiKeyHash(Sha256.hex(apiKey));
+        merchant.setConfigJson("{}");
+        merchantRepository.save(merchant);
+
+        when(demoAdapter.provider()).thenReturn(PaymentProvider.DEMO);
+        when(demoAdapter.createSessionAsync(any(CreateSessionCommand.class))).thenAnswer(invocation -> {
+            peakInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            if (arrived.incrementAndGet() == PAYMENTS) allInFlight.complete(null);
+            return allInFlight.copy()
+                    .completeOnTimeout(null, 10, TimeUnit.SECONDS)
+                    .thenApply(ignored -> {
+                        inFlight.decrementAndGet();
+                        return new CreateSessionResult("demo_ref", Map.of("type", "DEMO"));
+                    });
+        });
+    }
+
+    @Test
+    void inFlightPaymentsScalePastTomcatThreadCap() {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/payment-intents"))
+                .header("X-Api-Key", apiKey)
+                .header("Content-Type", "application/json")
+                .timeout(Duration.ofSeconds(30))
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"amountMinor\":1200,\"currency\":\"EUR\",\"description\":\"load\",\"providerPreference\":\"AUTO\"}"))
+                .build();
+
+        List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+        for (int i = 0; i < PAYMENTS; i++) {
+            responses.add(client.sendAsync(request, HttpResponse.BodyHandlers.ofString()));
+        }
+
+        for (CompletableFuture<HttpResponse<String>> response : responses) {
+            assertEquals(200, response.join().statusCode());
+        }
+        assertEquals(PAYMENTS, peakInFlight.get());
+    }
+}
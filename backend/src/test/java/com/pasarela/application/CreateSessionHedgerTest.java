@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2025 Pasarela Orchestrator
+ * SPDX-License-Identifier: AGPL-3.0-only
+ */
+
+package com.pasarela.application;
+
+import com.pasarela.application.routing.ProviderSnapshot;
+import com.pasarela.config.AppProperties;
+import com.pasarela.domain.model.CircuitState;
+import com.pasarela.domain.model.PaymentProvider;
+import com.pasarela.infrastructure.provider.CreateSessionResult;
+import com.pasarela.infrastructure.provider.ProviderErrorType;
+import com.pasarela.infrastructure.provider.ProviderException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CreateSessionHedgerTest {
+    @Test
+    void slowPrimaryIsHedgedAndFirstSuccessWins() {
+        CreateSessionHedger hedger = hedger();
+        assertEquals(300, hedger.delayMs(PaymentProvider.STRIPE));
+        assertEquals(50, hedger.delayMs(PaymentProvider.ADYEN));
+
+        CompletableFuture<CreateSessionResult> primary = new CompletableFuture<>();
+        assertTrue(hedger.within(primary, 20).join().isEmpty());
+
+        CompletableFuture<CreateSessionResult> secondary = CompletableFuture.completedFuture(new CreateSessionResult("fast", Map.of()));
+        CreateSessionHedger.Race race = hedger.race(primary, secondary).join();
+        assertEquals(CreateSessionHedger.Winner.SECONDARY, race.winner());
+        assertEquals("fast", race.secondary().join().providerRef());
+        assertNull(CreateSessionHedger.failure(race.primary()));
+
+        primary.complete(new CreateSessionResult("slow", Map.of()));
+    }
+
+    @Test
+    void primaryFinishingWithinDelayIsNotHedged() {
+        CreateSessionHedger hedger = hedger();
+        CompletableFuture<CreateSessionResult> primary = CompletableFuture.completedFuture(new CreateSessionResult("quick", Map.of()));
+
+        assertEquals("quick", hedger.within(primary, 1_000).join().orElseThrow().providerRef());
+    }
+
+    @Test
+    void raceReportsNoWinnerWhenBothFail() {
+        CreateSessionHedger hedger = hedger();
+        CompletableFuture<CreateSessionResult> primary = CompletableFuture.failedFuture(
+                new ProviderException(PaymentProvider.STRIPE, ProviderErrorType.HTTP_5XX, "boom"));
+        CompletableFuture<CreateSessionResult> secondary = CompletableFuture.failedFuture(
+                new ProviderException(PaymentProvider.ADYEN, ProviderErrorType.TIMEOUT, "slow"));
+
+        CreateSessionHedger.Race race = hedger.race(primary, secondary).join();
+        assertEquals(CreateSessionHedger.Winner.NONE, race.winner());
+        ProviderException failure = assertInstanceOf(ProviderException.class, CreateSessionHedger.failure(race.secondary()));
+        assertEquals(ProviderErrorType.TIMEOUT, failure.getType());
+    }
+
+    private static CreateSessionHedger hedger() {
+        AppProperties properties = new AppProperties(null, null, null, null, new AppProperties.Routing(
+                Map.of(),
+                new AppProperties.Routing.Hedging(true, 10L, 50L)
+        ));
+        return new CreateSessionHedger(provider -> new ProviderSnapshot(
+                provider,
+                CircuitState.CLOSED,
+                1.0,
+                0.0,
+                0,
+                provider == PaymentProvider.STRIPE ? 300 : 0,
+                0,
+                null,
+                Instant.now()
+        ), properties);
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright (C) 2025 Pasarela Orchestrator
+ * SPDX-License-Identifier: AGPL-3.0-only
+ */
+
+package com.pasarela.application;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DecryptedConfigCacheTest {
+    @Test
+    void hitSkipsTheLoaderUntilInvalidated() {
+        DecryptedConfigCache<String> cache = new DecryptedConfigCache<>(8);
+        AtomicInteger loads = new AtomicInteger();
+
+        assertEquals("sk_1", cache.get("stripe", () -> load(loads, "sk_1")).orElseThrow().config().get("secretKey"));
+        assertEquals("sk_1", cache.get("stripe", () -> load(loads, "sk_2")).orElseThrow().config().get("secretKey"));
+        assertEquals(1, loads.get());
+
+        cache.invalidate("stripe");
+        assertEquals("sk_2", cache.get("stripe", () -> load(loads, "sk_2")).orElseThrow().config().get("secretKey"));
+        assertEquals(2, loads.get());
+
+        assertTrue(cache.get("adyen", Optional::empty).isEmpty());
+        assertTrue(cache.get("adyen", () -> load(loads, "unused")).isEmpty());
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void loadRacingAnInvalidationIsNotKept() {
+        DecryptedConfigCache<String> cache = new DecryptedConfigCache<>(8);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get("stripe", () -> {
+            cache.invalidate("stripe");
+            return load(loads, "stale");
+        });
+
+        assertEquals("fresh", cache.get("stripe", () -> load(loads, "fresh")).orElseThrow().config().get("secretKey"));
+        assertEquals(2, loads.get());
+    }
+
+    private static Optional<DecryptedConfigCache.Snapshot> load(AtomicInteger loads, String secretKey) {
+        loads.incrementAndGet();
+        return Optional.of(new DecryptedConfigCache.Snapshot(true, true, "DB", List.of(), Map.of("secretKey", secretKey)));
+    }
+}
@@ -0,0 +1,221 @@
+/*
+ * Copyright (C) 2025 Pasarela Orchestrator
+ * SPDX-License-Identifier: AGPL-3.0-only
+ */
+
+package com.pasarela.application;
+
+import com.pasarela.api.ApiException;
+import com.pasarela.application.routing.ProviderPreference;
+import com.pasarela.infrastructure.persistence.entity.IdempotencyRecordEntity;
+import com.pasarela.infrastructure.persistence.repository.IdempotencyRecordRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class IdempotencyServiceTest {
+    private static final String ENDPOINT = "/api/payment-intents";
+
+    private final IdempotencyRecordRepository repository = mock(IdempotencyRecordRepository.class);
+    private final IdempotencyService service = new IdempotencyService(repository);
+
+    @Test
+    void definiteMissSkipsTheDatabaseOnceTheIndexIsBuilt() {
+        UUID merchantId = UUID.randomUUID();
+        when(repository.findByMerchantIdAndEndpointAndIdempotencyKey(any(), any(), any())).thenReturn(Optional.empty());
+
+        assertTrue(service.findExisting(merchantId, ENDPOINT, "before-build").isEmpty());
+        verify(repository, times(1)).findByMerchantIdAndEndpointAndIdempotencyKey(merchantId, ENDPOINT, "before-build");
+
+        buildIndex(merchantId, "stored");
+        assertTrue(service.findExisting(merchantId, ENDPOINT, "fresh").isEmpty());
+        assertTrue(service.findExisting(UUID.randomUUID(), ENDPOINT, "stored").isEmpty());
+        verify(repository, never()).findByMerchantIdAndEndpointAndIdempotencyKey(merchantId, ENDPOINT, "fresh");
+    }
+
+    @Test
+    void probableHitGoesToTheDatabaseOnceThenServesFromMemory() {
+        UUID merchantId = UUID.randomUUID();
+        UUID paymentIntentId = UUID.randomUUID();
+        IdempotencyRecordEntity stored = new IdempotencyRecordEntity();
+        stored.setPaymentIntentId(paymentIntentId);
+        when(repository.findByMerchantIdAndEndpointAndIdempotencyKey(merchantId, ENDPOINT, "stored")).thenReturn(Optional.of(stored));
+        buildIndex(merchantId, "stored");
+
+        assertEquals(paymentIntentId, service.findExisting(merchantId, ENDPOINT, "stored").orElseThrow().paymentIntentId());
+        assertEquals(paymentIntentId, service.findExisting(merchantId, ENDPOINT, "stored").orElseThrow().paymentIntentId());
+        verify(repository, times(1)).findByMerchantIdAndEndpointAndIdempotencyKey(merchantId, ENDPOINT, "stored");
+    }
+
+    @Test
+    void recordedKeysAreAnsweredWithoutTheDatabase() {
+        UUID merchantId = UUID.randomUUID();
+        UUID paymentIntentId = UUID.randomUUID();
+        buildIndex(merchantId);
+
+        service.record(merchantId, ENDPOINT, "new-key", paymentIntentId, "hash");
+
+        assertEquals(paymentIntentId, service.findExisting(merchantId, ENDPOINT, "new-key").orElseThrow().paymentIntentId());
+        verify(repository, never()).findByMerchantIdAndEndpointAndIdempotencyKey(any(), any(), any());
+    }
+
+    @Test
+    void concurrentDuplicateJoinsTheRunningRequest() {
+        UUID merchantId = UUID.randomUUID();
+        CompletableFuture<String> first = new CompletableFuture<>();
+        AtomicInteger runs = new AtomicInteger();
+
+        CompletableFuture<String> owner = service.coalesce(merchantId, ENDPOINT, "key", "hash", () -> {
+            runs.incrementAndGet();
+            return first;
+        });
+        CompletableFuture<String> duplicate = service.coalesce(merchantId, ENDPOINT, "key", "hash", () -> {
+            runs.incrementAndGet();
+            return CompletableFuture.completedFuture("second");
+        });
+        CompletableFuture<String> mismatched = service.coalesce(merchantId, ENDPOINT, "key", "other-hash", () -> {
+            runs.incrementAndGet();
+            return CompletableFuture.completedFuture("third");
+        });
+
+        ApiException conflict = assertInstanceOf(ApiException.class,
+                assertThrows(CompletionException.class, mismatched::join).getCause());
+        assertEquals(HttpStatus.CONFLICT, conflict.getStatus());
+        assertFalse(duplicate.isDone());
+
+        first.complete("created");
+        assertEquals("created", owner.join());
+        assertEquals("created", duplicate.join());
+        assertEquals(1, runs.get());
+
+        assertEquals("later", service.coalesce(merchantId, ENDPOINT, "key", "hash",
+                () -> CompletableFuture.completedFuture("later")).join());
+    }
+
+    @Test
+    void replayWithDifferentStoredRequestIsRejected() {
+        String hash = IdempotencyService.requestHash(1000L, "USD");
+        IdempotencyService.Existing existing = new IdempotencyService.Existing(UUID.randomUUID(), hash);
+
+        IdempotencyService.requireSameRequest(existing, hash);
+        assertThrows(ApiException.class, () -> IdempotencyService.requireSameRequest(existing, IdempotencyService.requestHash(1000L, "EUR")));
+        // Hashes stored before the canonical format are not comparable, so they never cause a conflict.
+        IdempotencyService.requireSameRequest(new IdempotencyService.Existing(UUID.randomUUID(), "0f1e2d"), hash);
+    }
+
+    @Test
+    void requestHashIsCanonical() {
+        assertEquals("v2:38352e66dba286958d349c36163deecc6a8dd6278624927177f56bedf83e1f3d",
+                IdempotencyService.requestHash(1000L, "USD", null, "AUTO"));
+        assertNotEquals(IdempotencyService.requestHash(1000L, "USD", null, "AUTO"), IdempotencyService.requestHash(1000L, "USD", "null", "AUTO"));
+        assertNotEquals(IdempotencyService.requestHash("ab", "c"), IdempotencyService.requestHash("a", "bc"));
+    }
+
+    @Test
+    void paymentIntentRequestHashCoversEveryFieldInFixedOrder() {
+        PaymentIntentService.CreatePaymentIntentCommand command =
+                new PaymentIntentService.CreatePaymentIntentCommand(1000, "USD", null, ProviderPreference.AUTO);
+
+        assertEquals("v2:38352e66dba286958d349c36163deecc6a8dd6278624927177f56bedf83e1f3d", PaymentIntentService.requestHash(command));
+        assertNotEquals(PaymentIntentService.requestHash(command), PaymentIntentService.requestHash(
+                new PaymentIntentService.CreatePaymentIntentCommand(1000, "USD", "", ProviderPreference.AUTO)));
+    }
+
+    @Test
+    void filterHasNoFalseNegatives() {
+        IdempotencyKeyFilter filter = new IdempotencyKeyFilter(1_000);
+        for (int i = 0; i < 5_000; i++) filter.add(ENDPOINT, "key-" + i);
+        for (int i = 0; i < 5_000; i++) assertTrue(filter.mightContain(ENDPOINT, "key-" + i));
+        assertFalse(new IdempotencyKeyFilter(1_000).mightContain(ENDPOINT, "key-0"));
+    }
+
+    @Test
+    void filterGrowsOncePastCapacity() {
+        IdempotencyKeyFilter filter = new IdempotencyKeyFilter(1_000);
+        for (int i = 0; i < 50_000; i++) filter.add(ENDPOINT, "key-" + i);
+
+        assertTrue(filter.layerCount() > 1);
+        assertTrue(filter.capacity() >= 50_000);
+        int falsePositives = 0;
+        for (int i = 0; i < 50_000; i++) {
+            if (filter.mightContain(ENDPOINT, "other-" + i)) falsePositives++;
+        }
+        // A single 1,000-key layer would answer yes to nearly everything at this load.
+        assertTrue(falsePositives < 50_000 * 0.05, "false positives: " + falsePositives);
+    }
+
+    @Test
+    void rebuildSizesAFilterCreatedBeforeIt() {
+        UUID merchantId = UUID.randomUUID();
+        service.record(merchantId, ENDPOINT, "early", UUID.randomUUID(), null);
+        long before = service.filterFor(merchantId).capacity();
+
+        when(repository.countByMerchant()).thenReturn(List.of(count(merchantId, 100_000)));
+        when(repository.streamAllKeys()).thenReturn(Stream.of(keyRef(merchantId, "stored")));
+        service.rebuildIndex();
+
+        IdempotencyKeyFilter filter = service.filterFor(merchantId);
+        assertTrue(filter.capacity() >= before + 200_000);
+        assertTrue(filter.mightContain(ENDPOINT, "early"));
+        assertTrue(filter.mightContain(ENDPOINT, "stored"));
+    }
+
+    private void buildIndex(UUID merchantId, String... keys) {
+        when(repository.countByMerchant()).thenReturn(keys.length == 0 ? List.of() : List.of(count(merchantId, keys.length)));
+        when(repository.streamAllKeys()).thenReturn(Stream.of(keys).map(key -> keyRef(merchantId, key)));
+        service.rebuildIndex();
+    }
+
+    private static IdempotencyRecordRepository.MerchantRecordCount count(UUID merchantId, long records) {
+        return new IdempotencyRecordRepository.MerchantRecordCount() {
+            @Override
+            public UUID getMerchantId() {
+                return merchantId;
+            }
+
+            @Override
+            public long getRecords() {
+                return records;
+            }
+        };
+    }
+
+    private static IdempotencyRecordRepository.KeyRef keyRef(UUID merchantId, String key) {
+        return new IdempotencyRecordRepository.KeyRef() {
+            @Override
+            public UUID getMerchantId() {
+                return merchantId;
+            }
+
+            @Override
+            public String getEndpoint() {
+                return ENDPOINT;
+            }
+
+            @Override
+            public String getIdempotencyKey() {
+                return key;
+            }
+        };
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2025 Pasarela Orchestrator
+ * SPDX-License-Identifier: AGPL-3.0-only
+ */
+
+package com.pasarela.application;
+
+import com.pasarela.domain.security.MerchantPrincipal;
+import com.pasarela.infrastructure.crypto.Sha256;
+import com.pasarela.infrastructure.persistence.entity.MerchantEntity;
+import com.pasarela.infrastructure.persistence.repository.MerchantRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MerchantAuthServiceTest {
+    private final MerchantRepository merchantRepository = mock(MerchantRepository.class);
+    private final MerchantAuthService service = new MerchantAuthService(merchantRepository);
+
+    @Test
+    void knownKeyIsServedFromCacheUntilInvalidated() {
+        MerchantEntity merchant = new MerchantEntity();
+        merchant.setId(UUID.randomUUID());
+        merchant.setName("cached");
+        merchant.setConfigJson("{\"forceProvider\":\"STRIPE\"}");
+        String hash = Sha256.hex("good-key");
+        when(merchantRepository.findByApiKeyHash(hash)).thenReturn(Optional.of(merchant));
+
+        MerchantPrincipal first = service.authenticate("good-key").orElseThrow();
+        assertEquals(merchant.getId(), first.merchantId());
+        assertEquals(merchant.getConfigJson(), first.configJson());
+        assertEquals(first, service.authenticate("good-key").orElseThrow());
+        verify(merchantRepository, times(1)).findByApiKeyHash(hash);
+
+        service.invalidate(hash);
+        service.authenticate("good-key");
+        verify(merchantRepository, times(2)).findByApiKeyHash(hash);
+    }
+
+    @Test
+    void unknownKeyIsNegativelyCached() {
+        String hash = Sha256.hex("bad-key");
+        when(merchantRepository.findByApiKeyHash(hash)).thenReturn(Optional.empty());
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(service.authenticate("bad-key").isEmpty());
+        }
+        verify(merchantRepository, times(1)).findByApiKeyHash(hash);
+    }
+
+    @Test
+    void unknownKeyFloodIsBoundedAndKeepsKnownKeysCached() {
+        MerchantEntity merchant = new MerchantEntity();
+        merchant.setId(UUID.randomUUID());
+        merchant.setName("kept");
+        String goodHash = Sha256.hex("good-key");
+        when(merchantRepository.findByApiKeyHash(goodHash)).thenReturn(Optional.of(merchant));
+        service.authenticate("good-key");
+
+        int flood = MerchantAuthService.MAX_UNKNOWN * 3;
+        for (int i = 0; i < flood; i++) {
+            assertTrue(service.authenticate("bad-key-" + i).isEmpty());
+        }
+        assertEquals(1 + MerchantAuthService.MAX_UNKNOWN, service.size());
+
+        // The newest unknown keys are still cached; the oldest made room for them.
+        service.authenticate("bad-key-" + (flood - 1));
+        verify(merchantRepository, times(1)).findByApiKeyHash(Sha256.hex("bad-key-" + (flood - 1)));
+        service.authenticate("bad-key-0");
+        verify(merchantRepository, times(2)).findByApiKeyHash(Sha256.hex("bad-key-0"));
+
+        service.authenticate("good-key");
+        verify(merchantRepository, times(1)).findByApiKeyHash(goodHash);
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2025 Pasarela Orchestrator
+ * SPDX-License-Identifier: AGPL-3.0-only
+ */
+
+package com.pasarela.application;
+
+import com.pasarela.application.PaymentIntentService.PaymentIntentView;
+import com.pasarela.application.PaymentIntentService.PaymentIntentWithCheckoutConfig;
+import com.pasarela.domain.model.PaymentProvider;
+import com.pasarela.domain.model.PaymentStatus;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PaymentIntentReadCacheTest {
+    private final PaymentIntentReadCache cache = new PaymentIntentReadCache();
+    private final UUID merchantId = UUID.randomUUID();
+    private final UUID paymentIntentId = UUID.randomUUID();
+
+    @Test
+    void pollsAreServedFromCacheUntilInvalidated() {
+        AtomicInteger loads = new AtomicInteger();
+
+        assertEquals(PaymentStatus.REQUIRES_PAYMENT_METHOD, statusOf(cache.get(merchantId, paymentIntentId, () -> load(loads, PaymentStatus.REQUIRES_PAYMENT_METHOD))));
+        assertEquals(PaymentStatus.REQUIRES_PAYMENT_METHOD, statusOf(cache.get(merchantId, paymentIntentId, () -> load(loads, PaymentStatus.SUCCEEDED))));
+        assertEquals(1, loads.get());
+
+        cache.invalidate(paymentIntentId);
+        assertEquals(PaymentStatus.SUCCEEDED, statusOf(cache.get(merchantId, paymentIntentId, () -> load(loads, PaymentStatus.SUCCEEDED))));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void otherMerchantsMissTheCache() {
+        cache.putAfterCommit(paymentIntentId, () -> intent(PaymentStatus.REQUIRES_PAYMENT_METHOD));
+
+        assertTrue(cache.get(UUID.randomUUID(), paymentIntentId, Optional::empty).isEmpty());
+        assertEquals(PaymentStatus.REQUIRES_PAYMENT_METHOD, statusOf(cache.get(merchantId, paymentIntentId, Optional::empty)));
+    }
+
+    @Test
+    void loadRacingAnInvalidationIsNotKept() {
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(merchantId, paymentIntentId, () -> {
+            cache.invalidate(paymentIntentId);
+            return load(loads, PaymentStatus.REQUIRES_PAYMENT_METHOD);
+        });
+
+        assertEquals(PaymentStatus.SUCCEEDED, statusOf(cache.get(merchantId, paymentIntentId, () -> load(loads, PaymentStatus.SUCCEEDED))));
+        assertEquals(2, loads.get());
+    }
+
+    private Optional<PaymentIntentWithCheckoutConfig> load(AtomicInteger loads, PaymentStatus status) {
+        loads.incrementAndGet();
+        return Optional.of(intent(status));
+    }
+
+    private PaymentIntentWithCheckoutConfig intent(PaymentStatus status) {
+        PaymentIntentView view = new PaymentIntentView(
+                paymentIntentId, merchantId, 1000, "USD", null, status, PaymentProvider.DEMO, null, null,
+                null, null, null, 0, Instant.now(), Instant.now());
+        return new PaymentIntentWithCheckoutConfig(view, Map.of("clientSecret", "cs_test"));
+    }
+
+    private static PaymentStatus statusOf(Optional<PaymentIntentWithCheckoutConfig> result) {
+        return result.orElseThrow().paymentIntent().status();
+    }
+}
@@ -9,8 +9,12 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.pasarela.api.ApiException;
 import com.pasarela.application.routing.ProviderPreference;
 import com.pasarela.application.routing.RoutingConfig;
+import com.pasarela.application.routing.RoutingReplayService;
+import com.pasarela.application.routing.RoutingWeights;
 import com.pasarela.domain.model.PaymentProvider;
+import com.pasarela.domain.model.PaymentStatus;
 import com.pasarela.infrastructure.persistence.entity.MerchantEntity;
+import com.pasarela.infrastructure.persistence.entity.PaymentIntentEntity;
 import com.pasarela.infrastructure.persistence.entity.RoutingDecisionEntity;
 import com.pasarela.infrastructure.persistence.repository.MerchantRepository;
 import com.pasarela.infrastructure.persistence.repository.PaymentIntentRepository;
@@ -18,9 +22,14 @@ import com.pasarela.infrastructure.persistence.repository.RoutingDecisionReposit
 import com.pasarela.infrastructure.provider.AdyenAdapter;
 import com.pasarela.infrastructure.provider.CreateSessionCommand;
 import com.pasarela.infrastructure.provider.CreateSessionResult;
+import com.pasarela.infrastructure.provider.DemoAdapter;
+import com.pasarela.infrastructure.provider.ProviderErrorType;
+import com.pasarela.infrastructure.provider.ProviderException;
 import com.pasarela.infrastructure.provider.RefundCommand;
 import com.pasarela.infrastructure.provider.RefundResult;
 import com.pasarela.infrastructure.provider.StripeAdapter;
+import com.pasarela.support.SqlStatementRecorder;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -30,10 +39,14 @@ import org.springframework.http.HttpStatus;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -59,21 +72,36 @@ class PaymentIntentServiceFkTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private RoutingReplayService routingReplayService;
+
+    @Autowired
+    private PaymentIntentRecovery paymentIntentRecovery;
+
+    @Autowired
+    private EntityManager entityManager;
+
     @MockBean
     private StripeAdapter stripeAdapter;
 
     @MockBean
     private AdyenAdapter adyenAdapter;
 
+    @MockBean
+    private DemoAdapter demoAdapter;
+
     @BeforeEach
     void stubAdapters() {
         when(stripeAdapter.provider()).thenReturn(PaymentProvider.STRIPE);
         when(adyenAdapter.provider()).thenReturn(PaymentProvider.ADYEN);
+        when(demoAdapter.provider()).thenReturn(PaymentProvider.DEMO);
 
-        when(stripeAdapter.createSession(any(CreateSessionCommand.class)))
-                .thenReturn(new CreateSessionResult("stripe_ref", Map.of("type", "TEST")));
-        when(adyenAdapter.createSession(any(CreateSessionCommand.class)))
-                .thenReturn(new CreateSessionResult("adyen_ref", Map.of("type", "TEST")));
+        when(stripeAdapter.createSessionAsync(any(CreateSessionCommand.class)))
+                .thenReturn(CompletableFuture.completedFuture(new CreateSessionResult("stripe_ref", Map.of("type", "TEST"))));
+        when(adyenAdapter.createSessionAsync(any(CreateSessionCommand.class)))
+                .thenReturn(CompletableFuture.completedFuture(new CreateSessionResult("adyen_ref", Map.of("type", "TEST"))));
+        when(demoAdapter.createSessionAsync(any(CreateSessionCommand.class)))
+                .thenReturn(CompletableFuture.completedFuture(new CreateSessionResult("demo_ref", Map.of("type", "TEST"))));
 
         when(stripeAdapter.refund(any(RefundCommand.class))).thenReturn(new RefundResult("refund_ref"));
         when(adyenAdapter.refund(any(RefundCommand.class))).thenReturn(new RefundResult("refund_ref"));
@@ -97,6 +125,79 @@ class PaymentIntentServiceFkTest {
         assertEquals(pi.getId(), decision.getPaymentIntentId());
     }
 
+    @Test
+    void createWritesEachRowOnce() {
+        MerchantEntity merchant = createMerchant();
+        paymentIntentRepository.flush();
+
+        SqlStatementRecorder.start();
+        paymentIntentService.create(
+                merchant.getId(),
+                new PaymentIntentService.CreatePaymentIntentCommand(1500, "EUR", "test", ProviderPreference.AUTO),
+                null,
+                "req-4"
+        );
+        paymentIntentRepository.flush();
+        List<String> statements = SqlStatementRecorder.stop();
+
+        assertEquals(1, count(statements, "insert into payment_intents"));
+        assertEquals(1, count(statements, "insert into routing_decisions"));
+        assertEquals(1, count(statements, "update payment_intents"));
+        int intentInsert = indexOf(statements, "insert into payment_intents");
+        assertEquals(intentInsert + 1, indexOf(statements, "insert into routing_decisions"));
+    }
+
+    @Test
+    void batchReturnsPerItemResultsInOrderAndBatchesInserts() {
+        MerchantEntity merchant = createMerchant();
+        paymentIntentRepository.flush();
+
+        SqlStatementRecorder.start();
+        List<PaymentIntentService.BatchItemResult> results = paymentIntentService.createBatchAsync(merchant.getId(), List.of(
+                new PaymentIntentService.BatchItem(
+                        new PaymentIntentService.CreatePaymentIntentCommand(1000, "EUR", "a", ProviderPreference.AUTO), null),
+                new PaymentIntentService.BatchItem(
+                        new PaymentIntentService.CreatePaymentIntentCommand(2000, "EUR", "b", ProviderPreference.PAYPAL), null),
+                new PaymentIntentService.BatchItem(
+                        new PaymentIntentService.CreatePaymentIntentCommand(3000, "EUR", "c", ProviderPreference.AUTO), "key-1"),
+                new PaymentIntentService.BatchItem(
+                        new PaymentIntentService.CreatePaymentIntentCommand(4000, "EUR", "d", ProviderPreference.AUTO), "key-1")
+        ), "req-batch").join();
+        paymentIntentRepository.flush();
+        List<String> statements = SqlStatementRecorder.stop();
+
+        assertEquals(4, results.size());
+        assertEquals(1000, results.get(0).created().paymentIntent().amountMinor());
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, assertInstanceOf(ApiException.class, results.get(1).error()).getStatus());
+        assertEquals(3000, results.get(2).created().paymentIntent().amountMinor());
+        assertEquals(HttpStatus.CONFLICT, assertInstanceOf(ApiException.class, results.get(3).error()).getStatus());
+
+        assertEquals(2, count(statements, "insert into payment_intents"));
+        assertEquals(2, count(statements, "insert into routing_decisions"));
+        int intentInsert = indexOf(statements, "insert into payment_intents");
+        assertEquals(intentInsert + 1, statements.lastIndexOf(statements.get(intentInsert)));
+        assertEquals(intentInsert + 2, indexOf(statements, "insert into routing_decisions"));
+    }
+
+    @Test
+    void replayStreamsPersistedDecisions() {
+        MerchantEntity merchant = createMerchant();
+        paymentIntentService.create(
+                merchant.getId(),
+                new PaymentIntentService.CreatePaymentIntentCommand(1500, "EUR", "test", ProviderPreference.AUTO),
+                null,
+                "req-3"
+        );
+        routingDecisionRepository.flush();
+
+        var report = routingReplayService.simulate(new RoutingReplayService.SimulationRequest(
+                null, null, merchant.getId(), new RoutingWeights(0, 1, 0, 0, 0), null));
+
+        assertEquals(1, report.decisions());
+        assertEquals(0, report.skipped());
+        assertEquals(1, report.providers().stream().mapToLong(RoutingReplayService.ProviderShift::simulatedDecisions).sum());
+    }
+
     @Test
     void createWithUnknownMerchantFailsBeforeWrite() {
         UUID unknownMerchant = UUID.randomUUID();
@@ -113,6 +214,57 @@ class PaymentIntentServiceFkTest {
         assertTrue(routingDecisionRepository.findAll().isEmpty());
     }
 
+    @Test
+    void failedProviderCallLeavesCommittedIntentFailed() {
+        MerchantEntity merchant = createMerchant();
+        when(demoAdapter.createSessionAsync(any(CreateSessionCommand.class)))
+                .thenReturn(CompletableFuture.failedFuture(
+                        new ProviderException(PaymentProvider.DEMO, ProviderErrorType.PROVIDER_DECLINE, "declined")));
+
+        ApiException ex = assertThrows(ApiException.class, () -> paymentIntentService.create(
+                merchant.getId(),
+                new PaymentIntentService.CreatePaymentIntentCommand(1500, "EUR", "test", ProviderPreference.AUTO),
+                null,
+                "req-5"
+        ));
+
+        assertEquals(HttpStatus.BAD_GATEWAY, ex.getStatus());
+        var pi = paymentIntentRepository.findAll().get(0);
+        assertEquals(PaymentStatus.FAILED, pi.getStatus());
+        assertEquals(pi.getId(), routingDecisionRepository.findById(pi.getRoutingDecisionId()).orElseThrow().getPaymentIntentId());
+    }
+
+    @Test
+    void recoveryFailsIntentsLeftInCreated() {
+        MerchantEntity merchant = createMerchant();
+        PaymentIntentEntity stuck = new PaymentIntentEntity();
+        stuck.setId(UUID.randomUUID());
+        stuck.setMerchantId(merchant.getId());
+        stuck.setAmountMinor(1500);
+        stuck.setCurrency("EUR");
+        stuck.setStatus(PaymentStatus.CREATED);
+        stuck.setProvider(PaymentProvider.STRIPE);
+        stuck.setRootPaymentIntentId(stuck.getId());
+        stuck.setCreatedAt(Instant.now().minusSeconds(3600));
+        paymentIntentRepository.saveAndFlush(stuck);
+
+        paymentIntentRecovery.recover();
+
+        entityManager.clear();
+        assertEquals(PaymentStatus.FAILED, paymentIntentRepository.findById(stuck.getId()).orElseThrow().getStatus());
+    }
+
+    private static long count(List<String> statements, String prefix) {
+        return statements.stream().filter(sql -> sql.startsWith(prefix)).count();
+    }
+
+    private static int indexOf(List<String> statements, String prefix) {
+        for (int i = 0; i < statements.size(); i++) {
+            if (statements.get(i).startsWith(prefix)) return i;
+        }
+        return -1;
+    }
+
     private MerchantEntity createMerchant() {
         MerchantEntity entity = new MerchantEntity();
         entity.setName("merchant");
@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2025 Pasarela Orchestrator
+ * SPDX-License-Identifier: AGPL-3.0-only
+ */
+
+package com.pasarela.application;
+
+import com.pasarela.application.ProviderAvailabilityService.AvailabilityView;
+import com.pasarela.application.routing.ProviderCircuitBreaker;
+import com.pasarela.domain.model.CircuitState;
+import com.pasarela.domain.model.PaymentProvider;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProviderAvailabilityServiceTest {
+    private static final ProviderCircuitBreaker.Metrics METRICS = new ProviderCircuitBreaker.Metrics(0.9, 0.5, 10, 20, 30);
+
+    private final ProviderAdapterRegistry adapters = mock(ProviderAdapterRegistry.class);
+    private final MerchantProviderConfigService merchantConfigs = mock(MerchantProviderConfigService.class);
+    private final ProviderConfigService globalConfigs = mock(ProviderConfigService.class);
+    private final ProviderCircuitBreaker breaker = new ProviderCircuitBreaker();
+    private final ProviderAvailabilityService service =
+            new ProviderAvailabilityService(adapters, breaker, merchantConfigs, globalConfigs);
+    private final UUID merchantId = UUID.randomUUID();
+
+    @BeforeEach
+    void configure() {
+        when(adapters.registeredProviders()).thenReturn(Set.of(PaymentProvider.STRIPE, PaymentProvider.ADYEN));
+        when(merchantConfigs.find(any(), any())).thenReturn(Optional.empty());
+        when(globalConfigs.resolveEffectiveConfig(any())).thenReturn(
+                new ProviderConfigService.EffectiveConfig(true, true, Map.of(), "GLOBAL", List.of()));
+    }
+
+    @Test
+    void viewIsReusedWhileTheStampIsUnchanged() {
+        AvailabilityView first = service.view(merchantId);
+
+        assertSame(first, service.view(merchantId));
+        assertEquals(List.of(PaymentProvider.STRIPE, PaymentProvider.ADYEN), first.availableProviders(Set.of()));
+        verify(adapters, times(1)).registeredProviders();
+    }
+
+    @Test
+    void merchantConfigWriteForcesRecompute() {
+        AvailabilityView first = service.view(merchantId);
+        when(merchantConfigs.find(merchantId, PaymentProvider.ADYEN)).thenReturn(Optional.of(
+                new MerchantProviderConfigService.MerchantProviderConfig(PaymentProvider.ADYEN, false, Map.of(), List.of())));
+        // Unchanged version: the write is not seen yet.
+        assertSame(first, service.view(merchantId));
+
+        when(merchantConfigs.configVersion()).thenReturn(1L);
+        AvailabilityView second = service.view(merchantId);
+
+        assertNotSame(first, second);
+        assertEquals("DISABLED", second.status(PaymentProvider.ADYEN).reason());
+        assertEquals(List.of(PaymentProvider.STRIPE), second.availableProviders(Set.of()));
+    }
+
+    @Test
+    void globalConfigWriteForcesRecompute() {
+        AvailabilityView first = service.view(merchantId);
+        when(globalConfigs.resolveEffectiveConfig(PaymentProvider.STRIPE)).thenReturn(
+                new ProviderConfigService.EffectiveConfig(false, false, Map.of(), "NONE", List.of("secretKey")));
+        when(globalConfigs.configVersion()).thenReturn(1L);
+
+        AvailabilityView second = service.view(merchantId);
+
+        assertNotSame(first, second);
+        assertEquals("MISSING_FIELDS:secretKey", second.status(PaymentProvider.STRIPE).reason());
+        assertEquals(List.of(PaymentProvider.ADYEN), second.availableProviders(Set.of()));
+    }
+
+    @Test
+    void circuitOpeningAndClosingForcesRecompute() {
+        Instant t0 = Instant.now();
+        AvailabilityView first = service.view(merchantId);
+
+        breaker.record(PaymentProvider.STRIPE, false, true, METRICS, t0);
+        assertEquals(CircuitState.OPEN, breaker.getSnapshot(PaymentProvider.STRIPE).circuitState());
+        AvailabilityView opened = service.view(merchantId);
+        assertNotSame(first, opened);
+        assertEquals("UNHEALTHY", opened.status(PaymentProvider.STRIPE).reason());
+        assertSame(opened, service.view(merchantId));
+
+        breaker.record(PaymentProvider.STRIPE, true, false, METRICS, t0.plusSeconds(1));
+        AvailabilityView closed = service.view(merchantId);
+        assertNotSame(opened, closed);
+        assertEquals("OK", closed.status(PaymentProvider.STRIPE).reason());
+    }
+
+    @Test
+    void viewsAreBoundedByLeastRecentUse() {
+        AvailabilityView kept = service.view(merchantId);
+        for (int i = 0; i < ProviderAvailabilityService.MAX_VIEWS; i++) {
+            service.view(UUID.randomUUID());
+            if (i % 1_000 == 0) service.view(merchantId);
+        }
+
+        assertEquals(ProviderAvailabilityService.MAX_VIEWS, service.cachedViews());
+        assertSame(kept, service.view(merchantId));
+    }
+}
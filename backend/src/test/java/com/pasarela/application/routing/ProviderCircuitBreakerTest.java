@@ -0,0 +1,59 @@
+/*
+ * Copyright (C) 2025 Pasarela Orchestrator
+ * SPDX-License-Identifier: AGPL-3.0-only
+ */
+
+package com.pasarela.application.routing;
+
+import com.pasarela.domain.model.CircuitState;
+import com.pasarela.domain.model.PaymentProvider;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProviderCircuitBreakerTest {
+    private static final ProviderCircuitBreaker.Metrics METRICS = new ProviderCircuitBreaker.Metrics(0.9, 0.5, 10, 20, 30);
+
+    @Test
+    void opensThenProbesThenCloses() {
+        ProviderCircuitBreaker breaker = new ProviderCircuitBreaker();
+        Instant t0 = Instant.now();
+
+        assertEquals(0, breaker.openCircuits());
+        var opened = breaker.record(PaymentProvider.STRIPE, false, true, METRICS, t0);
+        assertTrue(opened.stateChanged());
+        assertEquals(CircuitState.OPEN, breaker.getSnapshot(PaymentProvider.STRIPE).circuitState());
+        assertEquals(1L << PaymentProvider.STRIPE.ordinal(), breaker.openCircuits());
+
+        var quiet = breaker.record(PaymentProvider.STRIPE, null, false, METRICS, t0.plusSeconds(1));
+        assertFalse(quiet.stateChanged());
+
+        Instant afterTtl = t0.plus(ProviderCircuitBreaker.OPEN_TTL).plusSeconds(1);
+        assertEquals(CircuitState.HALF_OPEN, ProviderCircuitBreaker.effectiveCircuitState(CircuitState.OPEN, t0, afterTtl));
+
+        var closed = breaker.record(PaymentProvider.STRIPE, true, false, METRICS, afterTtl);
+        assertTrue(closed.stateChanged());
+        assertEquals(CircuitState.CLOSED, closed.snapshot().circuitState());
+        assertEquals(20, closed.snapshot().p95LatencyMs());
+        assertEquals(0, breaker.openCircuits());
+    }
+
+    @Test
+    void seedIsIgnoredAfterLiveTraffic() {
+        ProviderCircuitBreaker breaker = new ProviderCircuitBreaker();
+        ProviderSnapshot persisted = new ProviderSnapshot(
+                PaymentProvider.ADYEN, CircuitState.OPEN, 0.4, 0.6, 0, 0, 0, Instant.now(), Instant.now());
+
+        breaker.record(PaymentProvider.ADYEN, true, false, METRICS, Instant.now());
+        breaker.seed(persisted);
+        assertEquals(CircuitState.CLOSED, breaker.getSnapshot(PaymentProvider.ADYEN).circuitState());
+
+        breaker.seed(new ProviderSnapshot(
+                PaymentProvider.MASTERCARD, CircuitState.OPEN, 0.4, 0.6, 0, 0, 0, Instant.now(), Instant.now()));
+        assertEquals(CircuitState.OPEN, breaker.getSnapshot(PaymentProvider.MASTERCARD).circuitState());
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2025 Pasarela Orchestrator
+ * SPDX-License-Identifier: AGPL-3.0-only
+ */
+
+package com.pasarela.application.routing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pasarela.application.PaymentEventService;
+import com.pasarela.domain.model.CircuitState;
+import com.pasarela.domain.model.PaymentProvider;
+import com.pasarela.infrastructure.persistence.repository.PaymentEventRepository;
+import com.pasarela.infrastructure.persistence.repository.ProviderHealthSnapshotRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.verification.VerificationMode;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class ProviderHealthServiceTest {
+    private final ProviderHealthSnapshotRepository snapshotRepository = mock(ProviderHealthSnapshotRepository.class);
+    private final PaymentEventRepository paymentEventRepository = mock(PaymentEventRepository.class);
+    private final PaymentEventService paymentEventService = mock(PaymentEventService.class);
+    private final ProviderCircuitBreaker circuitBreaker = new ProviderCircuitBreaker();
+    private final ProviderHealthWindow healthWindow = new ProviderHealthWindow();
+    private final ProviderHealthService service = new ProviderHealthService(
+            snapshotRepository,
+            paymentEventRepository,
+            paymentEventService,
+            new ObjectMapper(),
+            null,
+            null,
+            healthWindow,
+            new ProviderLatencyHistogram(),
+            circuitBreaker,
+            null
+    );
+
+    @AfterEach
+    void stopWorker() throws InterruptedException {
+        service.shutdown();
+    }
+
+    @Test
+    void failingSignalsOpenTheCircuitBeforeAnyEventIsWritten() {
+        for (int i = 0; i < 5; i++) {
+            service.recordCreateSessionSignal(PaymentProvider.ADYEN, false, 40);
+        }
+
+        assertEquals(CircuitState.OPEN, circuitBreaker.getSnapshot(PaymentProvider.ADYEN).circuitState());
+        verifyNoInteractions(paymentEventService);
+    }
+
+    @Test
+    void outcomeOnlyWritesTheEvent() {
+        UUID paymentIntentId = UUID.randomUUID();
+        for (int i = 0; i < 5; i++) {
+            service.recordCreateSessionOutcome(PaymentProvider.ADYEN, paymentIntentId, false, 0, "TIMEOUT", "req:" + i);
+        }
+
+        assertEquals(CircuitState.CLOSED, circuitBreaker.getSnapshot(PaymentProvider.ADYEN).circuitState());
+        verify(paymentEventService, times(5)).record(
+                eq(PaymentProvider.ADYEN), eq(paymentIntentId), anyString(), anyString(), any(), anyLong());
+    }
+
+    @Test
+    void staleFailureStreakNoLongerOpensTheCircuit() {
+        long now = System.currentTimeMillis();
+        long sevenHoursAgo = now - Duration.ofHours(7).toMillis();
+        for (int i = 0; i < 5; i++) {
+            healthWindow.recordCreateSession(PaymentProvider.STRIPE, false, sevenHoursAgo + i);
+        }
+        // Outside the error-rate window, so only the streak could open the circuit.
+        assertFalse(service.shouldOpen(PaymentProvider.STRIPE, 0, now));
+
+        long anHourAgo = now - Duration.ofHours(1).toMillis();
+        for (int i = 0; i < 5; i++) {
+            healthWindow.recordCreateSession(PaymentProvider.ADYEN, false, anHourAgo + i);
+        }
+        assertTrue(service.shouldOpen(PaymentProvider.ADYEN, 0, now));
+    }
+
+    @Test
+    void circuitTransitionIsWrittenWithoutWaitingForTheMetricsInterval() {
+        service.warmUp();
+        service.recordCreateSessionSignal(PaymentProvider.ADYEN, true, 40);
+        verifySnapshotWrites(PaymentProvider.ADYEN, CircuitState.CLOSED, timeout(500).times(1));
+
+        // Well inside PERSIST_INTERVAL_MS of the first write.
+        service.recordCreateSessionSignal(PaymentProvider.ADYEN, false, 40);
+        assertEquals(CircuitState.OPEN, circuitBreaker.getSnapshot(PaymentProvider.ADYEN).circuitState());
+        verifySnapshotWrites(PaymentProvider.ADYEN, CircuitState.OPEN, timeout(ProviderHealthService.PERSIST_INTERVAL_MS / 2).times(1));
+    }
+
+    @Test
+    void metricOnlyUpdatesAreThrottled() throws InterruptedException {
+        service.warmUp();
+        for (int i = 0; i < 5; i++) {
+            service.recordCreateSessionSignal(PaymentProvider.STRIPE, true, 40);
+            Thread.sleep(50);
+        }
+
+        verifySnapshotWrites(PaymentProvider.STRIPE, CircuitState.CLOSED, after(100).times(1));
+    }
+
+    private void verifySnapshotWrites(PaymentProvider provider, CircuitState state, VerificationMode mode) {
+        verify(snapshotRepository, mode).updateSnapshot(
+                eq(provider), eq(state), anyDouble(), anyDouble(), anyLong(), anyLong(), anyLong(), any(), any(), any(), any());
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright (C) 2025 Pasarela Orchestrator
+ * SPDX-License-Identifier: AGPL-3.0-only
+ */
+
+package com.pasarela.application.routing;
+
+import com.pasarela.domain.model.PaymentProvider;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ProviderHealthSignalsTest {
+    @Test
+    void burstIsCoalescedPerProvider() throws Exception {
+        ProviderHealthSignals signals = new ProviderHealthSignals(16);
+        signals.offer(PaymentProvider.STRIPE, false);
+        signals.offer(PaymentProvider.STRIPE, true);
+        signals.offer(PaymentProvider.STRIPE, null);
+        signals.offer(PaymentProvider.ADYEN, null);
+
+        long dirty = signals.await(10);
+        assertEquals(ProviderCapabilityRegistry.bit(PaymentProvider.STRIPE) | ProviderCapabilityRegistry.bit(PaymentProvider.ADYEN), dirty);
+        assertEquals(Boolean.TRUE, signals.lastCreateSession(PaymentProvider.STRIPE));
+        assertNull(signals.lastCreateSession(PaymentProvider.ADYEN));
+
+        assertEquals(0, signals.await(1));
+        assertNull(signals.lastCreateSession(PaymentProvider.STRIPE));
+    }
+
+    @Test
+    void overflowStillMarksProviderDirty() throws Exception {
+        ProviderHealthSignals signals = new ProviderHealthSignals(1);
+        signals.offer(PaymentProvider.STRIPE, true);
+        signals.offer(PaymentProvider.MASTERCARD, false);
+
+        long dirty = signals.await(10);
+        assertEquals(ProviderCapabilityRegistry.bit(PaymentProvider.STRIPE) | ProviderCapabilityRegistry.bit(PaymentProvider.MASTERCARD), dirty);
+        assertNull(signals.lastCreateSession(PaymentProvider.MASTERCARD));
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (C) 2025 Pasarela Orchestrator
+ * SPDX-License-Identifier: AGPL-3.0-only
+ */
+
+package com.pasarela.application.routing;
+
+import com.pasarela.domain.model.PaymentProvider;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProviderHealthWindowTest {
+    private static final long T0 = 1_700_000_000_000L;
+
+    @Test
+    void errorRateOnlyCountsEventsInsideWindow() {
+        ProviderHealthWindow window = new ProviderHealthWindow();
+
+        window.recordCreateSession(PaymentProvider.STRIPE, false, T0);
+        window.recordCreateSession(PaymentProvider.STRIPE, false, T0 + 1_000);
+        long later = T0 + Duration.ofMinutes(6).toMillis();
+        window.recordCreateSession(PaymentProvider.STRIPE, true, later);
+        window.recordCreateSession(PaymentProvider.STRIPE, false, later);
+
+        var counts = window.createSessions(PaymentProvider.STRIPE, Duration.ofMinutes(5), later);
+        assertEquals(1, counts.succeeded());
+        assertEquals(1, counts.failed());
+        assertEquals(0.5, counts.failureRate(), 1e-9);
+
+        var adyen = window.createSessions(PaymentProvider.ADYEN, Duration.ofMinutes(5), later);
+        assertEquals(0, adyen.total());
+    }
+
+    @Test
+    void recycledBucketsDropStaleCounts() {
+        ProviderHealthWindow window = new ProviderHealthWindow();
+
+        window.recordPayment(PaymentProvider.ADYEN, false, T0);
+        long nextDay = T0 + Duration.ofHours(25).toMillis();
+        window.recordPayment(PaymentProvider.ADYEN, true, nextDay);
+
+        var lastDay = window.payments(PaymentProvider.ADYEN, Duration.ofHours(24), nextDay);
+        assertEquals(1, lastDay.succeeded());
+        assertEquals(0, lastDay.failed());
+        assertTrue(Double.isNaN(window.payments(PaymentProvider.STRIPE, Duration.ofMinutes(15), nextDay).successRate()));
+    }
+
+    @Test
+    void failureStreakResetsOnSuccess() {
+        ProviderHealthWindow window = new ProviderHealthWindow();
+
+        for (int i = 0; i < 5; i++) {
+            window.recordCreateSession(PaymentProvider.MASTERCARD, false, T0 + i);
+        }
+        assertEquals(5, window.consecutiveCreateSessionFailures(PaymentProvider.MASTERCARD, T0 + 10));
+
+        window.recordCreateSession(PaymentProvider.MASTERCARD, true, T0 + 10);
+        assertEquals(0, window.consecutiveCreateSessionFailures(PaymentProvider.MASTERCARD, T0 + 10));
+    }
+
+    @Test
+    void staleFailureStreakExpires() {
+        ProviderHealthWindow window = new ProviderHealthWindow();
+
+        for (int i = 0; i < 5; i++) {
+            window.recordCreateSession(PaymentProvider.MASTERCARD, false, T0 + i);
+        }
+        long withinWindow = T0 + ProviderHealthWindow.FAILURE_STREAK_WINDOW.toMillis();
+        assertEquals(5, window.consecutiveCreateSessionFailures(PaymentProvider.MASTERCARD, withinWindow));
+
+        long stale = withinWindow + 10;
+        assertEquals(0, window.consecutiveCreateSessionFailures(PaymentProvider.MASTERCARD, stale));
+        // A failure after the streak went stale starts a new one.
+        window.recordCreateSession(PaymentProvider.MASTERCARD, false, stale);
+        assertEquals(1, window.consecutiveCreateSessionFailures(PaymentProvider.MASTERCARD, stale));
+    }
+
+    @Test
+    void concurrentWritesAcrossBucketRolloverAreNotLost() throws Exception {
+        ProviderHealthWindow window = new ProviderHealthWindow();
+        int threads = 8;
+        int perThread = 2_000;
+        int rounds = 50;
+        long bucket = Duration.ofSeconds(10).toMillis();
+        long span = 96 * bucket;
+        CyclicBarrier start = new CyclicBarrier(threads);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            for (int round = 0; round < rounds; round++) {
+                long now = T0 + round * bucket;
+                // The slot still holds an epoch from one lap ago, so the first writer has to recycle it.
+                window.recordCreateSession(PaymentProvider.STRIPE, false, now - span);
+
+                List<Future<?>> writers = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    writers.add(pool.submit(() -> {
+                        start.await();
+                        for (int i = 0; i < perThread; i++) {
+                            window.recordCreateSession(PaymentProvider.STRIPE, false, now);
+                        }
+                        return null;
+                    }));
+                }
+                for (Future<?> writer : writers) writer.get();
+
+                var counts = window.createSessions(PaymentProvider.STRIPE, Duration.ZERO, now);
+                assertEquals((long) threads * perThread, counts.failed(), "round " + round);
+                assertEquals(0, counts.succeeded(), "round " + round);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
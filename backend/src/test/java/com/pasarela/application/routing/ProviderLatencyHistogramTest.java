@@ -0,0 +1,59 @@
+/*
+ * Copyright (C) 2025 Pasarela Orchestrator
+ * SPDX-License-Identifier: AGPL-3.0-only
+ */
+
+package com.pasarela.application.routing;
+
+import com.pasarela.domain.model.PaymentProvider;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProviderLatencyHistogramTest {
+    private static final long T0 = 1_700_000_000_000L;
+
+    @Test
+    void bucketsAreContiguousAndBoundRelativeError() {
+        int previous = -1;
+        for (long v = 0; v <= ProviderLatencyHistogram.MAX_TRACKABLE_MS; v += (v < 4096 ? 1 : 97)) {
+            int index = ProviderLatencyHistogram.bucketIndex(v);
+            assertTrue(index == previous || index == previous + 1, "gap at " + v);
+            long upper = ProviderLatencyHistogram.highestEquivalentValue(index);
+            assertTrue(upper >= v);
+            assertTrue(upper - v <= Math.max(1, v / 16), "error too large at " + v);
+            previous = index;
+        }
+        assertEquals(ProviderLatencyHistogram.BUCKETS - 1, previous);
+    }
+
+    @Test
+    void percentilesMatchSortedRanks() {
+        ProviderLatencyHistogram histogram = new ProviderLatencyHistogram();
+        for (int i = 1; i <= 20; i++) {
+            histogram.record(PaymentProvider.STRIPE, i, T0);
+        }
+
+        var percentiles = histogram.percentiles(PaymentProvider.STRIPE, T0);
+        assertEquals(10, percentiles.p50());
+        assertEquals(19, percentiles.p95());
+        assertEquals(20, percentiles.p99());
+        assertEquals(19, histogram.valueAtPercentile(PaymentProvider.STRIPE, 95, T0));
+        assertEquals(0, histogram.percentiles(PaymentProvider.ADYEN, T0).p95());
+    }
+
+    @Test
+    void expiredSlicesLeaveTheWindow() {
+        ProviderLatencyHistogram histogram = new ProviderLatencyHistogram(Duration.ofMinutes(15));
+        histogram.record(PaymentProvider.ADYEN, 5_000, T0);
+        long later = T0 + Duration.ofMinutes(20).toMillis();
+        histogram.record(PaymentProvider.ADYEN, 100, later);
+
+        var percentiles = histogram.percentiles(PaymentProvider.ADYEN, later);
+        assertTrue(percentiles.p99() >= 100 && percentiles.p99() < 110);
+        assertEquals(0, histogram.percentiles(PaymentProvider.ADYEN, later + Duration.ofMinutes(16).toMillis()).p95());
+    }
+}
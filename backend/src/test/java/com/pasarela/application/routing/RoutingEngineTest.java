@@ -6,9 +6,12 @@
 package com.pasarela.application.routing;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pasarela.config.AppProperties;
 import com.pasarela.domain.model.CircuitState;
 import com.pasarela.domain.model.PaymentProvider;
+import com.pasarela.domain.model.RoutingReasonCode;
 import com.pasarela.infrastructure.persistence.entity.MerchantEntity;
+import com.pasarela.infrastructure.persistence.entity.RoutingDecisionEntity;
 import org.junit.jupiter.api.Test;
 
 import java.nio.charset.StandardCharsets;
@@ -20,7 +23,9 @@ import java.util.Set;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class RoutingEngineTest {
     @Test
@@ -28,7 +33,7 @@ class RoutingEngineTest {
         ProviderHealthReader health = RoutingEngineTest::snapshot;
 
         ObjectMapper mapper = new ObjectMapper();
-        RoutingEngine engine = new RoutingEngine(health, mapper);
+        RoutingEngine engine = new RoutingEngine(health, new RoutingConfigCache(mapper), capabilities(), new ProviderBanditStats(capabilities()));
 
         MerchantEntity merchant = new MerchantEntity();
         merchant.setName("m1");
@@ -37,7 +42,7 @@ class RoutingEngineTest {
         EnumMap<PaymentProvider, Double> cost = new EnumMap<>(PaymentProvider.class);
         cost.put(PaymentProvider.STRIPE, 0.0);
         cost.put(PaymentProvider.ADYEN, 0.0);
-        RoutingConfig cfg = new RoutingConfig("AUTO", new RoutingWeights(1, 0, 0, 0, 0), cost);
+        RoutingConfig cfg = new RoutingConfig("AUTO", new RoutingWeights(1, 0, 0, 0, 0), cost, RoutingStrategy.WEIGHTED_SCORE);
         merchant.setConfigJson(mapper.writeValueAsString(cfg));
 
         UUID paymentIntentId = UUID.fromString("aaaaaaaa-aaaa-aaaa-aaaa-aaaaaaaaaaaa");
@@ -54,18 +59,129 @@ class RoutingEngineTest {
     void explicitPreferenceMustRespectHardConstraints() throws Exception {
         ProviderHealthReader health = RoutingEngineTest::snapshot;
 
-        RoutingEngine engine = new RoutingEngine(health, new ObjectMapper());
+        ObjectMapper mapper = new ObjectMapper();
+        RoutingEngine engine = new RoutingEngine(health, new RoutingConfigCache(mapper), capabilities(), new ProviderBanditStats(capabilities()));
 
         MerchantEntity merchant = new MerchantEntity();
         merchant.setName("m1");
         merchant.setApiKeyHash("x");
-        merchant.setConfigJson(new ObjectMapper().writeValueAsString(RoutingConfig.defaults()));
+        merchant.setConfigJson(mapper.writeValueAsString(RoutingConfig.defaults()));
 
         assertThrows(IllegalArgumentException.class, () ->
                 engine.decide(merchant, UUID.randomUUID(), 1000, "MXN", ProviderPreference.STRIPE, Set.of(), List.of(PaymentProvider.STRIPE))
         );
     }
 
+    @Test
+    void cachedConfigIsRecompiledWhenConfigJsonChanges() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        RoutingConfigCache cache = new RoutingConfigCache(mapper);
+
+        MerchantEntity merchant = new MerchantEntity();
+        merchant.setId(UUID.randomUUID());
+        merchant.setConfigJson(mapper.writeValueAsString(RoutingConfig.defaults()));
+
+        CompiledRoutingConfig first = cache.get(merchant);
+        assertSame(first, cache.get(merchant));
+        assertEquals(0.25, first.cost(PaymentProvider.ADYEN), 1e-9);
+        assertEquals(0.3, first.cost(PaymentProvider.DEMO), 1e-9);
+
+        EnumMap<PaymentProvider, Double> cost = new EnumMap<>(PaymentProvider.class);
+        cost.put(PaymentProvider.ADYEN, 0.9);
+        merchant.setConfigJson(mapper.writeValueAsString(new RoutingConfig("adyen", null, cost, null)));
+
+        CompiledRoutingConfig second = cache.get(merchant);
+        assertTrue(second.version() > first.version());
+        assertEquals(0.9, second.cost(PaymentProvider.ADYEN), 1e-9);
+        assertEquals(PaymentProvider.ADYEN, second.forcedProvider());
+        assertEquals(RoutingWeights.defaults(), second.config().weights());
+    }
+
+    @Test
+    void banditStrategySamplesFromPaymentOutcomes() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        ProviderBanditStats stats = new ProviderBanditStats(capabilities());
+        RoutingEngine engine = new RoutingEngine(RoutingEngineTest::snapshot, new RoutingConfigCache(mapper), capabilities(), stats);
+
+        MerchantEntity merchant = new MerchantEntity();
+        RoutingConfig defaults = RoutingConfig.defaults();
+        merchant.setConfigJson(mapper.writeValueAsString(
+                new RoutingConfig("AUTO", defaults.weights(), defaults.costModel(), RoutingStrategy.BANDIT)));
+
+        for (int i = 0; i < 200; i++) {
+            stats.record(PaymentProvider.ADYEN, "EUR", true);
+            stats.record(PaymentProvider.STRIPE, "EUR", false);
+            stats.record(PaymentProvider.STRIPE, "USD", true);
+        }
+        var candidates = List.of(PaymentProvider.STRIPE, PaymentProvider.ADYEN);
+        for (int i = 0; i < 20; i++) {
+            RoutingEngine.RoutingResult result = engine.decide(merchant, UUID.randomUUID(), 1000, "eur", ProviderPreference.AUTO, Set.of(), candidates);
+            assertEquals(PaymentProvider.ADYEN, result.chosenProvider());
+            assertEquals(RoutingReasonCode.BANDIT, result.reasonCode());
+        }
+
+        for (long i = 0; i < ProviderBanditStats.HORIZON; i++) {
+            stats.record(PaymentProvider.MASTERCARD, "GBP", i % 4 != 0);
+        }
+        var counts = stats.counts(PaymentProvider.MASTERCARD, "GBP");
+        assertTrue(counts.total() <= ProviderBanditStats.HORIZON);
+        assertEquals(0.75, counts.successRate(), 0.01);
+    }
+
+    @Test
+    void decisionScoresArePackedAndRenderedOnDemand() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        RoutingEngine engine = new RoutingEngine(RoutingEngineTest::snapshot, new RoutingConfigCache(mapper), capabilities(), new ProviderBanditStats(capabilities()));
+
+        MerchantEntity merchant = new MerchantEntity();
+        merchant.setConfigJson(mapper.writeValueAsString(RoutingConfig.defaults()));
+
+        RoutingEngine.RoutingResult result = engine.decide(merchant, UUID.randomUUID(), 1000, "usd", ProviderPreference.AUTO, Set.of(PaymentProvider.STRIPE), List.of());
+        assertEquals(RoutingReasonCode.WEIGHTED_SCORE, result.reasonCode());
+
+        var decoded = RoutingDecisionCodec.decode(result.candidateScores());
+        assertEquals(RoutingWeights.defaults(), decoded.weights());
+        assertEquals(List.of(PaymentProvider.ADYEN, PaymentProvider.MASTERCARD),
+                decoded.candidates().stream().map(RoutingDecisionCodec.Candidate::provider).toList());
+
+        RoutingDecisionEntity decision = new RoutingDecisionEntity();
+        decision.setCurrency("USD");
+        decision.setAmountMinor(1000L);
+        decision.setCandidateScores(result.candidateScores());
+        decision.setCreatedAt(Instant.now());
+        var json = mapper.readTree(new RoutingDecisionCodec(mapper).renderJson(decision));
+        assertEquals("USD", json.get("currency").asText());
+        assertEquals(0.25, json.at("/candidates/ADYEN/inputs/costScore").asDouble(), 1e-9);
+        assertEquals("CLOSED", json.at("/candidates/MASTERCARD/inputs/circuitState").asText());
+    }
+
+    @Test
+    void capabilityMasksCombineCurrencyAmountAndMethod() {
+        ProviderCapabilityRegistry registry = new ProviderCapabilityRegistry(Map.of(
+                PaymentProvider.STRIPE, new AppProperties.Routing.Capability(List.of("USD", "EUR"), null, null, List.of("card")),
+                PaymentProvider.ADYEN, new AppProperties.Routing.Capability(List.of("eur"), 100L, 50_000L, null),
+                PaymentProvider.MASTERCARD, new AppProperties.Routing.Capability(List.of("*"), null, null, List.of("card"))
+        ));
+        long stripe = ProviderCapabilityRegistry.bit(PaymentProvider.STRIPE);
+        long adyen = ProviderCapabilityRegistry.bit(PaymentProvider.ADYEN);
+        long mastercard = ProviderCapabilityRegistry.bit(PaymentProvider.MASTERCARD);
+
+        assertEquals(stripe | adyen | mastercard, registry.eligible("eur", 1000, null));
+        assertEquals(stripe | mastercard, registry.eligible("EUR", 99, null));
+        assertEquals(mastercard, registry.eligible("MXN", 1000, null));
+        assertEquals(adyen, registry.eligible("EUR", 1000, "sepa"));
+        assertEquals("EUR", registry.canonicalCurrency("eUr"));
+        assertEquals("JPY", registry.canonicalCurrency("jpy"));
+    }
+
+    private static ProviderCapabilityRegistry capabilities() {
+        return new ProviderCapabilityRegistry(Map.of(
+                PaymentProvider.STRIPE, new AppProperties.Routing.Capability(List.of("USD", "EUR", "GBP"), null, null, null),
+                PaymentProvider.ADYEN, new AppProperties.Routing.Capability(List.of("USD", "EUR", "MXN"), null, null, null),
+                PaymentProvider.MASTERCARD, new AppProperties.Routing.Capability(List.of("*"), null, null, null)
+        ));
+    }
+
     private static ProviderSnapshot snapshot(PaymentProvider provider) {
         return new ProviderSnapshot(
                 provider,
@@ -73,6 +189,8 @@ class RoutingEngineTest {
                 0.5,
                 0.0,
                 0,
+                0,
+                0,
                 null,
                 Instant.now()
         );
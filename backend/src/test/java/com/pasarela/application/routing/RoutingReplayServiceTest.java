@@ -0,0 +1,55 @@
+/*
+ * Copyright (C) 2025 Pasarela Orchestrator
+ * SPDX-License-Identifier: AGPL-3.0-only
+ */
+
+package com.pasarela.application.routing;
+
+import com.pasarela.domain.model.CircuitState;
+import com.pasarela.domain.model.PaymentProvider;
+import com.pasarela.domain.model.RoutingReasonCode;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RoutingReplayServiceTest {
+    @Test
+    void cheaperCostModelShiftsShareAndReportsDeltas() {
+        RoutingReplayService.Batch batch = new RoutingReplayService.Batch(RoutingReplayService.BATCH_SIZE);
+        for (int i = 0; i < 10; i++) {
+            byte[] packed = RoutingDecisionCodec.writer(RoutingWeights.defaults(), 2)
+                    .candidate(PaymentProvider.STRIPE, snapshot(PaymentProvider.STRIPE, 0.9), 0.6, 0.30, 0, 1, 0)
+                    .candidate(PaymentProvider.ADYEN, snapshot(PaymentProvider.ADYEN, 0.8), 0.5, 0.25, 0, 1, 0)
+                    .toBytes();
+            batch.add(UUID.randomUUID().toString(), PaymentProvider.STRIPE, RoutingReasonCode.WEIGHTED_SCORE, packed);
+        }
+        batch.add(UUID.randomUUID().toString(), PaymentProvider.ADYEN, RoutingReasonCode.EXPLICIT_PREFERENCE,
+                RoutingDecisionCodec.writer(RoutingWeights.defaults(), 0).toBytes());
+        batch.add(UUID.randomUUID().toString(), PaymentProvider.STRIPE, RoutingReasonCode.WEIGHTED_SCORE, null);
+
+        EnumMap<PaymentProvider, Double> cost = new EnumMap<>(PaymentProvider.class);
+        cost.put(PaymentProvider.STRIPE, 1.0);
+        cost.put(PaymentProvider.ADYEN, 0.0);
+        CompiledRoutingConfig cfg = new CompiledRoutingConfig(new RoutingConfig("AUTO", RoutingWeights.defaults(), cost, RoutingStrategy.WEIGHTED_SCORE), null, 0);
+
+        var report = RoutingReplayService.replay(batch, cfg, true).report(0);
+
+        assertEquals(12, report.decisions());
+        assertEquals(10, report.rescored());
+        assertEquals(10, report.changed());
+        assertEquals(1, report.skipped());
+        var adyen = report.providers().stream().filter(s -> s.provider() == PaymentProvider.ADYEN).findFirst().orElseThrow();
+        assertEquals(1, adyen.baselineDecisions());
+        assertEquals(11, adyen.simulatedDecisions());
+        assertEquals(-0.1, report.successRateDelta(), 1e-9);
+        assertEquals(-1.0, report.costScoreDelta(), 1e-9);
+    }
+
+    private static ProviderSnapshot snapshot(PaymentProvider provider, double successRate) {
+        return new ProviderSnapshot(provider, CircuitState.CLOSED, successRate, 0, 0, 0, 0, null, Instant.now());
+    }
+}
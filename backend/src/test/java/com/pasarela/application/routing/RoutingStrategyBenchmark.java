@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2025 Pasarela Orchestrator
+ * SPDX-License-Identifier: AGPL-3.0-only
+ */
+
+package com.pasarela.application.routing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pasarela.config.AppProperties;
+import com.pasarela.domain.model.CircuitState;
+import com.pasarela.domain.model.PaymentProvider;
+import com.pasarela.infrastructure.persistence.entity.MerchantEntity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decision-path cost of {@link RoutingStrategy#BANDIT} against {@link RoutingStrategy#WEIGHTED_SCORE}.
+ * Run with {@code mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test
+ * "-Dexec.args=-cp %classpath org.openjdk.jmh.Main RoutingStrategyBenchmark"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RoutingStrategyBenchmark {
+    private static final List<PaymentProvider> CANDIDATES = List.of(PaymentProvider.STRIPE, PaymentProvider.ADYEN, PaymentProvider.MASTERCARD);
+
+    @Param({"WEIGHTED_SCORE", "BANDIT"})
+    public RoutingStrategy strategy;
+
+    private RoutingEngine engine;
+    private MerchantEntity merchant;
+    private UUID paymentIntentId;
+
+    @Setup
+    public void setUp() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        ProviderCapabilityRegistry capabilities = new ProviderCapabilityRegistry(Map.of(
+                PaymentProvider.STRIPE, new AppProperties.Routing.Capability(List.of("USD", "EUR"), null, null, null),
+                PaymentProvider.ADYEN, new AppProperties.Routing.Capability(List.of("USD", "EUR"), null, null, null),
+                PaymentProvider.MASTERCARD, new AppProperties.Routing.Capability(List.of("*"), null, null, null)
+        ));
+        ProviderBanditStats stats = new ProviderBanditStats(capabilities);
+        for (int i = 0; i < 1000; i++) {
+            stats.record(PaymentProvider.STRIPE, "EUR", i % 10 != 0);
+            stats.record(PaymentProvider.ADYEN, "EUR", i % 8 != 0);
+            stats.record(PaymentProvider.MASTERCARD, "EUR", i % 5 != 0);
+        }
+        ProviderHealthReader health = provider -> new ProviderSnapshot(
+                provider, CircuitState.CLOSED, 0.9, 0.01, 120, 300, 600, null, Instant.now());
+        engine = new RoutingEngine(health, new RoutingConfigCache(mapper), capabilities, stats);
+
+        RoutingConfig defaults = RoutingConfig.defaults();
+        merchant = new MerchantEntity();
+        merchant.setId(UUID.randomUUID());
+        merchant.setConfigJson(mapper.writeValueAsString(
+                new RoutingConfig("AUTO", defaults.weights(), defaults.costModel(), strategy)));
+        paymentIntentId = UUID.randomUUID();
+    }
+
+    @Benchmark
+    public RoutingEngine.RoutingResult decide() {
+        return engine.decide(merchant, paymentIntentId, 2500, "EUR", ProviderPreference.AUTO, Set.of(), CANDIDATES);
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2025 Pasarela Orchestrator
+ * SPDX-License-Identifier: AGPL-3.0-only
+ */
+
+package com.pasarela.infrastructure.crypto;
+
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AesGcmCryptoTest {
+    private static final byte[] KEY = "0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    private final AesGcmCrypto crypto = new AesGcmCrypto(KEY);
+
+    @Test
+    void roundTripsThroughBothApis() {
+        byte[] plaintext = "{\"secretKey\":\"sk_test\"}".getBytes(StandardCharsets.UTF_8);
+
+        String token = crypto.encryptToString(plaintext);
+        assertTrue(token.startsWith("v1:"));
+        assertArrayEquals(plaintext, crypto.decryptToBytes(token));
+
+        ByteBuffer decrypted = crypto.decrypt(crypto.encryptToString(ByteBuffer.wrap(plaintext)));
+        assertEquals(ByteBuffer.wrap(plaintext), decrypted);
+    }
+
+    @Test
+    void decryptsTokensWrittenByTheOriginalFormat() throws Exception {
+        byte[] nonce = new byte[12];
+        nonce[11] = 7;
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(KEY, "AES"), new GCMParameterSpec(128, nonce));
+        byte[] ciphertext = cipher.doFinal("legacy".getBytes(StandardCharsets.UTF_8));
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        String token = String.join(":", "v1", encoder.encodeToString(nonce), encoder.encodeToString(ciphertext));
+
+        assertEquals("legacy", new String(crypto.decryptToBytes(token), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void noncesAreNotReused() {
+        Set<String> nonces = new HashSet<>();
+        for (int i = 0; i < 1_000; i++) {
+            String token = crypto.encryptToString(new byte[] {1});
+            assertTrue(nonces.add(token.split(":")[1]));
+        }
+    }
+
+    @Test
+    void rejectsTamperedAndMalformedTokens() {
+        String token = crypto.encryptToString("payload".getBytes(StandardCharsets.UTF_8));
+        int at = token.length() - 5;
+        String tampered = token.substring(0, at) + (token.charAt(at) == 'A' ? 'B' : 'A') + token.substring(at + 1);
+
+        assertThrows(IllegalStateException.class, () -> crypto.decryptToBytes(tampered));
+        assertThrows(IllegalStateException.class, () -> crypto.decryptToBytes("v2:" + token.substring(3)));
+        assertThrows(IllegalStateException.class, () -> crypto.decryptToBytes(token + ":extra"));
+        assertThrows(IllegalStateException.class, () -> crypto.decryptToBytes(null));
+        // A failed decrypt must not leave a broken cipher in the pool.
+        assertArrayEquals("payload".getBytes(StandardCharsets.UTF_8), crypto.decryptToBytes(token));
+    }
+}
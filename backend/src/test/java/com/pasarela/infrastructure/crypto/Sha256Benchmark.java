@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2025 Pasarela Orchestrator
+ * SPDX-License-Identifier: AGPL-3.0-only
+ */
+
+package com.pasarela.infrastructure.crypto;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Sha256#hex(String)} against the implementation it replaced (digest per call, {@code getBytes}, then
+ * {@code Character.forDigit} hex), for an API key and a webhook-sized payload.
+ * Run with {@code mvn test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test
+ * "-Dexec.args=-cp %classpath org.openjdk.jmh.Main Sha256Benchmark -prof gc"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class Sha256Benchmark {
+    @Param({"48", "8192"})
+    public int length;
+
+    private String input;
+    private byte[] inputBytes;
+
+    @Setup
+    public void setUp() {
+        StringBuilder sb = new StringBuilder(length);
+        while (sb.length() < length) sb.append("{\"type\":\"payment_intent.succeeded\",\"id\":\"evt_1\"}");
+        input = sb.substring(0, length);
+        inputBytes = input.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public String previous() throws Exception {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        byte[] hashed = digest.digest(input.getBytes(StandardCharsets.UTF_8));
+        StringBuilder sb = new StringBuilder(hashed.length * 2);
+        for (byte b : hashed) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16));
+            sb.append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+
+    @Benchmark
+    public String string() {
+        return Sha256.hex(input);
+    }
+
+    @Benchmark
+    public String bytes() {
+        return Sha256.hex(inputBytes);
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright (C) 2025 Pasarela Orchestrator
+ * SPDX-License-Identifier: AGPL-3.0-only
+ */
+
+package com.pasarela.infrastructure.crypto;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class Sha256Test {
+    @Test
+    void matchesKnownVector() {
+        assertEquals("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad", Sha256.hex("abc"));
+        assertEquals("e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855", Sha256.hex(""));
+    }
+
+    @Test
+    void streamsStringsAsUtf8() throws Exception {
+        String payload = "{\"name\":\"Café ✓ 😀\"}".repeat(400) + "\ud800 dangling" + "x".repeat(5000);
+        String expected = reference(payload.getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(expected, Sha256.hex(payload));
+        assertEquals(expected, Sha256.hex(payload.getBytes(StandardCharsets.UTF_8)));
+        assertEquals(expected, Sha256.hex(ByteBuffer.wrap(payload.getBytes(StandardCharsets.UTF_8))));
+    }
+
+    @Test
+    void incrementalUpdatesMatchOneShot() throws Exception {
+        byte[] head = "head-".getBytes(StandardCharsets.UTF_8);
+        String expected = reference("head-body-tail".getBytes(StandardCharsets.UTF_8));
+
+        try (Sha256.Hasher hasher = Sha256.hasher()) {
+            hasher.update(head, 0, head.length)
+                    .update("body-")
+                    .update(ByteBuffer.wrap("tail".getBytes(StandardCharsets.UTF_8)));
+            assertEquals(expected, hasher.hex());
+            // hex() resets, so the hasher can be reused straight away.
+            assertEquals(Sha256.hex("abc"), hasher.update("abc").hex());
+        }
+    }
+
+    private static String reference(byte[] input) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(input));
+    }
+}
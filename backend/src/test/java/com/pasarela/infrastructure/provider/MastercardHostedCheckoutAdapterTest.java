@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2025 Pasarela Orchestrator
+ * SPDX-License-Identifier: AGPL-3.0-only
+ */
+
+package com.pasarela.infrastructure.provider;
+
+import com.pasarela.config.AppProperties;
+import com.pasarela.domain.model.PaymentProvider;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MastercardHostedCheckoutAdapterTest {
+    private static final int CALLS = 20;
+
+    private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+    private HttpServer gateway;
+    private MastercardHostedCheckoutAdapter adapter;
+
+    @BeforeEach
+    void startStubGateway() throws Exception {
+        gateway = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        gateway.createContext("/api/rest/version/", exchange -> {
+            clientPorts.add(exchange.getRemoteAddress().getPort());
+            exchange.getRequestBody().readAllBytes();
+            byte[] body = "{\"session\":{\"id\":\"SESSION0001\",\"successIndicator\":\"abc\"}}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        gateway.setExecutor(Executors.newCachedThreadPool());
+        gateway.start();
+        adapter = new MastercardHostedCheckoutAdapter(new AppProperties(null, null, null, null, null));
+    }
+
+    @AfterEach
+    void stop() {
+        adapter.shutdown();
+        gateway.stop(0);
+    }
+
+    @Test
+    void sequentialSessionsReuseConnections() {
+        for (int i = 0; i < CALLS; i++) {
+            CreateSessionResult result = adapter.createSession(command(gatewayUrl()));
+            assertEquals("SESSION0001", result.providerRef());
+        }
+
+        // A call can start before the previous connection is back in the pool, so allow a spare or two.
+        assertTrue(clientPorts.size() <= 3, CALLS + " calls opened " + clientPorts.size() + " connections");
+    }
+
+    @Test
+    void freshClientPerCallOpensAConnectionPerCall() {
+        for (int i = 0; i < CALLS; i++) {
+            MastercardHostedCheckoutAdapter unpooled = new MastercardHostedCheckoutAdapter(new AppProperties(null, null, null, null, null));
+            try {
+                assertEquals("SESSION0001", unpooled.createSession(command(gatewayUrl())).providerRef());
+            } finally {
+                unpooled.shutdown();
+            }
+        }
+
+        // The baseline the pooled adapter is measured against: without reuse every call connects again.
+        assertEquals(CALLS, clientPorts.size());
+    }
+
+    @Test
+    void hostsAreNormalizedToOneClient() {
+        try (GatewayClientRegistry registry = new GatewayClientRegistry("test")) {
+            assertSame(registry.forBaseUrl("https://Gateway.Example.com/"), registry.forBaseUrl("https://gateway.example.com:443"));
+            assertNotSame(registry.forBaseUrl("https://gateway.example.com"), registry.forBaseUrl("https://other.example.com"));
+            assertEquals(2, registry.size());
+        }
+    }
+
+    private String gatewayUrl() {
+        return "http://127.0.0.1:" + gateway.getAddress().getPort();
+    }
+
+    private static CreateSessionCommand command(String gatewayHost) {
+        return new CreateSessionCommand(
+                UUID.randomUUID(),
+                UUID.randomUUID(),
+                1000,
+                "usd",
+                "test",
+                null,
+                "http://localhost:3000/return",
+                PaymentProvider.MASTERCARD,
+                Map.of(
+                        "gatewayHost", gatewayHost,
+                        "apiVersion", "78",
+                        "merchantId", "TESTMERCHANT",
+                        "apiPassword", "secret"
+                )
+        );
+    }
+}
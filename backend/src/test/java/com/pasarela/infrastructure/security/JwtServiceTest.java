@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2025 Pasarela Orchestrator
+ * SPDX-License-Identifier: AGPL-3.0-only
+ */
+
+package com.pasarela.infrastructure.security;
+
+import com.pasarela.config.AppProperties;
+import com.pasarela.domain.model.UserRole;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JwtServiceTest {
+    private static final String SECRET = "test-jwt-secret-at-least-32-characters";
+
+    private static JwtService service(long ttlSeconds) {
+        return new JwtService(new AppProperties(null, new AppProperties.Jwt(SECRET, ttlSeconds), null, null, null));
+    }
+
+    @Test
+    void verifiedTokenIsCachedUntilExp() throws InterruptedException {
+        JwtService jwt = service(1);
+        String token = jwt.mint("admin@example.com", UserRole.ADMIN);
+
+        JwtPrincipal principal = jwt.parseAndValidate(token);
+        assertEquals("admin@example.com", principal.email());
+        assertEquals(principal, jwt.parseAndValidate(token));
+        assertEquals(1, jwt.cachedTokens());
+
+        // exp has second precision, so the token lapses at most two seconds after minting.
+        Thread.sleep(2_100);
+        assertThrows(IllegalArgumentException.class, () -> jwt.parseAndValidate(token));
+        assertEquals(0, jwt.cachedTokens());
+    }
+
+    @Test
+    void tokenWithoutExpIsVerifiedEveryTime() {
+        JwtService jwt = service(3600);
+        String token = Jwts.builder()
+                .setSubject("no-exp@example.com")
+                .claim("role", UserRole.ADMIN.name())
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)), SignatureAlgorithm.HS256)
+                .compact();
+
+        assertEquals("no-exp@example.com", jwt.parseAndValidate(token).email());
+        assertEquals("no-exp@example.com", jwt.parseAndValidate(token).email());
+        assertEquals(0, jwt.cachedTokens());
+    }
+
+    @Test
+    void invalidAndTamperedTokensAreNeverCached() {
+        JwtService jwt = service(3600);
+        String token = jwt.mint("admin@example.com", UserRole.ADMIN);
+        jwt.parseAndValidate(token);
+
+        int at = token.length() - 3;
+        String tampered = token.substring(0, at) + (token.charAt(at) == 'A' ? 'B' : 'A') + token.substring(at + 1);
+        String foreign = Jwts.builder()
+                .setSubject("admin@example.com")
+                .claim("role", UserRole.ADMIN.name())
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000))
+                .signWith(Keys.hmacShaKeyFor("another-secret-that-is-32-chars-long".getBytes(StandardCharsets.UTF_8)), SignatureAlgorithm.HS256)
+                .compact();
+
+        for (int i = 0; i < 2; i++) {
+            assertThrows(IllegalArgumentException.class, () -> jwt.parseAndValidate(tampered));
+            assertThrows(IllegalArgumentException.class, () -> jwt.parseAndValidate(foreign));
+            assertThrows(IllegalArgumentException.class, () -> jwt.parseAndValidate("not-a-jwt"));
+        }
+        assertEquals(1, jwt.cachedTokens());
+    }
+
+    @Test
+    void cacheIsBoundedByLeastRecentUse() {
+        JwtService jwt = service(3600);
+        String kept = jwt.mint("kept@example.com", UserRole.ADMIN);
+        jwt.parseAndValidate(kept);
+
+        for (int i = 0; i < JwtService.MAX_VERIFIED; i++) {
+            jwt.parseAndValidate(jwt.mint("user" + i + "@example.com", UserRole.ADMIN));
+            if (i % 1_000 == 0) jwt.parseAndValidate(kept);
+        }
+
+        assertEquals(JwtService.MAX_VERIFIED, jwt.cachedTokens());
+        assertEquals("kept@example.com", jwt.parseAndValidate(kept).email());
+        assertEquals(JwtService.MAX_VERIFIED, jwt.cachedTokens());
+    }
+}
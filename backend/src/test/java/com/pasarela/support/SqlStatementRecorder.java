@@ -0,0 +1,36 @@
+/*
+ * Copyright (C) 2025 Pasarela Orchestrator
+ * SPDX-License-Identifier: AGPL-3.0-only
+ */
+
+package com.pasarela.support;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hibernate statement inspector for tests: records the SQL prepared on the current thread between
+ * {@link #start()} and {@link #stop()}. Registered through {@code application-test.yml}.
+ */
+public class SqlStatementRecorder implements StatementInspector {
+    private static final ThreadLocal<List<String>> RECORDING = new ThreadLocal<>();
+
+    public static void start() {
+        RECORDING.set(new ArrayList<>());
+    }
+
+    public static List<String> stop() {
+        List<String> recorded = RECORDING.get();
+        RECORDING.remove();
+        return recorded == null ? List.of() : recorded;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        List<String> recorded = RECORDING.get();
+        if (recorded != null) recorded.add(sql);
+        return sql;
+    }
+}